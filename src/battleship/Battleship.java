@@ -1,5 +1,7 @@
 package battleship;
 
+import java.util.List;
+
 /**
  * The Battleship interface specifies all methods that are important for the logic of
  * the game. The interface is implemented by the BattleshipImpl class, which implements
@@ -42,6 +44,16 @@ public interface Battleship {
      */
     void doSetShips(Coordinate startCoordinate, Coordinate endCoordinate) throws GameException;
 
+    /**
+     * This method places the whole fleet on your own board at once. The positions
+     * of the ships are never sent to the enemy, only that the fleet is placed.
+     *
+     * @param ships All ships of the fleet.
+     * @throws GameException Throws an error if the fleet is not complete or one of
+     *                       the ships breaks a rule of doSetShips. No ship is placed then.
+     */
+    void doSetFleet(List<Ship> ships) throws GameException;
+
     /**
      * This method updates the own or opponent's GameStatus.
      *
@@ -63,4 +75,45 @@ public interface Battleship {
      * @throws GameException Throws an error if the sent coordinates are not correct.
      */
     void doSendResult(BattleshipFieldStatus battleshipFieldStatus, Coordinate coordinate) throws GameException;
+
+    /**
+     * This method sends the complete answer to a shot: the status of the field, the new
+     * GameStatus of both players and whether a ship was sunk or the game is over.
+     * A received FireResult is reused by the protocol engine for the next answer.
+     *
+     * @param fireResult The answer to the shot
+     * @throws GameException Throws an error when there is an error with the protocol engine.
+     */
+    void doSendFireResult(FireResult fireResult) throws GameException;
+
+    /**
+     * This method reports a GameEvent to the enemy. Only the code of the event and the
+     * values are sent, the text for the player is produced by the UI.
+     *
+     * @param gameEvent   The event
+     * @param firstValue  The first value of the event, e.g. the number of placed ships
+     * @param secondValue The second value of the event, e.g. the required number of ships
+     * @throws GameException Throws an error when there is an error with the protocol engine.
+     */
+    void doSendEvent(GameEvent gameEvent, int firstValue, int secondValue) throws GameException;
+
+    /**
+     * This method fires a salvo of several shots at the opponent's board at once.
+     *
+     * @param coordinates The coordinates of all shots of the salvo
+     * @param isYourBoard Specifies whether the salvo is fired at your own board, i.e.
+     *                    whether you have to answer it.
+     * @throws GameException Throws an error if the salvo has too many shots, it is not
+     *                       your turn or the enemy does not support salvos.
+     */
+    void doFireSalvo(List<Coordinate> coordinates, boolean isYourBoard) throws GameException;
+
+    /**
+     * This method sends the answers to all shots of a salvo in one message. A received
+     * list and its FireResults are reused by the protocol engine for the next salvo.
+     *
+     * @param fireResults The answers in the order of the shots
+     * @throws GameException Throws an error when there is an error with the protocol engine.
+     */
+    void doSendSalvoResult(List<FireResult> fireResults) throws GameException;
 }
\ No newline at end of file
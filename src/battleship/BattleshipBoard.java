@@ -3,6 +3,7 @@ package battleship;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class represents a Battleship Board. It contains a two-dimensional
@@ -12,25 +13,76 @@ import java.util.List;
  * assigned the status "BattleshipFieldStatus.EMPTY_NO_SHOOT" and when
  * initializing the opponent's board, each field is assigned the status
  * "BattleshipFieldStatus.UNKNOWN".
+ * <p>
+ * A board larger than 100 x 100 fields is stored sparsely: only the fields
+ * whose status differs from the initial one, i.e. the fields with a ship or a
+ * shot, are kept in a map. So the memory of a board of 10,000 x 10,000 fields
+ * grows with the ships and the shots and not with its area.
+ * <p>
+ * Every board also keeps an index from the fields to the ships on them, an
+ * array of ship numbers on a small board and a map on a larger one. So finding
+ * the ship that was hit and checking whether a new ship overlaps an existing one
+ * takes constant time per field, independent of the number of ships. When a
+ * field of a ship is set to SHIP_SHOOT, the ship counts the hit and the board
+ * counts the ships that are not sunk yet, so the end of the game is known
+ * without scanning the fleet.
+ * <p>
+ * The neighbour check of a new ship neither creates objects nor catches
+ * exceptions: the standard board keeps its ship fields as bits like the BitBoard
+ * and ANDs them with the precomputed halo of the placement; any other board up
+ * to 100 x 100 fields looks up the fields around the new ship in its array of
+ * ship numbers, so both take constant time per field of the ship. A sparse board
+ * compares the area around the new ship with the area of every ship, because a
+ * lookup in its map would box every field; a fleet has only ten ships.
  *
  * @author friedrichvoelkers
  */
 public final class BattleshipBoard {
 
+    // An array of 100 x 100 references needs about 40 KB, larger boards use the map
+    static final int MAX_DENSE_DIMENSION = 100;
+
+    // Only one of both is used: the array on a small board, the map on a larger board
     private final BattleshipFieldStatus[][] battleshipBoard;
+    private final Map<Integer, BattleshipFieldStatus> changedFields;
+    private final BattleshipFieldStatus initialFieldStatus;
+    // The index of the ship in allShips plus one for every field, 0 is a field without a ship
+    private final short[] shipNumbers;
+    private final Map<Integer, Ship> shipsOfFields;
     private final List<Ship> allShips = new ArrayList<>();
+    private int numberOfRemainingShips;
+    // The fields with a ship as bits of the BitBoard, only used on the standard board
+    private long shipsLow;
+    private long shipsHigh;
     private final HashMap<Integer, Integer> numberOfShipsPerLength = new HashMap<>();
-    private final int xLength = BattleshipEngine.STANDARD_DIMENSION;
-    private final int yLength = BattleshipEngine.STANDARD_DIMENSION;
+    private final int xLength;
+    private final int yLength;
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
     //                                           constructor                                                  //
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     public BattleshipBoard(boolean isYourBoard) {
-        this.battleshipBoard = new BattleshipFieldStatus[this.xLength][this.yLength];
-        if (isYourBoard) createYourBoard();
-        else createEnemiesBoard();
+        this(isYourBoard, BattleshipEngine.STANDARD_DIMENSION);
+    }
+
+    public BattleshipBoard(boolean isYourBoard, int dimension) {
+        this.xLength = dimension;
+        this.yLength = dimension;
+        this.initialFieldStatus = isYourBoard ? BattleshipFieldStatus.EMPTY_NO_SHOOT : BattleshipFieldStatus.UNKNOWN;
+        if (dimension > MAX_DENSE_DIMENSION) {
+            this.battleshipBoard = null;
+            this.changedFields = new HashMap<>();
+            this.shipNumbers = null;
+            this.shipsOfFields = new HashMap<>();
+        } else {
+            this.battleshipBoard = new BattleshipFieldStatus[this.xLength][this.yLength];
+            this.changedFields = null;
+            this.shipNumbers = new short[this.xLength * this.yLength];
+            this.shipsOfFields = null;
+            if (isYourBoard) createYourBoard();
+            else createEnemiesBoard();
+        }
     }
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -71,6 +123,10 @@ public final class BattleshipBoard {
     }
 
     void createYourBoard() {
+        if (this.changedFields != null) {
+            this.changedFields.clear();
+            return;
+        }
         for (int i = 0; i < xLength; i++) {
             for (int j = 0; j < yLength; j++) {
                 this.battleshipBoard[i][j] = BattleshipFieldStatus.EMPTY_NO_SHOOT;
@@ -81,42 +137,84 @@ public final class BattleshipBoard {
     public void addShip(Ship ship) throws GameException {
         if (!shipAlreadyExists(ship)) {
             allShips.add(ship);
+            if (!Ship.checkIfShipIsCompleteyShoot(ship)) numberOfRemainingShips++;
+            if (this.isStandardBoard()) {
+                shipsLow |= BitBoard.maskLow(ship);
+                shipsHigh |= BitBoard.maskHigh(ship);
+            }
             if (numberOfShipsPerLength.containsKey(ship.getLength()))
                 numberOfShipsPerLength.put(ship.getLength(), numberOfShipsPerLength.get(ship.getLength()) + 1);
             else numberOfShipsPerLength.put(ship.getLength(), 1);
             for (Coordinate coordinate : ship.getCoordinates()) {
-                battleshipBoard[coordinate.getxCoordinate()][coordinate.getyCoordinate()] = BattleshipFieldStatus.SHIP_NO_SHOOT;
+                this.setFieldStatus(BattleshipFieldStatus.SHIP_NO_SHOOT, coordinate);
+                if (this.shipsOfFields != null) this.shipsOfFields.put(this.field(coordinate), ship);
+                else this.shipNumbers[this.field(coordinate)] = (short) allShips.size();
             }
         } else throw new GameException("This ship already exists.");
     }
 
     public boolean shipAlreadyExists(Ship shipParameter) {
-        for (Ship ship : allShips) {
-            for (Coordinate coordinate : ship.getCoordinates()) {
-                for (Coordinate shipParameterCoordinate : shipParameter.getCoordinates()) {
-                    if (shipParameterCoordinate.compareTo(coordinate) == 0) return true;
+        for (Coordinate shipParameterCoordinate : shipParameter.getCoordinates()) {
+            if (this.findShip(shipParameterCoordinate) != null) return true;
+        }
+        return false;
+    }
+
+    /**
+     * The ship has to be on the board, the engine checks this first.
+     *
+     * @return Whether a ship of the board is on a field of the ship or next to it.
+     */
+    public boolean checkIfTheShipHasDirectNeighbours(Ship shipParameter) {
+        if (this.isStandardBoard())
+            return ((shipsLow & BitBoard.haloLow(shipParameter)) | (shipsHigh & BitBoard.haloHigh(shipParameter))) != 0;
+
+        Coordinate startCoordinate = shipParameter.getStartCoordinate();
+        Coordinate endCoordinate = shipParameter.getEndCoordinate();
+        int fromX = Math.min(startCoordinate.getxCoordinate(), endCoordinate.getxCoordinate()) - 1;
+        int toX = Math.max(startCoordinate.getxCoordinate(), endCoordinate.getxCoordinate()) + 1;
+        int fromY = Math.min(startCoordinate.getyCoordinate(), endCoordinate.getyCoordinate()) - 1;
+        int toY = Math.max(startCoordinate.getyCoordinate(), endCoordinate.getyCoordinate()) + 1;
+        if (this.shipNumbers != null) {
+            for (int x = Math.max(fromX, 0); x <= Math.min(toX, this.xLength - 1); x++) {
+                for (int y = Math.max(fromY, 0); y <= Math.min(toY, this.yLength - 1); y++) {
+                    if (this.shipNumbers[x * this.yLength + y] != 0) return true;
                 }
             }
+            return false;
+        }
+        // An index loop, because an iterator would be created for every check
+        for (int i = 0; i < allShips.size(); i++) {
+            Ship ship = allShips.get(i);
+            int shipFromX = Math.min(ship.getStartCoordinate().getxCoordinate(), ship.getEndCoordinate().getxCoordinate());
+            int shipToX = Math.max(ship.getStartCoordinate().getxCoordinate(), ship.getEndCoordinate().getxCoordinate());
+            int shipFromY = Math.min(ship.getStartCoordinate().getyCoordinate(), ship.getEndCoordinate().getyCoordinate());
+            int shipToY = Math.max(ship.getStartCoordinate().getyCoordinate(), ship.getEndCoordinate().getyCoordinate());
+            if (shipFromX <= toX && fromX <= shipToX && shipFromY <= toY && fromY <= shipToY) return true;
         }
         return false;
     }
 
     public Ship getShipOnACoordinate(Coordinate coordinateParameter) throws GameException {
-        for (Ship ship : allShips) {
-            for (Coordinate coordinate : ship.getCoordinates()) {
-                if (coordinateParameter.compareTo(coordinate) == 0) return ship;
-            }
-        }
-        throw new GameException("No ship was found at these coordinates.");
+        Ship ship = this.findShip(coordinateParameter);
+        if (ship == null) throw new GameException("No ship was found at these coordinates.");
+        return ship;
+    }
+
+    private Ship findShip(Coordinate coordinate) {
+        if (this.shipsOfFields != null) return this.shipsOfFields.get(this.field(coordinate));
+        int shipNumber = this.shipNumbers[this.field(coordinate)];
+        return shipNumber == 0 ? null : allShips.get(shipNumber - 1);
     }
 
     public boolean checkIfAllShipsAreShoot() {
-        for (Ship ship : allShips) {
-            for (Coordinate coordinate : ship.getCoordinates()) {
-                if (coordinate.getBattleshipFieldStatus() != BattleshipFieldStatus.SHIP_SHOOT) return false;
-            }
-        }
-        return true;
+        return numberOfRemainingShips == 0;
+    }
+
+    // The hit is counted once, even if the field or the ship was already shot
+    private void countHit(Coordinate coordinate) {
+        Ship ship = this.findShip(coordinate);
+        if (ship != null && ship.gotShoot(coordinate) && Ship.checkIfShipIsCompleteyShoot(ship)) numberOfRemainingShips--;
     }
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -124,11 +222,36 @@ public final class BattleshipBoard {
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     public BattleshipFieldStatus getFieldStatus(Coordinate coordinate) {
+        if (this.changedFields != null) return this.changedFields.getOrDefault(this.field(coordinate), this.initialFieldStatus);
         return this.battleshipBoard[coordinate.getxCoordinate()][coordinate.getyCoordinate()];
     }
 
     public void setFieldStatus(BattleshipFieldStatus battleshipFieldStatus, Coordinate coordinate) {
-        battleshipBoard[coordinate.getxCoordinate()][coordinate.getyCoordinate()] = battleshipFieldStatus;
+        if (battleshipFieldStatus == BattleshipFieldStatus.SHIP_SHOOT) this.countHit(coordinate);
+        if (this.changedFields == null) {
+            battleshipBoard[coordinate.getxCoordinate()][coordinate.getyCoordinate()] = battleshipFieldStatus;
+        } else if (battleshipFieldStatus == this.initialFieldStatus) {
+            this.changedFields.remove(this.field(coordinate));
+        } else {
+            this.changedFields.put(this.field(coordinate), battleshipFieldStatus);
+        }
+    }
+
+    private boolean isStandardBoard() {
+        return this.xLength == BattleshipEngine.STANDARD_DIMENSION;
+    }
+
+    // A board has at most 10,000 x 10,000 fields, so the number of a field fits into an int
+    private int field(Coordinate coordinate) {
+        return coordinate.getxCoordinate() * this.yLength + coordinate.getyCoordinate();
+    }
+
+    /**
+     * @return The number of fields that are stored, the whole area on a small board
+     * and only the changed fields on a larger board.
+     */
+    public int getNumberOfStoredFields() {
+        return this.changedFields != null ? this.changedFields.size() : this.xLength * this.yLength;
     }
 
     public int getNumberOfShips() {
@@ -1,29 +1,32 @@
 package battleship;
 
-import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
 
 /**
  * This class contains the own and the opponent Battleship board and
  * takes care of the logic of the game, which is not declared in the
  * Battleship interface, because these methods are not implemented by
- * the protocol engine.
+ * the protocol engine. Both boards have the same dimension, the standard
+ * board has 10 x 10 fields and the largest one 10,000 x 10,000 fields.
  *
  * @author friedrichvoelkers
  */
 public final class BattleshipEngine {
 
-    static final int STANDARD_DIMENSION = 10;
+    public static final int STANDARD_DIMENSION = 10;
+    public static final int MAX_DIMENSION = 10_000;
+
+    private static final Map<Integer, Integer> REQUIRED_NUMBER_OF_SHIPS_PER_LENGTH = Map.of(2, 4, 3, 3, 4, 2, 5, 1);
+    // A salvo has at most one shot per ship of the fleet
+    public static final int MAX_SALVO_SIZE = sumOf(REQUIRED_NUMBER_OF_SHIPS_PER_LENGTH);
 
     private final BattleshipBoard yourBattleshipBoard;
     private final BattleshipBoard enemysBattleshipBoard;
     private final int width;
     private final int height;
-    final HashMap<Integer, Integer> requiredNumberOfShipsPerLength = new HashMap<>() {{
-        put(2, 4);
-        put(3, 3);
-        put(4, 2);
-        put(5, 1);
-    }};
+    final Map<Integer, Integer> requiredNumberOfShipsPerLength = REQUIRED_NUMBER_OF_SHIPS_PER_LENGTH;
     private GameStatus yourGameStatus;
     private GameStatus enemiesGameStatus;
 
@@ -32,10 +35,16 @@ public final class BattleshipEngine {
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     BattleshipEngine() {
-        this.yourBattleshipBoard = new BattleshipBoard(true);
-        this.enemysBattleshipBoard = new BattleshipBoard(false);
-        this.width = STANDARD_DIMENSION;
-        this.height = STANDARD_DIMENSION;
+        this(STANDARD_DIMENSION);
+    }
+
+    BattleshipEngine(int dimension) {
+        if (dimension < STANDARD_DIMENSION || dimension > MAX_DIMENSION)
+            throw new IllegalArgumentException("the dimension must be between " + STANDARD_DIMENSION + " and " + MAX_DIMENSION);
+        this.yourBattleshipBoard = new BattleshipBoard(true, dimension);
+        this.enemysBattleshipBoard = new BattleshipBoard(false, dimension);
+        this.width = dimension;
+        this.height = dimension;
         this.yourGameStatus = GameStatus.ON_CREATE;
         this.enemiesGameStatus = GameStatus.ON_CREATE;
     }
@@ -53,6 +62,37 @@ public final class BattleshipEngine {
         return true;
     }
 
+    /**
+     * Checks all rules a new ship has to follow on your board.
+     *
+     * @throws GameException Throws an error with the broken rule.
+     */
+    void checkIfShipCanBeAdded(Ship ship) throws GameException {
+        ValidationResult validationResult = this.validateShip(ship);
+        if (validationResult == ValidationResult.ALL_SHIPS_OF_THIS_LENGTH_SET)
+            throw new GameException("You have already set all ships of length " + ship.getLength() + ".");
+        if (!validationResult.isValid()) throw validationResult.toGameException();
+    }
+
+    /**
+     * Checks the rules of checkIfShipCanBeAdded in the same order, but returns the
+     * first broken rule instead of throwing it.
+     */
+    public ValidationResult validateShip(Ship ship) {
+        // Check if the ship in on the board
+        if (!this.checkIfShipIsOnTheBoard(ship)) return ValidationResult.SHIP_NOT_ON_THE_BOARD;
+
+        // Check if the amount of this length isn't already reached
+        ValidationResult validationResult = validateShipLength(ship.getLength());
+        if (!validationResult.isValid()) return validationResult;
+        if (this.requiredNumberOfShipsPerLength.get(ship.getLength()) == yourBattleshipBoard.getNumberOfShipsPerLength(ship.getLength()))
+            return ValidationResult.ALL_SHIPS_OF_THIS_LENGTH_SET;
+
+        // Check if there is no direct neighbour
+        if (this.checkIfTheShipHasDirectNeighbours(ship)) return ValidationResult.SHIP_HAS_DIRECT_NEIGHBOURS;
+        return ValidationResult.VALID;
+    }
+
     private boolean checkIfCoordinateIsOnTheBoard(Coordinate coordinate) {
         return !(coordinate.getxCoordinate() < 0 || coordinate.getxCoordinate() >= this.width || coordinate.getyCoordinate() < 0 || coordinate.getyCoordinate() >= this.height);
     }
@@ -68,19 +108,30 @@ public final class BattleshipEngine {
         return getRequiredNumberOfShipsPerLength(length) == yourBattleshipBoard.getNumberOfShipsPerLength(length);
     }
 
+    // The board checks the fields around the ship without creating coordinates
     boolean checkIfTheShipHasDirectNeighbours(Ship ship) {
-        for (Coordinate coordinate : ship.getCoordinates()) {
-            for (int i = coordinate.getxCoordinate() - 1; i <= coordinate.getxCoordinate() + 1; i++) {
-                for (int j = coordinate.getyCoordinate() - 1; j <= coordinate.getyCoordinate() + 1; j++) {
-                    try {
-                        if (yourBattleshipBoard.getFieldStatus(new Coordinate(i, j)) == BattleshipFieldStatus.SHIP_NO_SHOOT)
-                            return true;
-                    } catch (GameException ignored) {
-                    }
-                }
-            }
+        return yourBattleshipBoard.checkIfTheShipHasDirectNeighbours(ship);
+    }
+
+    /**
+     * Applies the answer to your own shot: the field on the enemies board and
+     * both GameStatus are changed together, so nobody sees one without the other.
+     */
+    synchronized void applyFireResult(FireResult fireResult) {
+        switch (fireResult.getBattleshipFieldStatus()) {
+            case SHIP_NO_SHOOT -> this.enemysBattleshipBoard.setFieldStatus(BattleshipFieldStatus.SHIP_SHOOT, fireResult.getCoordinate());
+            case EMPTY_NO_SHOOT -> this.enemysBattleshipBoard.setFieldStatus(BattleshipFieldStatus.EMPTY_SHOOT, fireResult.getCoordinate());
         }
-        return false;
+        this.yourGameStatus = fireResult.getShooterGameStatus();
+        this.enemiesGameStatus = fireResult.getTargetGameStatus();
+    }
+
+    /**
+     * Applies the answers to a salvo together, the GameStatus of both players
+     * is the one after the last shot.
+     */
+    synchronized void applyFireResults(List<FireResult> fireResults) {
+        for (FireResult fireResult : fireResults) this.applyFireResult(fireResult);
     }
 
     public static char integerToColumn(int column) throws GameException {
@@ -98,6 +149,10 @@ public final class BattleshipEngine {
     //                                         Getter and Setter                                              //
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
+    public int getDimension() {
+        return this.width;
+    }
+
     BattleshipBoard getYourBattleshipBoard() {
         return yourBattleshipBoard;
     }
@@ -106,32 +161,62 @@ public final class BattleshipEngine {
         return enemysBattleshipBoard;
     }
 
-    public GameStatus getYourGameStatus() {
+    public synchronized GameStatus getYourGameStatus() {
         return yourGameStatus;
     }
 
-    void setYourGameStatus(GameStatus yourGameStatus) {
+    synchronized void setYourGameStatus(GameStatus yourGameStatus) {
         this.yourGameStatus = yourGameStatus;
+        this.notifyAll();
     }
 
-    GameStatus getEnemiesGameStatus() {
+    synchronized GameStatus getEnemiesGameStatus() {
         return enemiesGameStatus;
     }
 
-    void setEnemiesGameStatus(GameStatus enemiesGameStatus) {
+    synchronized void setEnemiesGameStatus(GameStatus enemiesGameStatus) {
         this.enemiesGameStatus = enemiesGameStatus;
+        this.notifyAll();
+    }
+
+    /**
+     * Blocks until your and the enemies GameStatus fulfil the condition.
+     *
+     * @return Whether the condition was fulfilled before the timeout.
+     */
+    synchronized boolean awaitGameStatus(BiPredicate<GameStatus, GameStatus> condition, long timeoutInMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutInMillis;
+        while (!condition.test(this.yourGameStatus, this.enemiesGameStatus)) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) return false;
+            this.wait(remaining);
+        }
+        return true;
     }
 
     int getRequiredNumberOfShipsPerLength(int length) throws GameException {
+        ValidationResult validationResult = validateShipLength(length);
+        if (!validationResult.isValid()) throw validationResult.toGameException();
+        else return requiredNumberOfShipsPerLength.get(length);
+    }
+
+    /**
+     * @return VALID or SHIP_LENGTH_NOT_CORRECT.
+     */
+    public static ValidationResult validateShipLength(int length) {
         int MIN_SHIP_LENGTH = 2;
         int MAX_SHIP_LENGTH = 5;
-        if (length < MIN_SHIP_LENGTH || length > MAX_SHIP_LENGTH) throw new GameException("The ship length is not correct.");
-        else return requiredNumberOfShipsPerLength.get(length);
+        if (length < MIN_SHIP_LENGTH || length > MAX_SHIP_LENGTH) return ValidationResult.SHIP_LENGTH_NOT_CORRECT;
+        return ValidationResult.VALID;
     }
 
     int getSumOfRequiredNumberOfShips() {
+        return sumOf(requiredNumberOfShipsPerLength);
+    }
+
+    private static int sumOf(Map<Integer, Integer> numberOfShipsPerLength) {
         int result = 0;
-        for (int number : requiredNumberOfShipsPerLength.values()) {
+        for (int number : numberOfShipsPerLength.values()) {
             result += number;
         }
         return result;
@@ -142,6 +227,8 @@ public final class BattleshipEngine {
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     public String printBoards() throws GameException {
+        // The rows are named with the letters A to J
+        if (this.width > STANDARD_DIMENSION) throw new GameException("The board is too large to be printed.");
         StringBuilder stringBuilder = new StringBuilder().append("\tYour board:\t\t\t\t\tEnemies board:\n\n");
 
         stringBuilder.append("\t");
@@ -2,7 +2,10 @@ package battleship;
 
 import network.GameSessionEstablishedListener;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The BattleshipImpl class implements the logic of the game
@@ -21,6 +24,7 @@ public final class BattleshipImpl implements Battleship, GameSessionEstablishedL
     public BattleshipEngine battleshipEngine;
     public String yourName;
     public String enemiesName;
+    private final List<GameEventListener> gameEventListenerList = new ArrayList<>();
     private BattleshipProtocolEngine battleshipProtocolEngine;
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -28,7 +32,15 @@ public final class BattleshipImpl implements Battleship, GameSessionEstablishedL
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     public BattleshipImpl(String yourName) {
-        this.battleshipEngine = new BattleshipEngine();
+        this(yourName, BattleshipEngine.STANDARD_DIMENSION);
+    }
+
+    /**
+     * Creates a game on a board with dimension x dimension fields. Both players
+     * have to choose the same dimension, otherwise the handshake fails.
+     */
+    public BattleshipImpl(String yourName, int dimension) {
+        this.battleshipEngine = new BattleshipEngine(dimension);
         this.yourName = yourName;
     }
 
@@ -44,89 +56,70 @@ public final class BattleshipImpl implements Battleship, GameSessionEstablishedL
         }
     }
 
+    @Override
+    public void doSendFireResult(FireResult fireResult) {
+        battleshipEngine.applyFireResult(fireResult);
+        this.notifyGameEventListeners(fireResult.getGameEvent(), 0, 0);
+    }
+
+    @Override
+    public void doSendEvent(GameEvent gameEvent, int firstValue, int secondValue) {
+        this.notifyGameEventListeners(gameEvent, firstValue, secondValue);
+    }
+
     @Override
     public void doFire(Coordinate coordinate, boolean isYourBoard) throws GameException {
         if (isYourBoard) {
             BattleshipFieldStatus battleshipFieldStatus;
             GameStatus yourGameStatus;
             GameStatus enemiesGameStatus;
-            String message;
+            boolean shipSunk = false;
+            boolean gameOver = false;
 
             // Hier steht, was passiert, wenn ich angegriffen werde
-            switch (battleshipEngine.getYourBattleshipBoard().getFieldStatus(coordinate)) {
+            battleshipFieldStatus = this.receiveShot(coordinate);
+            switch (battleshipFieldStatus) {
                 case EMPTY_NO_SHOOT -> {
-                    battleshipFieldStatus = BattleshipFieldStatus.EMPTY_NO_SHOOT; // Du bist dran
-                    battleshipEngine.getYourBattleshipBoard().setFieldStatus(BattleshipFieldStatus.EMPTY_SHOOT, coordinate);
+                    // Du bist dran
                     yourGameStatus = GameStatus.PLAYING_YOUR_TURN;
                     enemiesGameStatus = GameStatus.PLAYING_ENEMY_TURN;
-                    message = "Unfortunately, you didn't hit a ship and it's your enemy's turn.";
                 }
                 case EMPTY_SHOOT -> {
-                    battleshipFieldStatus = BattleshipFieldStatus.EMPTY_SHOOT;
                     yourGameStatus = GameStatus.PLAYING_ENEMY_TURN;
                     enemiesGameStatus = GameStatus.PLAYING_YOUR_TURN;
-                    message = "You have already shot at this field. Please try again.";
                 }
                 case SHIP_NO_SHOOT -> {
-                    battleshipFieldStatus = BattleshipFieldStatus.SHIP_NO_SHOOT;
-                    battleshipEngine.getYourBattleshipBoard().setFieldStatus(BattleshipFieldStatus.SHIP_SHOOT, coordinate);
-                    battleshipEngine.getYourBattleshipBoard().getShipOnACoordinate(coordinate).gotShoot(coordinate);
+                    shipSunk = Ship.checkIfShipIsCompleteyShoot(battleshipEngine.getYourBattleshipBoard().getShipOnACoordinate(coordinate));
 
                     if (battleshipEngine.getYourBattleshipBoard().checkIfAllShipsAreShoot()) {
                         yourGameStatus = GameStatus.YOU_LOSE;
                         enemiesGameStatus = GameStatus.YOU_WON;
-                        message = """
-                                ########################################
-                                #                                      #
-                                #       Congratulation! You Won!       #
-                                #                                      #
-                                ########################################
-                                """;
-                        System.out.println("""
-                                ########################################
-                                #                                      #
-                                #         You lost the game :(         #
-                                #                                      #
-                                ########################################
-                                """);
+                        gameOver = true;
+                        this.notifyGameEventListeners(GameEvent.YOU_LOST, 0, 0);
 
                     } else {
                         yourGameStatus = GameStatus.PLAYING_ENEMY_TURN;
                         enemiesGameStatus = GameStatus.PLAYING_YOUR_TURN;
-                        message = "You hit a ship! It's your turn again!";
-
-                        if (Ship.checkIfShipIsCompleteyShoot(battleshipEngine.getYourBattleshipBoard().getShipOnACoordinate(coordinate))) {
-                            message = message + " The ship is completely hit.";
-                        } else {
-                            message = message + " But the ship has not yet been completely hit.";
-                        }
-
                     }
                 }
-                case SHIP_SHOOT -> {
-                    battleshipFieldStatus = BattleshipFieldStatus.SHIP_SHOOT; // Gegner ist nochmal dran
+                default -> {
+                    // Gegner ist nochmal dran
                     yourGameStatus = GameStatus.PLAYING_ENEMY_TURN;
                     enemiesGameStatus = GameStatus.PLAYING_YOUR_TURN;
-                    message = "You have already shot at this field. Please try again.";
                 }
-                default -> throw new GameException("The BattleshipFieldStatus is unknown.");
             }
 
             battleshipEngine.setYourGameStatus(yourGameStatus);
             battleshipEngine.setEnemiesGameStatus(enemiesGameStatus);
 
             if (this.battleshipProtocolEngine != null) {
-                battleshipProtocolEngine.doChangeGameStatus(yourGameStatus, true, false);
-                battleshipProtocolEngine.doChangeGameStatus(enemiesGameStatus, false, false);
-                battleshipProtocolEngine.doSendResult(battleshipFieldStatus, coordinate);
-                battleshipProtocolEngine.doSendMessage(message);
+                // The whole answer to the shot is one message
+                battleshipProtocolEngine.doSendFireResult(new FireResult(battleshipFieldStatus, coordinate,
+                        enemiesGameStatus, yourGameStatus, shipSunk, gameOver));
             }
 
         } else {
-            // Check if gameStatus is correct
-            if (!(battleshipEngine.getYourGameStatus() == GameStatus.PLAYING_YOUR_TURN &&
-                    battleshipEngine.getEnemiesGameStatus() == GameStatus.PLAYING_ENEMY_TURN))
-                throw new GameException("The GameStatus is not correct.");
+            this.checkIfItIsYourTurn();
 
             // Ich schieße und sende das an den Gegenspieler
             if (this.battleshipProtocolEngine != null) {
@@ -135,6 +128,120 @@ public final class BattleshipImpl implements Battleship, GameSessionEstablishedL
         }
     }
 
+    /**
+     * Fires a salvo of up to one shot per ship of a fleet. The target evaluates all shots
+     * in one pass over its board and answers with one salvo result, afterwards it is
+     * always the target's turn, unless the salvo has sunk the last ship.
+     */
+    @Override
+    public void doFireSalvo(List<Coordinate> coordinates, boolean isYourBoard) throws GameException {
+        this.checkSalvoSize(coordinates);
+
+        if (isYourBoard) {
+            BattleshipBoard battleshipBoard = battleshipEngine.getYourBattleshipBoard();
+            BattleshipFieldStatus[] battleshipFieldStatus = new BattleshipFieldStatus[coordinates.size()];
+            boolean[] shipSunk = new boolean[coordinates.size()];
+            boolean hit = false;
+
+            for (int i = 0; i < coordinates.size(); i++) {
+                battleshipFieldStatus[i] = this.receiveShot(coordinates.get(i));
+                if (battleshipFieldStatus[i] == BattleshipFieldStatus.SHIP_NO_SHOOT) {
+                    hit = true;
+                    shipSunk[i] = Ship.checkIfShipIsCompleteyShoot(battleshipBoard.getShipOnACoordinate(coordinates.get(i)));
+                }
+            }
+
+            // Whether the fleet is sunk is checked once for the whole salvo
+            boolean gameOver = hit && battleshipBoard.checkIfAllShipsAreShoot();
+            GameStatus yourGameStatus = gameOver ? GameStatus.YOU_LOSE : GameStatus.PLAYING_YOUR_TURN;
+            GameStatus enemiesGameStatus = gameOver ? GameStatus.YOU_WON : GameStatus.PLAYING_ENEMY_TURN;
+            battleshipEngine.setYourGameStatus(yourGameStatus);
+            battleshipEngine.setEnemiesGameStatus(enemiesGameStatus);
+            if (gameOver) this.notifyGameEventListeners(GameEvent.YOU_LOST, 0, 0);
+
+            if (this.battleshipProtocolEngine != null) {
+                List<FireResult> fireResults = new ArrayList<>(coordinates.size());
+                for (int i = 0; i < coordinates.size(); i++) {
+                    fireResults.add(new FireResult(battleshipFieldStatus[i], coordinates.get(i), enemiesGameStatus,
+                            yourGameStatus, shipSunk[i], gameOver));
+                }
+                battleshipProtocolEngine.doSendSalvoResult(fireResults);
+            }
+
+        } else {
+            this.checkIfItIsYourTurn();
+
+            if (this.battleshipProtocolEngine != null) {
+                this.battleshipProtocolEngine.doFireSalvo(coordinates, false);
+            }
+        }
+    }
+
+    /**
+     * Fires at the enemy's board like doFire. The returned future is completed with the
+     * answer of the enemy after the answer has been applied to the boards, so the caller
+     * does not have to wait a fixed time for it.
+     *
+     * @throws GameException Throws an error if it is not your turn or there is no enemy.
+     */
+    public CompletableFuture<FireResult> fire(Coordinate coordinate) throws GameException {
+        this.checkIfItIsYourTurn();
+        if (this.battleshipProtocolEngine == null) throw new GameException("There is no enemy to fire at.");
+        return this.battleshipProtocolEngine.doFireAsync(coordinate);
+    }
+
+    /**
+     * Fires a salvo at the enemy's board like doFireSalvo. The returned future is
+     * completed with the answers of the enemy in the order of the shots.
+     *
+     * @throws GameException Throws an error if the salvo has too many shots, it is not
+     *                       your turn or there is no enemy.
+     */
+    public CompletableFuture<List<FireResult>> fireSalvo(List<Coordinate> coordinates) throws GameException {
+        this.checkSalvoSize(coordinates);
+        this.checkIfItIsYourTurn();
+        if (this.battleshipProtocolEngine == null) throw new GameException("There is no enemy to fire at.");
+        return this.battleshipProtocolEngine.doFireSalvoAsync(coordinates);
+    }
+
+    private void checkIfItIsYourTurn() throws GameException {
+        if (!(battleshipEngine.getYourGameStatus() == GameStatus.PLAYING_YOUR_TURN &&
+                battleshipEngine.getEnemiesGameStatus() == GameStatus.PLAYING_ENEMY_TURN))
+            throw new GameException("The GameStatus is not correct.");
+    }
+
+    private void checkSalvoSize(List<Coordinate> coordinates) throws GameException {
+        if (coordinates.isEmpty() || coordinates.size() > battleshipEngine.getSumOfRequiredNumberOfShips())
+            throw new GameException("A salvo has between 1 and " + battleshipEngine.getSumOfRequiredNumberOfShips() + " shots.");
+    }
+
+    @Override
+    public void doSendSalvoResult(List<FireResult> fireResults) {
+        battleshipEngine.applyFireResults(fireResults);
+        for (FireResult fireResult : fireResults) {
+            this.notifyGameEventListeners(fireResult.getGameEvent(), 0, 0);
+        }
+    }
+
+    /**
+     * Marks the field of your board as shot.
+     *
+     * @return The status of the field before the shot.
+     */
+    private BattleshipFieldStatus receiveShot(Coordinate coordinate) throws GameException {
+        BattleshipBoard battleshipBoard = battleshipEngine.getYourBattleshipBoard();
+        BattleshipFieldStatus battleshipFieldStatus = battleshipBoard.getFieldStatus(coordinate);
+        switch (battleshipFieldStatus) {
+            case EMPTY_NO_SHOOT -> battleshipBoard.setFieldStatus(BattleshipFieldStatus.EMPTY_SHOOT, coordinate);
+            // The board counts the hit for the ship
+            case SHIP_NO_SHOOT -> battleshipBoard.setFieldStatus(BattleshipFieldStatus.SHIP_SHOOT, coordinate);
+            case EMPTY_SHOOT, SHIP_SHOOT -> {
+            }
+            default -> throw new GameException("The BattleshipFieldStatus is unknown.");
+        }
+        return battleshipFieldStatus;
+    }
+
     @Override
     public void doSetShips(Coordinate startCoordinate, Coordinate endCoordinate) throws GameException {
 
@@ -145,28 +252,56 @@ public final class BattleshipImpl implements Battleship, GameSessionEstablishedL
         if (battleshipEngine.getYourGameStatus() != GameStatus.ON_CREATE)
             throw new GameException("The GameStatus is not correct.");
 
-        // Check if the ship in on the board
-        if (!battleshipEngine.checkIfShipIsOnTheBoard(ship)) throw new GameException("The ship is not on the board.");
+        battleshipEngine.checkIfShipCanBeAdded(ship);
+        battleshipEngine.getYourBattleshipBoard().addShip(ship);
 
-        // Check if the amount of this length isn't already reached
-        if (battleshipEngine.checkIfAmountOfShipsOfThisLengthIsAlreadyChoosen(ship.getLength()))
-            throw new GameException("You have already set all ships of length " + ship.getLength() + ".");
+        if (this.battleshipProtocolEngine != null) {
+            battleshipProtocolEngine.beginTurn();
+            try {
+                this.battleshipProtocolEngine.doSetShips(startCoordinate, endCoordinate);
+                this.battleshipProtocolEngine.doSendEvent(GameEvent.ENEMY_PLACED_SHIP,
+                        battleshipEngine.getYourBattleshipBoard().getNumberOfShips(),
+                        battleshipEngine.getSumOfRequiredNumberOfShips());
+                if (battleshipEngine.allShipsAreSet()) {
+                    battleshipEngine.setYourGameStatus(GameStatus.All_SHIPS_ARE_SET);
+                    battleshipProtocolEngine.doChangeGameStatus(GameStatus.All_SHIPS_ARE_SET, true, false);
+                }
+            } finally {
+                battleshipProtocolEngine.endTurn();
+            }
+        }
+    }
 
-        // Check if there is no direct neighbour
-        if (battleshipEngine.checkIfTheShipHasDirectNeighbours(ship))
-            throw new GameException("The ship has direct neighbors. One field must always remain free.");
+    /**
+     * Places the whole fleet at once. The fleet is validated completely before the
+     * first ship is placed, so either all ships are set or none. The enemy is told
+     * with one message that all ships are set.
+     */
+    @Override
+    public void doSetFleet(List<Ship> ships) throws GameException {
 
-        battleshipEngine.getYourBattleshipBoard().addShip(ship);
+        // Check if gameStatus is correct
+        if (battleshipEngine.getYourGameStatus() != GameStatus.ON_CREATE)
+            throw new GameException("The GameStatus is not correct.");
+
+        if (battleshipEngine.getYourBattleshipBoard().getNumberOfShips() != 0)
+            throw new GameException("Some of your ships are already set.");
+
+        if (ships.size() != battleshipEngine.getSumOfRequiredNumberOfShips())
+            throw new GameException("A fleet has exactly " + battleshipEngine.getSumOfRequiredNumberOfShips() + " ships.");
+
+        // Validate the fleet on an empty engine, so a wrong ship leaves your board unchanged
+        BattleshipEngine fleetEngine = new BattleshipEngine(battleshipEngine.getDimension());
+        for (Ship ship : ships) {
+            fleetEngine.checkIfShipCanBeAdded(ship);
+            fleetEngine.getYourBattleshipBoard().addShip(ship);
+        }
+
+        for (Ship ship : ships) battleshipEngine.getYourBattleshipBoard().addShip(ship);
+        battleshipEngine.setYourGameStatus(GameStatus.All_SHIPS_ARE_SET);
 
         if (this.battleshipProtocolEngine != null) {
-            this.battleshipProtocolEngine.doSetShips(startCoordinate, endCoordinate);
-            this.battleshipProtocolEngine.doSendMessage("Your enemy has placed a ship. (" +
-                    battleshipEngine.getYourBattleshipBoard().getNumberOfShips() + "/" +
-                    battleshipEngine.getSumOfRequiredNumberOfShips() + ")");
-            if (battleshipEngine.allShipsAreSet()) {
-                battleshipEngine.setYourGameStatus(GameStatus.All_SHIPS_ARE_SET);
-                battleshipProtocolEngine.doChangeGameStatus(GameStatus.All_SHIPS_ARE_SET, true, false);
-            }
+            this.battleshipProtocolEngine.doSetFleet(ships);
         }
     }
 
@@ -183,21 +318,31 @@ public final class BattleshipImpl implements Battleship, GameSessionEstablishedL
             return;
         }
 
-        if (isYourStatus) battleshipEngine.setYourGameStatus(gameStatus);
-        else battleshipEngine.setEnemiesGameStatus(gameStatus);
-
-        if (battleshipEngine.getYourGameStatus() == GameStatus.All_SHIPS_ARE_SET && gameStatus == GameStatus.All_SHIPS_ARE_SET && !isYourStatus) {
-            boolean iStart = new Random().nextBoolean();
-
-            if (iStart) {
-                battleshipEngine.setYourGameStatus(GameStatus.PLAYING_YOUR_TURN);
-                battleshipEngine.setEnemiesGameStatus(GameStatus.PLAYING_ENEMY_TURN);
-            } else {
-                battleshipEngine.setYourGameStatus(GameStatus.PLAYING_ENEMY_TURN);
-                battleshipEngine.setEnemiesGameStatus(GameStatus.PLAYING_YOUR_TURN);
+        boolean bothPlayerSetAllShipsNow;
+        boolean iStart = false;
+        // Your status must not change between the new status and the coin toss, else both sides could toss
+        synchronized (battleshipEngine) {
+            if (isYourStatus) battleshipEngine.setYourGameStatus(gameStatus);
+            else battleshipEngine.setEnemiesGameStatus(gameStatus);
+
+            bothPlayerSetAllShipsNow = battleshipEngine.getYourGameStatus() == GameStatus.All_SHIPS_ARE_SET &&
+                    gameStatus == GameStatus.All_SHIPS_ARE_SET && !isYourStatus;
+            if (bothPlayerSetAllShipsNow) {
+                iStart = new Random().nextBoolean();
+
+                if (iStart) {
+                    battleshipEngine.setYourGameStatus(GameStatus.PLAYING_YOUR_TURN);
+                    battleshipEngine.setEnemiesGameStatus(GameStatus.PLAYING_ENEMY_TURN);
+                } else {
+                    battleshipEngine.setYourGameStatus(GameStatus.PLAYING_ENEMY_TURN);
+                    battleshipEngine.setEnemiesGameStatus(GameStatus.PLAYING_YOUR_TURN);
+                }
             }
+        }
 
+        if (bothPlayerSetAllShipsNow) {
             battleshipProtocolEngine.bothPlayerSetAllShips(iStart);
+            this.notifyGameEventListeners(iStart ? GameEvent.YOU_START : GameEvent.ENEMY_STARTS, 0, 0);
         }
 
         if (this.battleshipProtocolEngine != null && isYourStatus) {
@@ -213,8 +358,19 @@ public final class BattleshipImpl implements Battleship, GameSessionEstablishedL
     public void gameSessionEstablished(boolean oracle, String partnerName) {
     }
 
+    public void subscribeGameEventListener(GameEventListener gameEventListener) {
+        this.gameEventListenerList.add(gameEventListener);
+    }
+
+    private void notifyGameEventListeners(GameEvent gameEvent, int firstValue, int secondValue) {
+        for (GameEventListener gameEventListener : this.gameEventListenerList) {
+            gameEventListener.gameEvent(gameEvent, firstValue, secondValue);
+        }
+    }
+
     public void setProtocolEngine(BattleshipProtocolEngine protocolEngine) {
         this.battleshipProtocolEngine = protocolEngine;
+        this.battleshipProtocolEngine.setBoardDimension(battleshipEngine.getDimension());
         this.battleshipProtocolEngine.subscribeGameSessionEstablishedListener(this);
     }
 }
@@ -1,21 +1,72 @@
 package battleship;
 
+import network.FrameBuffer;
+import network.FrameReader;
 import network.GameSessionEstablishedListener;
+import network.HashedTimerWheel;
+import network.OutboundQueue;
 import network.ProtocolEngine;
+import network.SessionExecutor;
 
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The method takes care of the protocol of TCP communication. It implements the methods of
  * the Battleship interface and ensures that after the method call the data is sent to the
  * opposing side via the OutputStream. Thereby the data is converted into bytes. For each
  * method there is also a method that receives the data on the other side via the InputStream
- * and converts the data again via the stored protocol. With the protocol at the first place
- * always an integer value is sent, which indicates, which method is to be called, in order
- * to deserialize the data.
+ * and converts the data again via the stored protocol. Every message is sent as a frame
+ * [length][type][payload]: the type indicates which method is to be called in order to
+ * deserialize the payload, and the length allows to skip frames of an unknown type.
+ * <p>
+ * The frames are built in one reusable FrameBuffer. Outside of a turn every frame is
+ * flushed at once. Between beginTurn and endTurn the frames are collected and written
+ * with one write call, so the answer to a shot is one TCP segment instead of many small
+ * ones. A ResumableConnection sends every flush as one frame with its own sequence number.
+ * <p>
+ * Receiving a message does not allocate anything: the FrameReader reuses its buffer and
+ * its payload stream, the handler of a frame type is looked up in a table, and the
+ * received coordinates and fire results are shared or reused objects.
+ * <p>
+ * The session starts with a versioned handshake: both sides send a magic number, the
+ * newest protocol version they speak, the capabilities they offer and their name.
+ * The session uses the older of both versions and only the capabilities both sides
+ * offer, e.g. the Codec for the integer fields of the messages and the batching
+ * of all frames of a turn. So a new client can still play against an older one, and
+ * a new feature is only used once both sides have it. Since version 3 both sides
+ * exchange the dimension of the board after the handshake, they have to play on
+ * the same one.
+ * <p>
+ * A shot or a salvo fired with doFireAsync or doFireSalvoAsync carries a correlation
+ * id, which the enemy sends back with its answer. The returned future is completed
+ * with a copy of the answer once it has been applied to the boards, so a caller can
+ * wait for exactly its answer instead of sleeping. An enemy without
+ * CAPABILITY_CORRELATION_ID answers in the order of the shots, so the oldest pending
+ * future is completed then. For that order a plain doFire or doFireSalvo waits in the
+ * same queue as the futures, and a cancelled future keeps its place until its answer
+ * has arrived. With correlation ids a cancelled future is removed at once.
+ * <p>
+ * Once the session is established, both sides send a heartbeat in a fixed interval.
+ * A session that has not received anything within the idle timeout is regarded
+ * as abandoned (e.g. the enemy crashed and left a half-open connection) and is
+ * closed. The timeouts of all sessions are driven by the shared HashedTimerWheel.
+ * <p>
+ * The serializers do not write to the transport on the caller's thread, they put
+ * the messages into the OutboundQueue of the session, so a slow enemy cannot stall
+ * the game logic. If the enemy falls too far behind, the serializers fail with a
+ * GameException instead of blocking.
+ * <p>
+ * The values of a received frame are validated before they reach the game, e.g.
+ * coordinates outside the board or unknown status codes. A frame that breaks the
+ * protocol is rejected with a ValidationResult and closes the session; no
+ * exception is created for it.
  * <p>
  * This class is inspired by @author thsc. A link to his repository is in the Battleship interface.
  * The class has been modified to fit this game
@@ -29,7 +80,47 @@ public final class BattleshipProtocolEngine implements Battleship, Runnable, Pro
     public static final int METHOD_DO_CHANGE_STATUS = 3;
     public static final int METHOD_DO_SEND_RESULT = 4;
     public static final int METHOD_BOTH_PLAY_SET_ALL_SHIPS = 5;
-    public static final int METHOD_DO_SEND_MESSAGE = 6;
+    public static final int METHOD_HEARTBEAT = 7;
+    public static final int METHOD_DO_SEND_FIRE_RESULT = 8;
+    public static final int METHOD_DO_SEND_EVENT = 9;
+    public static final int METHOD_DO_FIRE_SALVO = 10;
+    public static final int METHOD_DO_SEND_SALVO_RESULT = 11;
+    public static final int METHOD_DO_SET_FLEET = 12;
+
+    // The same limit as BattleshipImpl applies, so a too large salvo is rejected before it reaches the game
+    public static final int MAX_SALVO_SIZE = BattleshipEngine.MAX_SALVO_SIZE;
+
+    public static final int FIRE_RESULT_FLAG_SHIP_SUNK = 1;
+    public static final int FIRE_RESULT_FLAG_GAME_OVER = 2;
+
+    public static final int HANDSHAKE_MAGIC = 0x42534850; // "BSHP"
+    public static final int PROTOCOL_VERSION = 3;
+    // The first version whose handshake carries the dimension of the board
+    public static final int PROTOCOL_VERSION_BOARD_DIMENSION = 3;
+    // Up to this dimension a coordinate of a fire result fits into a byte
+    private static final int MAX_BYTE_DIMENSION = 256;
+
+    public static final int CAPABILITY_COMPACT_CODEC = 1;
+    public static final int CAPABILITY_BATCHING = 1 << 1;
+    // Reserved, this version does not offer them yet
+    public static final int CAPABILITY_COMPRESSION = 1 << 2;
+    public static final int CAPABILITY_RESUMPTION = 1 << 3;
+    public static final int CAPABILITY_SALVO = 1 << 4;
+    public static final int CAPABILITY_FLEET = 1 << 5;
+    public static final int CAPABILITY_CORRELATION_ID = 1 << 6;
+    // Only for debugging, it is not offered by default
+    public static final int CAPABILITY_DECIMAL_CODEC = 1 << 7;
+    public static final int DEFAULT_CAPABILITIES = CAPABILITY_COMPACT_CODEC | CAPABILITY_BATCHING | CAPABILITY_SALVO | CAPABILITY_FLEET |
+            CAPABILITY_CORRELATION_ID;
+
+    // A shot that was not fired with doFireAsync or doFireSalvoAsync waits for no answer
+    public static final int NO_CORRELATION_ID = 0;
+
+    // Stands in for the name of the enemy in the log before the handshake
+    private static final String UNKNOWN_ENEMIES_NAME = "an unknown enemy";
+
+    public static final long DEFAULT_HEARTBEAT_INTERVAL_IN_MILLIS = 10_000;
+    public static final long DEFAULT_IDLE_TIMEOUT_IN_MILLIS = 90_000;
 
     public static final int GAME_STATUS_ON_CREATE = 0;
     public static final int GAME_STATUS_All_SHIPS_ARE_SET = 1;
@@ -48,10 +139,34 @@ public final class BattleshipProtocolEngine implements Battleship, Runnable, Pro
     private final Battleship battleship;
     private final List<GameSessionEstablishedListener> sessionCreatedListenerList = new ArrayList<>();
     private final String yourName;
-    private OutputStream outputStream;
+    private final FrameBuffer frameBuffer = new FrameBuffer();
+    private final MessageHandler[] messageHandlers = new MessageHandler[256];
+    private final FireResult receivedFireResult = new FireResult();
+    private final List<Coordinate> receivedSalvo = new ArrayList<>();
+    private final List<FireResult> receivedSalvoResults = new ArrayList<>();
+    private final List<FireResult> fireResultPool = new ArrayList<>();
+    private final ConcurrentSkipListMap<Integer, CompletableFuture<FireResult>> pendingShots = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Integer, CompletableFuture<List<FireResult>>> pendingSalvos = new ConcurrentSkipListMap<>();
+    private int lastCorrelationId = NO_CORRELATION_ID;
+    // The correlation id of the shot that is answered, only used by the reading thread
+    private int receivedCorrelationId = NO_CORRELATION_ID;
+    private int offeredCapabilities = DEFAULT_CAPABILITIES;
+    private int boardDimension = BattleshipEngine.STANDARD_DIMENSION;
+    private volatile int protocolVersion = 0;
+    private volatile int capabilities = 0;
+    private volatile Codec codec = new BinaryCodec();
+    private OutboundQueue outputStream;
     private InputStream inputStream;
+    private FrameReader frameReader;
+    private int turnDepth = 0;
     private boolean coinToss;
-    private String enemiesName;
+    private volatile String enemiesName;
+    private long heartbeatIntervalInMillis = DEFAULT_HEARTBEAT_INTERVAL_IN_MILLIS;
+    private long idleTimeoutInMillis = DEFAULT_IDLE_TIMEOUT_IN_MILLIS;
+    private volatile long lastReceivedInNanos;
+    private volatile boolean established = false;
+    private volatile boolean closed = false;
+    private volatile HashedTimerWheel.Timeout heartbeatTimeout;
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
     //                                           constructor                                                  //
@@ -60,6 +175,18 @@ public final class BattleshipProtocolEngine implements Battleship, Runnable, Pro
     public BattleshipProtocolEngine(Battleship battleship, String yourName) {
         this.battleship = battleship;
         this.yourName = yourName;
+
+        this.messageHandlers[METHOD_DO_FIRE] = this::deserializeDoFire;
+        this.messageHandlers[METHOD_DO_CHANGE_STATUS] = this::deserializeChangeStatus;
+        this.messageHandlers[METHOD_DO_SEND_RESULT] = this::deserializeDoSendResult;
+        this.messageHandlers[METHOD_BOTH_PLAY_SET_ALL_SHIPS] = this::deserializeBothPlayerSetAllShips;
+        this.messageHandlers[METHOD_HEARTBEAT] = () -> {
+        };
+        this.messageHandlers[METHOD_DO_SEND_FIRE_RESULT] = this::deserializeDoSendFireResult;
+        this.messageHandlers[METHOD_DO_SEND_EVENT] = this::deserializeDoSendEvent;
+        this.messageHandlers[METHOD_DO_FIRE_SALVO] = this::deserializeDoFireSalvo;
+        this.messageHandlers[METHOD_DO_SEND_SALVO_RESULT] = this::deserializeDoSendSalvoResult;
+        this.messageHandlers[METHOD_DO_SET_FLEET] = this::deserializeDoSetFleet;
     }
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -70,24 +197,29 @@ public final class BattleshipProtocolEngine implements Battleship, Runnable, Pro
     public void run() {
 
         try {
-            DataOutputStream dataOutputStream = new DataOutputStream(this.outputStream);
-            DataInputStream dataInputStream = new DataInputStream(this.inputStream);
             this.coinToss = new Random().nextBoolean();
-            dataOutputStream.writeUTF(this.yourName);
-            this.enemiesName = dataInputStream.readUTF();
-        } catch (IOException e) {
-            e.printStackTrace();
+            this.handshake();
+        } catch (IOException | GameException e) {
+            System.out.println("The handshake failed: " + e.getLocalizedMessage());
+            try {
+                this.close();
+            } catch (IOException ignored) {
+            }
+            return;
         }
 
+        this.lastReceivedInNanos = System.nanoTime();
+        this.established = true;
+
         if (!this.sessionCreatedListenerList.isEmpty()) {
             for (GameSessionEstablishedListener gameSessionEstablishedListener : this.sessionCreatedListenerList) {
-                new Thread(() -> {
+                SessionExecutor.execute(() -> {
                     try {
                         Thread.sleep(1);
                     } catch (InterruptedException ignored) {
                     }
                     gameSessionEstablishedListener.gameSessionEstablished(BattleshipProtocolEngine.this.coinToss, BattleshipProtocolEngine.this.enemiesName);
-                }).start();
+                });
             }
         }
 
@@ -95,51 +227,137 @@ public final class BattleshipProtocolEngine implements Battleship, Runnable, Pro
             boolean again = true;
             while (again) again = this.read();
         } catch (GameException e) {
-            e.printStackTrace();
+            // The reader stops here, so the session is closed instead of waiting for the idle timeout
+            System.out.println("The session with " + this.getEnemiesNameForLog() + " is closed: " + e.getLocalizedMessage());
+            try {
+                this.close();
+            } catch (IOException ignored) {
+            }
         }
     }
 
+    /**
+     * Both sides send [magic][version][capabilities][name] and then read the one of the
+     * enemy, so both derive the same version and capabilities without a further round
+     * trip. Only if both sides have version 3 or newer, they send the dimension of their
+     * board afterwards, an older enemy expects the first frame there. An enemy before
+     * version 3 can only play on the standard board.
+     */
+    private void handshake() throws IOException, GameException {
+        DataOutputStream dataOutputStream = new DataOutputStream(this.outputStream);
+        DataInputStream dataInputStream = new DataInputStream(this.inputStream);
+        dataOutputStream.writeInt(HANDSHAKE_MAGIC);
+        dataOutputStream.writeShort(PROTOCOL_VERSION);
+        dataOutputStream.writeInt(this.offeredCapabilities);
+        dataOutputStream.writeUTF(this.yourName);
+        dataOutputStream.flush();
+
+        if (dataInputStream.readInt() != HANDSHAKE_MAGIC) throw new GameException("The enemy does not speak the battleship protocol.");
+        int enemiesProtocolVersion = dataInputStream.readUnsignedShort();
+        int enemiesCapabilities = dataInputStream.readInt();
+        this.enemiesName = dataInputStream.readUTF();
+
+        int enemiesBoardDimension = BattleshipEngine.STANDARD_DIMENSION;
+        if (enemiesProtocolVersion >= PROTOCOL_VERSION_BOARD_DIMENSION) {
+            dataOutputStream.writeInt(this.boardDimension);
+            dataOutputStream.flush();
+            enemiesBoardDimension = dataInputStream.readInt();
+        }
+        if (enemiesBoardDimension != this.boardDimension)
+            throw new GameException("The enemy plays on a board of " + enemiesBoardDimension + " x " + enemiesBoardDimension + " fields.");
+
+        this.protocolVersion = Math.min(PROTOCOL_VERSION, enemiesProtocolVersion);
+        this.capabilities = this.offeredCapabilities & enemiesCapabilities;
+        this.codec = this.negotiateCodec();
+    }
+
+    /**
+     * A side offers the DecimalCodec only to debug a session, so it wins over the CompactCodec.
+     */
+    private Codec negotiateCodec() {
+        if (this.hasCapability(CAPABILITY_DECIMAL_CODEC)) return new DecimalCodec();
+        if (this.hasCapability(CAPABILITY_COMPACT_CODEC)) return new CompactCodec();
+        return new BinaryCodec();
+    }
+
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
     //                                serialize/deserialize methods                                           //
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     @Override
-    public void doFire(Coordinate coordinate, boolean isYourBoard) throws GameException {
-        DataOutputStream dataOutputStream = new DataOutputStream(this.outputStream);
+    public synchronized void doFire(Coordinate coordinate, boolean isYourBoard) throws GameException {
+        if (!this.hasCapability(CAPABILITY_CORRELATION_ID)) this.doFireAsync(coordinate);
+        else this.serializeDoFire(coordinate, NO_CORRELATION_ID);
+    }
+
+    /**
+     * Fires like doFire, but returns a future that is completed with the answer of the enemy.
+     * The future is completed on the reading thread, after the answer has been applied.
+     */
+    public synchronized CompletableFuture<FireResult> doFireAsync(Coordinate coordinate) throws GameException {
+        int correlationId = this.nextCorrelationId();
+        CompletableFuture<FireResult> future = this.addPendingFuture(this.pendingShots, correlationId);
         try {
-            dataOutputStream.writeInt(METHOD_DO_FIRE);
-            dataOutputStream.writeInt(coordinate.getxCoordinate());
-            dataOutputStream.writeInt(coordinate.getyCoordinate());
+            this.serializeDoFire(coordinate, correlationId);
+        } catch (GameException e) {
+            this.pendingShots.remove(correlationId);
+            throw e;
+        }
+        return future;
+    }
+
+    private void serializeDoFire(Coordinate coordinate, int correlationId) throws GameException {
+        try {
+            DataOutputStream dataOutputStream = this.beginFrame(METHOD_DO_FIRE);
+            this.codec.writeValue(dataOutputStream, coordinate.getxCoordinate());
+            this.codec.writeValue(dataOutputStream, coordinate.getyCoordinate());
+            if (this.hasCapability(CAPABILITY_CORRELATION_ID)) this.codec.writeValue(dataOutputStream, correlationId);
+            this.endFrame();
         } catch (IOException e) {
-            throw new GameException("The input could not be serialized.");
+            throw this.serializeException(e);
         }
     }
 
     private void deserializeDoFire() throws GameException {
-        DataInputStream dataInputStream = new DataInputStream(this.inputStream);
+        DataInputStream dataInputStream = this.frameReader.getPayload();
         try {
-            int xCoordinate = dataInputStream.readInt();
-            int yCoordinate = dataInputStream.readInt();
-            battleship.doFire(new Coordinate(xCoordinate, yCoordinate), true);
+            int xCoordinate = this.codec.readValue(dataInputStream);
+            int yCoordinate = this.codec.readValue(dataInputStream);
+            if (this.rejectFrame(Coordinate.validate(xCoordinate, yCoordinate, this.boardDimension))) return;
+            this.receivedCorrelationId = this.readCorrelationId(dataInputStream);
+            battleship.doFire(Coordinate.of(xCoordinate, yCoordinate, this.boardDimension), true);
         } catch (IOException e) {
             throw new GameException("The input could not be deserialized.");
+        } finally {
+            this.receivedCorrelationId = NO_CORRELATION_ID;
         }
     }
 
-    public void doSendMessage(String message) throws GameException {
-        DataOutputStream dataOutputStream = new DataOutputStream(this.outputStream);
+    /**
+     * Sends the code of the event and its two values, five bytes in total.
+     */
+    @Override
+    public synchronized void doSendEvent(GameEvent gameEvent, int firstValue, int secondValue) throws GameException {
         try {
-            dataOutputStream.writeInt(METHOD_DO_SEND_MESSAGE);
-            dataOutputStream.writeUTF(message);
+            DataOutputStream dataOutputStream = this.beginFrame(METHOD_DO_SEND_EVENT);
+            dataOutputStream.writeByte(gameEvent.getCode());
+            dataOutputStream.writeShort(firstValue);
+            dataOutputStream.writeShort(secondValue);
+            this.endFrame();
         } catch (IOException e) {
-            throw new GameException("The input could not be serialized.");
+            throw this.serializeException(e);
         }
     }
 
-    private void deserializeDoSendMessage() throws GameException {
-        DataInputStream dataInputStream = new DataInputStream(this.inputStream);
+    private void deserializeDoSendEvent() throws GameException {
+        DataInputStream dataInputStream = this.frameReader.getPayload();
         try {
-            System.out.println(dataInputStream.readUTF());
+            int code = dataInputStream.readUnsignedByte();
+            if (this.rejectFrame(GameEvent.validate(code))) return;
+            GameEvent gameEvent = GameEvent.fromCode(code);
+            int firstValue = dataInputStream.readShort();
+            int secondValue = dataInputStream.readShort();
+            battleship.doSendEvent(gameEvent, firstValue, secondValue);
         } catch (IOException e) {
             throw new GameException("The input could not be deserialized.");
         }
@@ -149,23 +367,62 @@ public final class BattleshipProtocolEngine implements Battleship, Runnable, Pro
     public void doSetShips(Coordinate startCoordinate, Coordinate endCoordinate) {
     }
 
+    /**
+     * Tells the enemy with one message that the whole fleet is placed, only the number
+     * of ships is sent. An enemy without CAPABILITY_FLEET gets the event and the status
+     * change it would get after the last ship of doSetShips instead.
+     */
     @Override
-    public void doChangeGameStatus(GameStatus gameStatus, boolean isYourStatus, boolean bothPlayerSetAllShips) throws GameException {
-        DataOutputStream dataOutputStream = new DataOutputStream(this.outputStream);
+    public synchronized void doSetFleet(List<Ship> ships) throws GameException {
+        if (!this.hasCapability(CAPABILITY_FLEET)) {
+            this.beginTurn();
+            try {
+                this.doSendEvent(GameEvent.ENEMY_PLACED_SHIP, ships.size(), ships.size());
+                this.doChangeGameStatus(GameStatus.All_SHIPS_ARE_SET, true, false);
+            } finally {
+                this.endTurn();
+            }
+            return;
+        }
+
         try {
-            dataOutputStream.writeInt(METHOD_DO_CHANGE_STATUS);
-            dataOutputStream.writeInt(this.convertGameStatusToInteger(gameStatus));
+            DataOutputStream dataOutputStream = this.beginFrame(METHOD_DO_SET_FLEET);
+            this.codec.writeValue(dataOutputStream, ships.size());
+            this.endFrame();
+        } catch (IOException e) {
+            throw this.serializeException(e);
+        }
+    }
+
+    private void deserializeDoSetFleet() throws GameException {
+        DataInputStream dataInputStream = this.frameReader.getPayload();
+        try {
+            int numberOfShips = this.codec.readValue(dataInputStream);
+            battleship.doSendEvent(GameEvent.ENEMY_PLACED_SHIP, numberOfShips, numberOfShips);
+            battleship.doChangeGameStatus(GameStatus.All_SHIPS_ARE_SET, false, false);
+        } catch (IOException e) {
+            throw new GameException("The input could not be deserialized.");
+        }
+    }
+
+    @Override
+    public synchronized void doChangeGameStatus(GameStatus gameStatus, boolean isYourStatus, boolean bothPlayerSetAllShips) throws GameException {
+        try {
+            DataOutputStream dataOutputStream = this.beginFrame(METHOD_DO_CHANGE_STATUS);
+            this.codec.writeValue(dataOutputStream, this.convertGameStatusToInteger(gameStatus));
             dataOutputStream.writeBoolean(isYourStatus);
+            this.endFrame();
         } catch (IOException e) {
-            throw new GameException("The input could not be serialized.");
+            throw this.serializeException(e);
         }
     }
 
     private void deserializeChangeStatus() throws GameException {
-        DataInputStream dataInputStream = new DataInputStream(this.inputStream);
+        DataInputStream dataInputStream = this.frameReader.getPayload();
         try {
-            int symbolInt = dataInputStream.readInt();
+            int symbolInt = this.codec.readValue(dataInputStream);
             GameStatus gameStatus = this.convertIntegerToGameStatus(symbolInt);
+            if (gameStatus == null && this.rejectFrame(ValidationResult.UNKNOWN_GAME_STATUS)) return;
             boolean isYourTurn = dataInputStream.readBoolean();
             battleship.doChangeGameStatus(gameStatus, !isYourTurn, false);
         } catch (IOException e) {
@@ -174,67 +431,422 @@ public final class BattleshipProtocolEngine implements Battleship, Runnable, Pro
     }
 
     @Override
-    public void doSendResult(BattleshipFieldStatus battleshipFieldStatus, Coordinate coordinate) throws GameException {
-        DataOutputStream dataOutputStream = new DataOutputStream(this.outputStream);
+    public synchronized void doSendResult(BattleshipFieldStatus battleshipFieldStatus, Coordinate coordinate) throws GameException {
         try {
-            dataOutputStream.writeInt(METHOD_DO_SEND_RESULT);
-            dataOutputStream.writeInt(this.convertBattleshipFieldStatusToInteger(battleshipFieldStatus));
-            dataOutputStream.writeInt(coordinate.getxCoordinate());
-            dataOutputStream.writeInt(coordinate.getyCoordinate());
+            DataOutputStream dataOutputStream = this.beginFrame(METHOD_DO_SEND_RESULT);
+            this.codec.writeValue(dataOutputStream, this.convertBattleshipFieldStatusToInteger(battleshipFieldStatus));
+            this.codec.writeValue(dataOutputStream, coordinate.getxCoordinate());
+            this.codec.writeValue(dataOutputStream, coordinate.getyCoordinate());
+            this.endFrame();
         } catch (IOException e) {
-            throw new GameException("The input could not be serialized.");
+            throw this.serializeException(e);
         }
     }
 
     private void deserializeDoSendResult() throws GameException {
-        DataInputStream dataInputStream = new DataInputStream(this.inputStream);
+        DataInputStream dataInputStream = this.frameReader.getPayload();
         try {
-            int symbolInt = dataInputStream.readInt();
-            int xCoordinate = dataInputStream.readInt();
-            int yCoordinate = dataInputStream.readInt();
+            int symbolInt = this.codec.readValue(dataInputStream);
+            int xCoordinate = this.codec.readValue(dataInputStream);
+            int yCoordinate = this.codec.readValue(dataInputStream);
             BattleshipFieldStatus battleshipFieldStatus = this.convertIntegerToBattleshipFieldStatus(symbolInt);
-            battleship.doSendResult(battleshipFieldStatus, new Coordinate(xCoordinate, yCoordinate));
+            if (battleshipFieldStatus == null && this.rejectFrame(ValidationResult.UNKNOWN_FIELD_STATUS)) return;
+            if (this.rejectFrame(Coordinate.validate(xCoordinate, yCoordinate, this.boardDimension))) return;
+            battleship.doSendResult(battleshipFieldStatus, Coordinate.of(xCoordinate, yCoordinate, this.boardDimension));
         } catch (IOException e) {
             throw new GameException("The input could not be deserialized.");
         }
     }
 
-    public void bothPlayerSetAllShips(boolean iStart) throws GameException {
-        if (iStart) {
-            System.out.println("Randomness has decided. You start!");
-        } else {
-            System.out.println("Randomness has decided. Your enemy starts!");
+    /**
+     * Sends the answer to a shot as one message of six bytes: the field status, the
+     * coordinates, the GameStatus of the shooter and of the target and the flags.
+     * With CAPABILITY_CORRELATION_ID the correlation id of the shot follows. On a
+     * board larger than 256 x 256 fields the coordinates have two bytes each.
+     */
+    @Override
+    public synchronized void doSendFireResult(FireResult fireResult) throws GameException {
+        try {
+            DataOutputStream dataOutputStream = this.beginFrame(METHOD_DO_SEND_FIRE_RESULT);
+            dataOutputStream.writeByte(this.convertBattleshipFieldStatusToInteger(fireResult.getBattleshipFieldStatus()));
+            this.writeFireResultCoordinate(dataOutputStream, fireResult.getCoordinate().getxCoordinate());
+            this.writeFireResultCoordinate(dataOutputStream, fireResult.getCoordinate().getyCoordinate());
+            dataOutputStream.writeByte(this.convertGameStatusToInteger(fireResult.getShooterGameStatus()));
+            dataOutputStream.writeByte(this.convertGameStatusToInteger(fireResult.getTargetGameStatus()));
+            dataOutputStream.writeByte((fireResult.isShipSunk() ? FIRE_RESULT_FLAG_SHIP_SUNK : 0) |
+                    (fireResult.isGameOver() ? FIRE_RESULT_FLAG_GAME_OVER : 0));
+            if (this.hasCapability(CAPABILITY_CORRELATION_ID)) this.codec.writeValue(dataOutputStream, this.receivedCorrelationId);
+            this.endFrame();
+        } catch (IOException e) {
+            throw this.serializeException(e);
         }
-        DataOutputStream dataOutputStream = new DataOutputStream(this.outputStream);
+    }
+
+    private void deserializeDoSendFireResult() throws GameException {
+        DataInputStream dataInputStream = this.frameReader.getPayload();
+        try {
+            BattleshipFieldStatus battleshipFieldStatus = this.convertIntegerToBattleshipFieldStatus(dataInputStream.readUnsignedByte());
+            int xCoordinate = this.readFireResultCoordinate(dataInputStream);
+            int yCoordinate = this.readFireResultCoordinate(dataInputStream);
+            GameStatus shooterGameStatus = this.convertIntegerToGameStatus(dataInputStream.readUnsignedByte());
+            GameStatus targetGameStatus = this.convertIntegerToGameStatus(dataInputStream.readUnsignedByte());
+            int flags = dataInputStream.readUnsignedByte();
+            if (battleshipFieldStatus == null && this.rejectFrame(ValidationResult.UNKNOWN_FIELD_STATUS)) return;
+            if ((shooterGameStatus == null || targetGameStatus == null) && this.rejectFrame(ValidationResult.UNKNOWN_GAME_STATUS)) return;
+            if (this.rejectFrame(Coordinate.validate(xCoordinate, yCoordinate, this.boardDimension))) return;
+            int correlationId = this.readCorrelationId(dataInputStream);
+            battleship.doSendFireResult(this.receivedFireResult.set(battleshipFieldStatus, Coordinate.of(xCoordinate, yCoordinate, this.boardDimension),
+                    shooterGameStatus, targetGameStatus, (flags & FIRE_RESULT_FLAG_SHIP_SUNK) != 0,
+                    (flags & FIRE_RESULT_FLAG_GAME_OVER) != 0));
+
+            CompletableFuture<FireResult> future = this.removePendingFuture(this.pendingShots, correlationId);
+            if (future != null) future.complete(this.receivedFireResult.copy());
+        } catch (IOException e) {
+            throw new GameException("The input could not be deserialized.");
+        }
+    }
+
+    /**
+     * Sends all shots of a salvo in one message: the number of shots and their coordinates.
+     */
+    @Override
+    public synchronized void doFireSalvo(List<Coordinate> coordinates, boolean isYourBoard) throws GameException {
+        if (!this.hasCapability(CAPABILITY_CORRELATION_ID)) this.doFireSalvoAsync(coordinates);
+        else this.serializeDoFireSalvo(coordinates, NO_CORRELATION_ID);
+    }
+
+    /**
+     * Fires like doFireSalvo, but returns a future that is completed with the answers of
+     * the enemy in the order of the shots.
+     */
+    public synchronized CompletableFuture<List<FireResult>> doFireSalvoAsync(List<Coordinate> coordinates) throws GameException {
+        int correlationId = this.nextCorrelationId();
+        CompletableFuture<List<FireResult>> future = this.addPendingFuture(this.pendingSalvos, correlationId);
+        try {
+            this.serializeDoFireSalvo(coordinates, correlationId);
+        } catch (GameException e) {
+            this.pendingSalvos.remove(correlationId);
+            throw e;
+        }
+        return future;
+    }
+
+    private void serializeDoFireSalvo(List<Coordinate> coordinates, int correlationId) throws GameException {
+        if (!this.hasCapability(CAPABILITY_SALVO)) throw new GameException("Your enemy does not support salvos.");
+        try {
+            DataOutputStream dataOutputStream = this.beginFrame(METHOD_DO_FIRE_SALVO);
+            this.codec.writeValue(dataOutputStream, coordinates.size());
+            for (Coordinate coordinate : coordinates) {
+                this.codec.writeValue(dataOutputStream, coordinate.getxCoordinate());
+                this.codec.writeValue(dataOutputStream, coordinate.getyCoordinate());
+            }
+            if (this.hasCapability(CAPABILITY_CORRELATION_ID)) this.codec.writeValue(dataOutputStream, correlationId);
+            this.endFrame();
+        } catch (IOException e) {
+            throw this.serializeException(e);
+        }
+    }
+
+    private void deserializeDoFireSalvo() throws GameException {
+        DataInputStream dataInputStream = this.frameReader.getPayload();
+        try {
+            int numberOfShots = this.codec.readValue(dataInputStream);
+            if (this.rejectFrame(validateSalvoSize(numberOfShots))) return;
+            this.receivedSalvo.clear();
+            for (int i = 0; i < numberOfShots; i++) {
+                int xCoordinate = this.codec.readValue(dataInputStream);
+                int yCoordinate = this.codec.readValue(dataInputStream);
+                if (this.rejectFrame(Coordinate.validate(xCoordinate, yCoordinate, this.boardDimension))) return;
+                this.receivedSalvo.add(Coordinate.of(xCoordinate, yCoordinate, this.boardDimension));
+            }
+            this.receivedCorrelationId = this.readCorrelationId(dataInputStream);
+            battleship.doFireSalvo(this.receivedSalvo, true);
+        } catch (IOException e) {
+            throw new GameException("The input could not be deserialized.");
+        } finally {
+            this.receivedCorrelationId = NO_CORRELATION_ID;
+        }
+    }
+
+    /**
+     * Sends the answers to a salvo in one message. The GameStatus of both players is the
+     * same for all shots, so it is sent once, followed by one byte with the field status
+     * and the flags and the coordinates of every shot and the correlation id of the salvo.
+     */
+    @Override
+    public synchronized void doSendSalvoResult(List<FireResult> fireResults) throws GameException {
+        try {
+            DataOutputStream dataOutputStream = this.beginFrame(METHOD_DO_SEND_SALVO_RESULT);
+            FireResult lastFireResult = fireResults.get(fireResults.size() - 1);
+            dataOutputStream.writeByte(this.convertGameStatusToInteger(lastFireResult.getShooterGameStatus()));
+            dataOutputStream.writeByte(this.convertGameStatusToInteger(lastFireResult.getTargetGameStatus()));
+            this.codec.writeValue(dataOutputStream, fireResults.size());
+            for (FireResult fireResult : fireResults) {
+                dataOutputStream.writeByte(this.convertBattleshipFieldStatusToInteger(fireResult.getBattleshipFieldStatus()) << 2 |
+                        (fireResult.isShipSunk() ? FIRE_RESULT_FLAG_SHIP_SUNK : 0) |
+                        (fireResult.isGameOver() ? FIRE_RESULT_FLAG_GAME_OVER : 0));
+                this.codec.writeValue(dataOutputStream, fireResult.getCoordinate().getxCoordinate());
+                this.codec.writeValue(dataOutputStream, fireResult.getCoordinate().getyCoordinate());
+            }
+            if (this.hasCapability(CAPABILITY_CORRELATION_ID)) this.codec.writeValue(dataOutputStream, this.receivedCorrelationId);
+            this.endFrame();
+        } catch (IOException e) {
+            throw this.serializeException(e);
+        }
+    }
+
+    private void deserializeDoSendSalvoResult() throws GameException {
+        DataInputStream dataInputStream = this.frameReader.getPayload();
+        try {
+            GameStatus shooterGameStatus = this.convertIntegerToGameStatus(dataInputStream.readUnsignedByte());
+            GameStatus targetGameStatus = this.convertIntegerToGameStatus(dataInputStream.readUnsignedByte());
+            if ((shooterGameStatus == null || targetGameStatus == null) && this.rejectFrame(ValidationResult.UNKNOWN_GAME_STATUS)) return;
+            int numberOfShots = this.codec.readValue(dataInputStream);
+            if (this.rejectFrame(validateSalvoSize(numberOfShots))) return;
+            while (this.fireResultPool.size() < numberOfShots) this.fireResultPool.add(new FireResult());
+
+            this.receivedSalvoResults.clear();
+            for (int i = 0; i < numberOfShots; i++) {
+                int statusAndFlags = dataInputStream.readUnsignedByte();
+                int xCoordinate = this.codec.readValue(dataInputStream);
+                int yCoordinate = this.codec.readValue(dataInputStream);
+                BattleshipFieldStatus battleshipFieldStatus = this.convertIntegerToBattleshipFieldStatus(statusAndFlags >> 2);
+                if (battleshipFieldStatus == null && this.rejectFrame(ValidationResult.UNKNOWN_FIELD_STATUS)) return;
+                if (this.rejectFrame(Coordinate.validate(xCoordinate, yCoordinate, this.boardDimension))) return;
+                this.receivedSalvoResults.add(this.fireResultPool.get(i).set(
+                        battleshipFieldStatus, Coordinate.of(xCoordinate, yCoordinate, this.boardDimension),
+                        shooterGameStatus, targetGameStatus, (statusAndFlags & FIRE_RESULT_FLAG_SHIP_SUNK) != 0,
+                        (statusAndFlags & FIRE_RESULT_FLAG_GAME_OVER) != 0));
+            }
+            int correlationId = this.readCorrelationId(dataInputStream);
+            battleship.doSendSalvoResult(this.receivedSalvoResults);
+
+            CompletableFuture<List<FireResult>> future = this.removePendingFuture(this.pendingSalvos, correlationId);
+            if (future != null) {
+                List<FireResult> fireResults = new ArrayList<>(numberOfShots);
+                for (FireResult fireResult : this.receivedSalvoResults) fireResults.add(fireResult.copy());
+                future.complete(fireResults);
+            }
+        } catch (IOException e) {
+            throw new GameException("The input could not be deserialized.");
+        }
+    }
+
+    // On a large board a coordinate needs two bytes, both sides know the dimension from the handshake
+    private void writeFireResultCoordinate(DataOutputStream dataOutputStream, int value) throws IOException {
+        if (this.boardDimension > MAX_BYTE_DIMENSION) dataOutputStream.writeShort(value);
+        else dataOutputStream.writeByte(value);
+    }
+
+    private int readFireResultCoordinate(DataInputStream dataInputStream) throws IOException {
+        return this.boardDimension > MAX_BYTE_DIMENSION ? dataInputStream.readUnsignedShort() : dataInputStream.readUnsignedByte();
+    }
+
+    /**
+     * @return VALID or WRONG_SALVO_SIZE.
+     */
+    static ValidationResult validateSalvoSize(int numberOfShots) {
+        return numberOfShots < 1 || numberOfShots > MAX_SALVO_SIZE ? ValidationResult.WRONG_SALVO_SIZE : ValidationResult.VALID;
+    }
+
+    /**
+     * An enemy that sends values no client would send does not follow the protocol,
+     * so the session is closed. The frame is dropped without creating an exception.
+     *
+     * @return Whether the frame was rejected.
+     */
+    private boolean rejectFrame(ValidationResult validationResult) {
+        if (validationResult.isValid()) return false;
+        //<<<<<<<<<<<<<<<<<<debug
+        System.out.println("A message of " + this.getEnemiesNameForLog() + " was rejected: " + validationResult.getMessage());
+        //>>>>>>>>>>>>>>>>>>>debug
         try {
-            dataOutputStream.writeInt(METHOD_BOTH_PLAY_SET_ALL_SHIPS);
+            this.close();
+        } catch (IOException ignored) {
+        }
+        return true;
+    }
+
+    private String getEnemiesNameForLog() {
+        String enemiesName = this.enemiesName;
+        return enemiesName != null ? enemiesName : UNKNOWN_ENEMIES_NAME;
+    }
+
+    // must hold the lock of this engine
+    private int nextCorrelationId() {
+        if (++this.lastCorrelationId == NO_CORRELATION_ID) this.lastCorrelationId++;
+        return this.lastCorrelationId;
+    }
+
+    private int readCorrelationId(DataInputStream dataInputStream) throws IOException {
+        return this.hasCapability(CAPABILITY_CORRELATION_ID) ? this.codec.readValue(dataInputStream) : NO_CORRELATION_ID;
+    }
+
+    private <T> CompletableFuture<T> addPendingFuture(ConcurrentSkipListMap<Integer, CompletableFuture<T>> pendingFutures, int correlationId) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        pendingFutures.put(correlationId, future);
+        // Without correlation ids the next answer would complete the wrong future, if a cancelled one was removed
+        if (this.hasCapability(CAPABILITY_CORRELATION_ID)) future.whenComplete((result, throwable) -> {
+            if (future.isCancelled()) pendingFutures.remove(correlationId, future);
+        });
+        return future;
+    }
+
+    /**
+     * @return The future that waits for the answer with the correlation id. Without
+     * CAPABILITY_CORRELATION_ID the answers come in the order of the shots, so it is the
+     * oldest one.
+     */
+    private <T> CompletableFuture<T> removePendingFuture(ConcurrentSkipListMap<Integer, CompletableFuture<T>> pendingFutures, int correlationId) {
+        // Answers to shots without a future are the common case and must not allocate
+        if (pendingFutures.isEmpty()) return null;
+        if (!this.hasCapability(CAPABILITY_CORRELATION_ID)) {
+            Map.Entry<Integer, CompletableFuture<T>> oldestEntry = pendingFutures.pollFirstEntry();
+            return oldestEntry == null ? null : oldestEntry.getValue();
+        }
+        if (correlationId == NO_CORRELATION_ID) return null;
+        return pendingFutures.remove(correlationId);
+    }
+
+    private void failPendingFutures() {
+        GameException exception = new GameException("The connection to the enemy is closed.");
+        Map.Entry<Integer, CompletableFuture<FireResult>> pendingShot;
+        while ((pendingShot = this.pendingShots.pollFirstEntry()) != null) pendingShot.getValue().completeExceptionally(exception);
+        Map.Entry<Integer, CompletableFuture<List<FireResult>>> pendingSalvo;
+        while ((pendingSalvo = this.pendingSalvos.pollFirstEntry()) != null) pendingSalvo.getValue().completeExceptionally(exception);
+    }
+
+    public synchronized void bothPlayerSetAllShips(boolean iStart) throws GameException {
+        try {
+            DataOutputStream dataOutputStream = this.beginFrame(METHOD_BOTH_PLAY_SET_ALL_SHIPS);
             dataOutputStream.writeBoolean(iStart);
+            this.endFrame();
         } catch (IOException e) {
-            throw new GameException("The input could not be serialized.");
+            throw this.serializeException(e);
         }
     }
 
     private void deserializeBothPlayerSetAllShips() throws GameException {
-        DataInputStream dataInputStream = new DataInputStream(this.inputStream);
+        DataInputStream dataInputStream = this.frameReader.getPayload();
         try {
             boolean enemyStarts = dataInputStream.readBoolean();
 
             if (enemyStarts) {
                 battleship.doChangeGameStatus(GameStatus.PLAYING_ENEMY_TURN, true, true);
-                System.out.println("Randomness has decided. Your enemy starts!");
+                battleship.doSendEvent(GameEvent.ENEMY_STARTS, 0, 0);
             } else {
                 battleship.doChangeGameStatus(GameStatus.PLAYING_YOUR_TURN, true, true);
-                System.out.println("Randomness has decided. You start!");
+                battleship.doSendEvent(GameEvent.YOU_START, 0, 0);
             }
         } catch (IOException e) {
             throw new GameException("The input could not be deserialized.");
         }
     }
 
+    /**
+     * Sends a heartbeat, the other side only records that it has received something.
+     */
+    public synchronized void doSendHeartbeat() throws GameException {
+        try {
+            this.beginFrame(METHOD_HEARTBEAT);
+            this.endFrame();
+        } catch (IOException e) {
+            throw this.serializeException(e);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                     heartbeat and idle timeout                                         //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void scheduleHeartbeat() {
+        if (this.closed) return;
+        this.heartbeatTimeout = HashedTimerWheel.getSharedInstance().newTimeout(this::heartbeat, this.heartbeatIntervalInMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs on the thread of the timer wheel, so the blocking parts run on the SessionExecutor.
+     * The idle timeout already runs during the handshake, but heartbeats are only sent after
+     * it, because the enemy does not read frames before.
+     */
+    private void heartbeat() {
+        if (this.closed) return;
+
+        long idleInMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.lastReceivedInNanos);
+        if (idleInMillis >= this.idleTimeoutInMillis) {
+            System.out.println("The session with " + this.getEnemiesNameForLog() + " was idle for " + idleInMillis + " ms and is closed.");
+            SessionExecutor.execute(() -> {
+                try {
+                    this.close();
+                } catch (IOException ignored) {
+                }
+            });
+            return;
+        }
+
+        if (this.established) SessionExecutor.execute(() -> {
+            try {
+                this.doSendHeartbeat();
+            } catch (GameException ignored) {
+                // A broken connection is detected by the read loop or by the idle timeout
+            }
+        });
+        this.scheduleHeartbeat();
+    }
+
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
     //                             serialize/deserialize helper methods                                       //
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
+    private DataOutputStream beginFrame(int type) {
+        return this.frameBuffer.beginFrame(type);
+    }
+
+    private void endFrame() throws IOException {
+        this.frameBuffer.endFrame();
+        if (this.turnDepth == 0 || !this.hasCapability(CAPABILITY_BATCHING)) this.flushFrames();
+    }
+
+    /**
+     * If the enemy has fallen so far behind that the frames do not fit into the outbound
+     * queue, the session is closed: the state of this side has already changed, so
+     * dropping the frames would let both sides drift apart.
+     */
+    private void flushFrames() throws IOException {
+        if (this.frameBuffer.isEmpty()) return;
+        this.frameBuffer.writeTo(this.outputStream);
+        try {
+            this.outputStream.flush();
+        } catch (OutboundQueue.QueueFullException e) {
+            System.out.println("The session with " + this.getEnemiesNameForLog() + " is closed: " + e.getLocalizedMessage());
+            this.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Starts a turn: all frames until the matching endTurn are sent with one flush.
+     * Turns can be nested, only the outermost endTurn flushes.
+     */
+    public synchronized void beginTurn() {
+        this.turnDepth++;
+    }
+
+    public synchronized void endTurn() throws GameException {
+        if (this.turnDepth == 0) throw new IllegalStateException("there is no turn to end");
+        if (--this.turnDepth > 0) return;
+        try {
+            this.flushFrames();
+        } catch (IOException e) {
+            throw this.serializeException(e);
+        }
+    }
+
+    private GameException serializeException(IOException e) {
+        if (e instanceof OutboundQueue.QueueFullException) return new GameException(e.getLocalizedMessage());
+        return new GameException("The input could not be serialized.");
+    }
+
     private int convertGameStatusToInteger(GameStatus gameStatus) {
         return switch (gameStatus) {
             case PLAYING_YOUR_TURN -> GAME_STATUS_PLAYING_YOUR_TURN;
@@ -247,7 +859,8 @@ public final class BattleshipProtocolEngine implements Battleship, Runnable, Pro
         };
     }
 
-    private GameStatus convertIntegerToGameStatus(int gameStatus) throws GameException {
+    // null for an unknown code, the frame is rejected by the caller
+    private GameStatus convertIntegerToGameStatus(int gameStatus) {
         return switch (gameStatus) {
             case GAME_STATUS_PLAYING_YOUR_TURN -> GameStatus.PLAYING_YOUR_TURN;
             case GAME_STATUS_PLAYING_ENEMY_TURN -> GameStatus.PLAYING_ENEMY_TURN;
@@ -256,7 +869,7 @@ public final class BattleshipProtocolEngine implements Battleship, Runnable, Pro
             case GAME_STATUS_All_SHIPS_ARE_SET -> GameStatus.All_SHIPS_ARE_SET;
             case GAME_STATUS_YOU_WON -> GameStatus.YOU_WON;
             case GAME_STATUS_YOU_LOSE -> GameStatus.YOU_LOSE;
-            default -> throw new GameException("The GameStatus is not unknown.");
+            default -> null;
         };
     }
 
@@ -270,13 +883,14 @@ public final class BattleshipProtocolEngine implements Battleship, Runnable, Pro
         };
     }
 
-    private BattleshipFieldStatus convertIntegerToBattleshipFieldStatus(int battleshipFieldStatus) throws GameException {
+    // null for an unknown code, the frame is rejected by the caller
+    private BattleshipFieldStatus convertIntegerToBattleshipFieldStatus(int battleshipFieldStatus) {
         return switch (battleshipFieldStatus) {
             case BATTLESHIP_FIELD_STATUS_EMPTY_NO_SHOOT -> BattleshipFieldStatus.EMPTY_NO_SHOOT;
             case BATTLESHIP_FIELD_STATUS_EMPTY_SHOOT -> BattleshipFieldStatus.EMPTY_SHOOT;
             case BATTLESHIP_FIELD_STATUS_SHIP_NO_SHOOT -> BattleshipFieldStatus.SHIP_NO_SHOOT;
             case BATTLESHIP_FIELD_STATUS_SHIP_SHOOT -> BattleshipFieldStatus.SHIP_SHOOT;
-            default -> throw new GameException("The GameStatus is not unknown.");
+            default -> null;
         };
     }
 
@@ -285,29 +899,15 @@ public final class BattleshipProtocolEngine implements Battleship, Runnable, Pro
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     boolean read() throws GameException {
-        DataInputStream dataInputStream = new DataInputStream(this.inputStream);
-
+        // A rejected frame has closed the session, the following frames are not read
+        if (this.closed) return false;
         try {
-            int readInt = dataInputStream.readInt();
-            switch (readInt) {
-                case METHOD_DO_CHANGE_STATUS:
-                    this.deserializeChangeStatus();
-                    return true;
-                case METHOD_DO_FIRE:
-                    this.deserializeDoFire();
-                    return true;
-                case METHOD_DO_SEND_RESULT:
-                    this.deserializeDoSendResult();
-                    return true;
-                case METHOD_BOTH_PLAY_SET_ALL_SHIPS:
-                    this.deserializeBothPlayerSetAllShips();
-                    return true;
-                case METHOD_DO_SEND_MESSAGE:
-                    this.deserializeDoSendMessage();
-                    return true;
-                default:
-                    return false;
-            }
+            int type = this.frameReader.readFrame();
+            this.lastReceivedInNanos = System.nanoTime();
+            // The payload of an unknown frame is already read, so it is skipped
+            MessageHandler messageHandler = this.messageHandlers[type];
+            if (messageHandler != null) messageHandler.handle();
+            return true;
         } catch (IOException e) {
             try {
                 this.close();
@@ -322,15 +922,25 @@ public final class BattleshipProtocolEngine implements Battleship, Runnable, Pro
 
     @Override
     public void handleConnection(InputStream inputStream, OutputStream outputStream) throws IOException {
-        this.inputStream = inputStream;
-        this.outputStream = outputStream;
+        this.connect(inputStream, outputStream);
 
-        Thread protocolThread = new Thread(this);
-        protocolThread.start();
+        // An enemy that connects and never sends its handshake is closed by the idle timeout
+        this.lastReceivedInNanos = System.nanoTime();
+        this.scheduleHeartbeat();
+        SessionExecutor.execute(this);
+    }
+
+    void connect(InputStream inputStream, OutputStream outputStream) {
+        this.inputStream = inputStream;
+        this.outputStream = new OutboundQueue(outputStream);
+        this.frameReader = new FrameReader(inputStream);
     }
 
     @Override
     public void close() throws IOException {
+        this.closed = true;
+        if (this.heartbeatTimeout != null) this.heartbeatTimeout.cancel();
+        this.failPendingFutures();
         if (this.outputStream != null) this.outputStream.close();
         if (this.inputStream != null) this.inputStream.close();
     }
@@ -339,4 +949,78 @@ public final class BattleshipProtocolEngine implements Battleship, Runnable, Pro
     public void subscribeGameSessionEstablishedListener(GameSessionEstablishedListener ocListener) {
         this.sessionCreatedListenerList.add(ocListener);
     }
+
+    /**
+     * Sets the capabilities this side offers in the handshake, e.g. to act like an
+     * older client. It has to be set before the connection is handled.
+     */
+    public void setOfferedCapabilities(int offeredCapabilities) {
+        this.offeredCapabilities = offeredCapabilities;
+    }
+
+    /**
+     * Sets the dimension of the board, BattleshipImpl sets the one of its engine. It has
+     * to be set before the connection is handled.
+     */
+    public void setBoardDimension(int boardDimension) {
+        this.boardDimension = boardDimension;
+    }
+
+    public int getBoardDimension() {
+        return this.boardDimension;
+    }
+
+    /**
+     * @return The capabilities both sides offer, none before the handshake.
+     */
+    public int getCapabilities() {
+        return this.capabilities;
+    }
+
+    public boolean hasCapability(int capability) {
+        return (this.capabilities & capability) != 0;
+    }
+
+    /**
+     * @return The protocol version both sides speak, 0 before the handshake.
+     */
+    public int getProtocolVersion() {
+        return this.protocolVersion;
+    }
+
+    /**
+     * @return The codec both sides have agreed on, the BinaryCodec before the handshake.
+     */
+    public Codec getCodec() {
+        return this.codec;
+    }
+
+    /**
+     * @return The queue of the messages that are not sent yet. It exists once the connection is handled.
+     */
+    public OutboundQueue getOutboundQueue() {
+        return this.outputStream;
+    }
+
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    /**
+     * Changes the heartbeat interval and the idle timeout. It has to be
+     * called before the connection is handled.
+     */
+    public void setHeartbeat(long heartbeatIntervalInMillis, long idleTimeoutInMillis) {
+        this.heartbeatIntervalInMillis = heartbeatIntervalInMillis;
+        this.idleTimeoutInMillis = idleTimeoutInMillis;
+    }
+
+    /**
+     * Deserializes the payload of one frame type. The handlers are created once in the
+     * constructor, so the dispatch of a message does not allocate anything.
+     */
+    @FunctionalInterface
+    private interface MessageHandler {
+        void handle() throws GameException;
+    }
 }
@@ -0,0 +1,24 @@
+package battleship;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The BinaryCodec writes every value as an int of four bytes,
+ * like the protocol always did.
+ *
+ * @author friedrichvoelkers
+ */
+public final class BinaryCodec implements Codec {
+
+    @Override
+    public void writeValue(DataOutput dataOutput, int value) throws IOException {
+        dataOutput.writeInt(value);
+    }
+
+    @Override
+    public int readValue(DataInput dataInput) throws IOException {
+        return dataInput.readInt();
+    }
+}
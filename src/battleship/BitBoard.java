@@ -0,0 +1,258 @@
+package battleship;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The BitBoard is an alternative to the BattleshipBoard for the simulations and
+ * the bots, whose time is spent in the checks of the board. It has the same
+ * operations, but stores the board in three layers of one bit per field: the
+ * fields with a ship, the fields that were shot at and the fields whose status
+ * is known (all of them on your board, the shot ones on the enemies board). The
+ * field (x, y) is the bit x * 10 + y, so the 100 fields of a layer fit into two
+ * longs: the low word holds the bits 0 to 63, the high word the bits 64 to 99.
+ * <p>
+ * Overlap, neighbour, hit and all-sunk checks are a few bitwise operations on
+ * these words. The neighbours of a ship are found with the halo of every field,
+ * i.e. the field and its up to eight neighbours, which is computed once for the
+ * whole board. The halos of all fields of a ship are also combined once for
+ * every placement, i.e. the first field, the direction and the length of a ship,
+ * so the neighbour check of a new ship is one lookup and two ANDs. The
+ * BattleshipBoard uses these placement halos on the standard board, too.
+ *
+ * @author friedrichvoelkers
+ */
+public final class BitBoard {
+
+    static final int NUMBER_OF_FIELDS = BattleshipEngine.STANDARD_DIMENSION * BattleshipEngine.STANDARD_DIMENSION;
+    private static final int BITS_PER_WORD = Long.SIZE;
+    private static final long ALL_FIELDS_LOW = -1L;
+    private static final long ALL_FIELDS_HIGH = (1L << (NUMBER_OF_FIELDS - BITS_PER_WORD)) - 1;
+
+    private static final long[] HALO_LOW = new long[NUMBER_OF_FIELDS];
+    private static final long[] HALO_HIGH = new long[NUMBER_OF_FIELDS];
+
+    // The placement (x, y, direction, length) has the index ((x * 10 + y) * 2 + direction) * 11 + length
+    private static final int NUMBER_OF_LENGTHS = BattleshipEngine.STANDARD_DIMENSION + 1;
+    private static final long[] PLACEMENT_HALO_LOW = new long[NUMBER_OF_FIELDS * 2 * NUMBER_OF_LENGTHS];
+    private static final long[] PLACEMENT_HALO_HIGH = new long[NUMBER_OF_FIELDS * 2 * NUMBER_OF_LENGTHS];
+
+    static {
+        int dimension = BattleshipEngine.STANDARD_DIMENSION;
+        for (int x = 0; x < dimension; x++) {
+            for (int y = 0; y < dimension; y++) {
+                int field = x * dimension + y;
+                for (int i = Math.max(x - 1, 0); i <= Math.min(x + 1, dimension - 1); i++) {
+                    for (int j = Math.max(y - 1, 0); j <= Math.min(y + 1, dimension - 1); j++) {
+                        HALO_LOW[field] |= lowBit(i * dimension + j);
+                        HALO_HIGH[field] |= highBit(i * dimension + j);
+                    }
+                }
+            }
+        }
+
+        // A placement that does not fit on the board keeps an empty halo
+        for (int field = 0; field < NUMBER_OF_FIELDS; field++) {
+            for (int direction = 0; direction < 2; direction++) {
+                int step = direction == 0 ? 1 : dimension;
+                int lastIndex = direction == 0 ? field % dimension : field / dimension;
+                long haloLow = 0;
+                long haloHigh = 0;
+                for (int length = 1; length < NUMBER_OF_LENGTHS && lastIndex + length <= dimension; length++) {
+                    haloLow |= HALO_LOW[field + (length - 1) * step];
+                    haloHigh |= HALO_HIGH[field + (length - 1) * step];
+                    PLACEMENT_HALO_LOW[placement(field, direction, length)] = haloLow;
+                    PLACEMENT_HALO_HIGH[placement(field, direction, length)] = haloHigh;
+                }
+            }
+        }
+    }
+
+    private final List<Ship> allShips = new ArrayList<>();
+    private final int[] numberOfShipsPerLength = new int[BattleshipEngine.STANDARD_DIMENSION + 1];
+    private long shipsLow;
+    private long shipsHigh;
+    private long shotsLow;
+    private long shotsHigh;
+    private long knownLow;
+    private long knownHigh;
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                           constructor                                                  //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public BitBoard(boolean isYourBoard) {
+        if (isYourBoard) {
+            this.knownLow = ALL_FIELDS_LOW;
+            this.knownHigh = ALL_FIELDS_HIGH;
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                             UI-method                                                  //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public char printField(Coordinate coordinate) {
+        return switch (this.getFieldStatus(coordinate)) {
+            case EMPTY_NO_SHOOT -> 'o';
+            case EMPTY_SHOOT -> '-';
+            case SHIP_NO_SHOOT -> 's';
+            case SHIP_SHOOT -> 'x';
+            default -> '?';
+        };
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                          logic methods                                                 //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public void addShip(Ship ship) throws GameException {
+        if (this.shipAlreadyExists(ship)) throw new GameException("This ship already exists.");
+        this.allShips.add(ship);
+        this.numberOfShipsPerLength[ship.getLength()]++;
+        this.shipsLow |= maskLow(ship);
+        this.shipsHigh |= maskHigh(ship);
+    }
+
+    public boolean shipAlreadyExists(Ship ship) {
+        return ((this.shipsLow & maskLow(ship)) | (this.shipsHigh & maskHigh(ship))) != 0;
+    }
+
+    /**
+     * @return Whether a ship of the board is on a field of the ship or next to it.
+     */
+    public boolean checkIfTheShipHasDirectNeighbours(Ship ship) {
+        return ((this.shipsLow & haloLow(ship)) | (this.shipsHigh & haloHigh(ship))) != 0;
+    }
+
+    public Ship getShipOnACoordinate(Coordinate coordinateParameter) throws GameException {
+        if (!this.isShip(coordinateParameter)) throw new GameException("No ship was found at these coordinates.");
+        for (Ship ship : this.allShips) {
+            for (Coordinate coordinate : ship.getCoordinates()) {
+                if (coordinateParameter.compareTo(coordinate) == 0) return ship;
+            }
+        }
+        throw new GameException("No ship was found at these coordinates.");
+    }
+
+    /**
+     * Marks the field as shot, the shot and the known layer get the bit of the field.
+     *
+     * @return The status of the field before the shot.
+     */
+    public BattleshipFieldStatus shoot(Coordinate coordinate) {
+        BattleshipFieldStatus battleshipFieldStatus = this.getFieldStatus(coordinate);
+        int field = field(coordinate);
+        this.shotsLow |= lowBit(field);
+        this.shotsHigh |= highBit(field);
+        this.knownLow |= lowBit(field);
+        this.knownHigh |= highBit(field);
+        return battleshipFieldStatus;
+    }
+
+    public boolean isShip(Coordinate coordinate) {
+        int field = field(coordinate);
+        return ((this.shipsLow & lowBit(field)) | (this.shipsHigh & highBit(field))) != 0;
+    }
+
+    public boolean checkIfShipIsCompletelyShoot(Ship ship) {
+        return ((maskLow(ship) & ~this.shotsLow) | (maskHigh(ship) & ~this.shotsHigh)) == 0;
+    }
+
+    public boolean checkIfAllShipsAreShoot() {
+        return ((this.shipsLow & ~this.shotsLow) | (this.shipsHigh & ~this.shotsHigh)) == 0;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                        bit helper methods                                              //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static int field(Coordinate coordinate) {
+        return coordinate.getxCoordinate() * BattleshipEngine.STANDARD_DIMENSION + coordinate.getyCoordinate();
+    }
+
+    private static long lowBit(int field) {
+        return field < BITS_PER_WORD ? 1L << field : 0;
+    }
+
+    private static long highBit(int field) {
+        return field < BITS_PER_WORD ? 0 : 1L << (field - BITS_PER_WORD);
+    }
+
+    /**
+     * Direction 0 are the ships in one row (the y coordinate grows), direction 1
+     * the ships in one column (the x coordinate grows).
+     */
+    private static int placement(int field, int direction, int length) {
+        return (field * 2 + direction) * NUMBER_OF_LENGTHS + length;
+    }
+
+    // Works for every ship on the standard board without looking at its coordinates
+    private static int placement(Ship ship) {
+        Coordinate startCoordinate = ship.getStartCoordinate();
+        Coordinate endCoordinate = ship.getEndCoordinate();
+        int x = Math.min(startCoordinate.getxCoordinate(), endCoordinate.getxCoordinate());
+        int y = Math.min(startCoordinate.getyCoordinate(), endCoordinate.getyCoordinate());
+        int direction = startCoordinate.getxCoordinate() == endCoordinate.getxCoordinate() ? 0 : 1;
+        return placement(x * BattleshipEngine.STANDARD_DIMENSION + y, direction, ship.getLength());
+    }
+
+    static long haloLow(Ship ship) {
+        return PLACEMENT_HALO_LOW[placement(ship)];
+    }
+
+    static long haloHigh(Ship ship) {
+        return PLACEMENT_HALO_HIGH[placement(ship)];
+    }
+
+    static long maskLow(Ship ship) {
+        long mask = 0;
+        for (Coordinate coordinate : ship.getCoordinates()) mask |= lowBit(field(coordinate));
+        return mask;
+    }
+
+    static long maskHigh(Ship ship) {
+        long mask = 0;
+        for (Coordinate coordinate : ship.getCoordinates()) mask |= highBit(field(coordinate));
+        return mask;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                         Getter and Setter                                              //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public BattleshipFieldStatus getFieldStatus(Coordinate coordinate) {
+        int field = field(coordinate);
+        long low = lowBit(field);
+        long high = highBit(field);
+        if (((this.knownLow & low) | (this.knownHigh & high)) == 0) return BattleshipFieldStatus.UNKNOWN;
+        boolean ship = ((this.shipsLow & low) | (this.shipsHigh & high)) != 0;
+        boolean shot = ((this.shotsLow & low) | (this.shotsHigh & high)) != 0;
+        if (ship) return shot ? BattleshipFieldStatus.SHIP_SHOOT : BattleshipFieldStatus.SHIP_NO_SHOOT;
+        return shot ? BattleshipFieldStatus.EMPTY_SHOOT : BattleshipFieldStatus.EMPTY_NO_SHOOT;
+    }
+
+    public void setFieldStatus(BattleshipFieldStatus battleshipFieldStatus, Coordinate coordinate) {
+        int field = field(coordinate);
+        long low = lowBit(field);
+        long high = highBit(field);
+        boolean known = battleshipFieldStatus != BattleshipFieldStatus.UNKNOWN;
+        boolean ship = battleshipFieldStatus == BattleshipFieldStatus.SHIP_NO_SHOOT || battleshipFieldStatus == BattleshipFieldStatus.SHIP_SHOOT;
+        boolean shot = battleshipFieldStatus == BattleshipFieldStatus.EMPTY_SHOOT || battleshipFieldStatus == BattleshipFieldStatus.SHIP_SHOOT;
+
+        this.knownLow = known ? this.knownLow | low : this.knownLow & ~low;
+        this.knownHigh = known ? this.knownHigh | high : this.knownHigh & ~high;
+        this.shipsLow = ship ? this.shipsLow | low : this.shipsLow & ~low;
+        this.shipsHigh = ship ? this.shipsHigh | high : this.shipsHigh & ~high;
+        this.shotsLow = shot ? this.shotsLow | low : this.shotsLow & ~low;
+        this.shotsHigh = shot ? this.shotsHigh | high : this.shotsHigh & ~high;
+    }
+
+    public int getNumberOfShips() {
+        return this.allShips.size();
+    }
+
+    public int getNumberOfShipsPerLength(int length) {
+        return length < 0 || length >= this.numberOfShipsPerLength.length ? 0 : this.numberOfShipsPerLength[length];
+    }
+}
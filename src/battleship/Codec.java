@@ -0,0 +1,25 @@
+package battleship;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A Codec decides how the integer fields of the protocol messages, e.g. the
+ * coordinates and the GameStatus and BattleshipFieldStatus constants, are
+ * written to the wire. Everything else stays with the protocol engine and is
+ * binary for every codec: the frame header, the booleans and the packed
+ * bytes of the fire, salvo and event messages. The codec of a session is
+ * negotiated in the handshake:
+ * the DecimalCodec is used if both sides offer CAPABILITY_DECIMAL_CODEC, the
+ * CompactCodec if both offer CAPABILITY_COMPACT_CODEC, otherwise the BinaryCodec.
+ * CodecBenchmark compares their speed and their bytes per message.
+ *
+ * @author friedrichvoelkers
+ */
+public interface Codec {
+
+    void writeValue(DataOutput dataOutput, int value) throws IOException;
+
+    int readValue(DataInput dataInput) throws IOException;
+}
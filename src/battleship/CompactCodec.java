@@ -0,0 +1,40 @@
+package battleship;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The CompactCodec writes every value as a varint: seven bits per byte,
+ * the highest bit tells whether another byte follows. The value is zigzag
+ * encoded first, so small negative values stay short as well. Coordinates
+ * and status constants are below 64 and need a single byte, so a shot has
+ * two bytes of payload instead of eight.
+ *
+ * @author friedrichvoelkers
+ */
+public final class CompactCodec implements Codec {
+
+    public static final int MAX_VARINT_SIZE = 5;
+
+    @Override
+    public void writeValue(DataOutput dataOutput, int value) throws IOException {
+        int zigzag = (value << 1) ^ (value >> 31);
+        while ((zigzag & ~0x7F) != 0) {
+            dataOutput.writeByte((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        dataOutput.writeByte(zigzag);
+    }
+
+    @Override
+    public int readValue(DataInput dataInput) throws IOException {
+        int zigzag = 0;
+        for (int i = 0; i < MAX_VARINT_SIZE; i++) {
+            int b = dataInput.readUnsignedByte();
+            zigzag |= (b & 0x7F) << (7 * i);
+            if ((b & 0x80) == 0) return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+        throw new IOException("The varint is longer than " + MAX_VARINT_SIZE + " bytes.");
+    }
+}
@@ -3,15 +3,32 @@ package battleship;
 /**
  * This class represents the coordinates of a field. When a coordinate object is created,
  * it checks if the coordinates are inside the field and throws an error message if these
- * coordinates are outside the field. In addition, the classes provides static methods
- * that check whether two coordinates are horizontal or vertical.
+ * coordinates are outside the field. The constructor checks against the standard board,
+ * the coordinates of a larger board are created with of(x, y, dimension). In addition,
+ * the classes provides static methods that check whether two coordinates are horizontal
+ * or vertical.
+ * <p>
+ * The coordinates returned by of(x, y) are shared by all callers, so their status
+ * cannot be changed. Only coordinates created with a constructor have a status that
+ * can be set, e.g. the coordinates of a ship.
  *
  * @author friedrichvoelkers
  */
 public final class Coordinate implements Comparable<Coordinate> {
 
+    private static final Coordinate[] CACHE = new Coordinate[BattleshipEngine.STANDARD_DIMENSION * BattleshipEngine.STANDARD_DIMENSION];
+
+    static {
+        for (int x = 0; x < BattleshipEngine.STANDARD_DIMENSION; x++) {
+            for (int y = 0; y < BattleshipEngine.STANDARD_DIMENSION; y++) {
+                CACHE[x * BattleshipEngine.STANDARD_DIMENSION + y] = new Coordinate(x, y, BattleshipFieldStatus.UNKNOWN, true);
+            }
+        }
+    }
+
     private final int xCoordinate;
     private final int yCoordinate;
+    private final boolean shared;
     private BattleshipFieldStatus battleshipFieldStatus = BattleshipFieldStatus.UNKNOWN;
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -20,23 +37,64 @@ public final class Coordinate implements Comparable<Coordinate> {
 
     public Coordinate(int xCoordinate, int yCoordinate) throws GameException {
 
-        if (xCoordinate < 0 || xCoordinate >= BattleshipEngine.STANDARD_DIMENSION || yCoordinate < 0 || yCoordinate >= BattleshipEngine.STANDARD_DIMENSION)
-            throw new GameException("Coordinate is not on the board");
+        ValidationResult validationResult = validate(xCoordinate, yCoordinate, BattleshipEngine.STANDARD_DIMENSION);
+        if (!validationResult.isValid()) throw validationResult.toGameException();
 
         this.xCoordinate = xCoordinate;
         this.yCoordinate = yCoordinate;
+        this.shared = false;
     }
 
     public Coordinate(int xCoordinate, int yCoordinate, BattleshipFieldStatus battleshipFieldStatus) {
+        this(xCoordinate, yCoordinate, battleshipFieldStatus, false);
+    }
+
+    private Coordinate(int xCoordinate, int yCoordinate, BattleshipFieldStatus battleshipFieldStatus, boolean shared) {
         this.xCoordinate = xCoordinate;
         this.yCoordinate = yCoordinate;
         this.battleshipFieldStatus = battleshipFieldStatus;
+        this.shared = shared;
+    }
+
+    /**
+     * Returns the shared coordinate of a field without creating a new object. The
+     * status of a shared coordinate cannot be set, e.g. it is never part of a ship.
+     *
+     * @throws GameException Throws an error if the coordinates are outside the board.
+     */
+    public static Coordinate of(int xCoordinate, int yCoordinate) throws GameException {
+        return of(xCoordinate, yCoordinate, BattleshipEngine.STANDARD_DIMENSION);
+    }
+
+    /**
+     * Returns the coordinate of a field on a board with the given dimension. Only the
+     * fields of the standard board are shared, the others are created.
+     *
+     * @throws GameException Throws an error if the coordinates are outside the board.
+     */
+    public static Coordinate of(int xCoordinate, int yCoordinate, int dimension) throws GameException {
+        ValidationResult validationResult = validate(xCoordinate, yCoordinate, dimension);
+        if (!validationResult.isValid()) throw validationResult.toGameException();
+        if (xCoordinate < BattleshipEngine.STANDARD_DIMENSION && yCoordinate < BattleshipEngine.STANDARD_DIMENSION)
+            return CACHE[xCoordinate * BattleshipEngine.STANDARD_DIMENSION + yCoordinate];
+        return new Coordinate(xCoordinate, yCoordinate, BattleshipFieldStatus.UNKNOWN);
     }
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
     //                                          logic methods                                                 //
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
+    /**
+     * Checks the coordinates like of(x, y, dimension), but without creating anything.
+     *
+     * @return VALID or COORDINATE_NOT_ON_THE_BOARD.
+     */
+    public static ValidationResult validate(int xCoordinate, int yCoordinate, int dimension) {
+        if (xCoordinate < 0 || xCoordinate >= dimension || yCoordinate < 0 || yCoordinate >= dimension)
+            return ValidationResult.COORDINATE_NOT_ON_THE_BOARD;
+        return ValidationResult.VALID;
+    }
+
     public static boolean checkIfTwoCoordinatesAreVertical(Coordinate startCoordinate, Coordinate endCoordinate) {
         return startCoordinate.yCoordinate == endCoordinate.yCoordinate;
     }
@@ -61,7 +119,11 @@ public final class Coordinate implements Comparable<Coordinate> {
         return battleshipFieldStatus;
     }
 
+    /**
+     * @throws UnsupportedOperationException Throws an error if the coordinate is shared, see of(x, y).
+     */
     public void setBattleshipFieldStatus(BattleshipFieldStatus battleshipFieldStatus) {
+        if (this.shared) throw new UnsupportedOperationException("the status of a shared coordinate cannot be set");
         this.battleshipFieldStatus = battleshipFieldStatus;
     }
 
@@ -0,0 +1,53 @@
+package battleship;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The DecimalCodec writes every value as a line of decimal digits, e.g. a shot at
+ * (3, 7) has the payload "3\n7\n". It is the largest and slowest codec. Only the
+ * integer fields are decimal, the frame header and the parts the protocol engine
+ * writes itself stay binary, so a captured session still needs a decoder. It helps
+ * to find the coordinates in a dump while debugging and is only used if both
+ * sides offer CAPABILITY_DECIMAL_CODEC.
+ *
+ * @author friedrichvoelkers
+ */
+public final class DecimalCodec implements Codec {
+
+    // "-2147483648" and the line break
+    public static final int MAX_LINE_SIZE = 12;
+
+    private static final int LINE_BREAK = '\n';
+
+    @Override
+    public void writeValue(DataOutput dataOutput, int value) throws IOException {
+        dataOutput.writeBytes(Integer.toString(value));
+        dataOutput.writeByte(LINE_BREAK);
+    }
+
+    /**
+     * Parses the digits without creating a String, so reading a message does not allocate.
+     */
+    @Override
+    public int readValue(DataInput dataInput) throws IOException {
+        int b = dataInput.readUnsignedByte();
+        boolean negative = b == '-';
+        if (negative) b = dataInput.readUnsignedByte();
+
+        long value = 0;
+        int numberOfDigits = 0;
+        while (b != LINE_BREAK) {
+            if (b < '0' || b > '9') throw new IOException("The line contains a character that is not a digit: " + b);
+            if (++numberOfDigits >= MAX_LINE_SIZE) throw new IOException("The line is longer than " + MAX_LINE_SIZE + " bytes.");
+            value = value * 10 + (b - '0');
+            b = dataInput.readUnsignedByte();
+        }
+        if (numberOfDigits == 0) throw new IOException("The line contains no digits.");
+
+        if (negative) value = -value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) throw new IOException("The value is not an int: " + value);
+        return (int) value;
+    }
+}
@@ -0,0 +1,111 @@
+package battleship;
+
+/**
+ * The FireResult is the complete answer to a shot: the status of the field,
+ * the new GameStatus of both players and whether the shot has sunk a ship or
+ * ended the game. It is sent as one message and applied at once on the side
+ * of the shooter, so the shooter never sees the new GameStatus without the
+ * result of the shot.
+ * <p>
+ * The GameStatus of the shooter and of the target are given from their own point
+ * of view, e.g. PLAYING_YOUR_TURN for the shooter after a hit.
+ * <p>
+ * The protocol engine reuses one FireResult for all received answers, so it
+ * is only valid during the call of doSendFireResult. Use copy to keep it.
+ *
+ * @author friedrichvoelkers
+ */
+public final class FireResult {
+
+    private BattleshipFieldStatus battleshipFieldStatus;
+    private Coordinate coordinate;
+    private GameStatus shooterGameStatus;
+    private GameStatus targetGameStatus;
+    private boolean shipSunk;
+    private boolean gameOver;
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                           constructor                                                  //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @param battleshipFieldStatus The status of the field before the shot.
+     * @param coordinate            The coordinates of the field.
+     * @param shooterGameStatus     The new GameStatus of the player who shot.
+     * @param targetGameStatus      The new GameStatus of the player who was shot at.
+     * @param shipSunk              Whether the shot has sunk a ship.
+     * @param gameOver              Whether the shot has sunk the last ship.
+     */
+    public FireResult(BattleshipFieldStatus battleshipFieldStatus, Coordinate coordinate, GameStatus shooterGameStatus,
+                      GameStatus targetGameStatus, boolean shipSunk, boolean gameOver) {
+        this.set(battleshipFieldStatus, coordinate, shooterGameStatus, targetGameStatus, shipSunk, gameOver);
+    }
+
+    FireResult() {
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                          reuse methods                                                 //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    FireResult set(BattleshipFieldStatus battleshipFieldStatus, Coordinate coordinate, GameStatus shooterGameStatus,
+                   GameStatus targetGameStatus, boolean shipSunk, boolean gameOver) {
+        this.battleshipFieldStatus = battleshipFieldStatus;
+        this.coordinate = coordinate;
+        this.shooterGameStatus = shooterGameStatus;
+        this.targetGameStatus = targetGameStatus;
+        this.shipSunk = shipSunk;
+        this.gameOver = gameOver;
+        return this;
+    }
+
+    public FireResult copy() {
+        return new FireResult(this.battleshipFieldStatus, this.coordinate, this.shooterGameStatus, this.targetGameStatus,
+                this.shipSunk, this.gameOver);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                          logic methods                                                 //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @return The event that is reported to the shooter.
+     */
+    public GameEvent getGameEvent() {
+        if (this.gameOver) return GameEvent.YOU_WON;
+
+        return switch (this.battleshipFieldStatus) {
+            case EMPTY_NO_SHOOT -> GameEvent.MISS;
+            case SHIP_NO_SHOOT -> this.shipSunk ? GameEvent.SHIP_SUNK : GameEvent.HIT;
+            default -> GameEvent.ALREADY_SHOT;
+        };
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                         Getter and Setter                                              //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public BattleshipFieldStatus getBattleshipFieldStatus() {
+        return battleshipFieldStatus;
+    }
+
+    public Coordinate getCoordinate() {
+        return coordinate;
+    }
+
+    public GameStatus getShooterGameStatus() {
+        return shooterGameStatus;
+    }
+
+    public GameStatus getTargetGameStatus() {
+        return targetGameStatus;
+    }
+
+    public boolean isShipSunk() {
+        return shipSunk;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+}
@@ -0,0 +1,50 @@
+package battleship;
+
+/**
+ * The GameEvent enumeration describes everything that is reported to
+ * the player during a game. Only the code of an event and up to two
+ * numbers are sent to the enemy, the text for the player is produced
+ * by the UI.
+ *
+ * @author friedrichvoelkers
+ */
+public enum GameEvent {
+    ENEMY_PLACED_SHIP(0),   // Your enemy has placed a ship (number of ships, required number of ships)
+    MISS(1),                // Your shot hit no ship, it's your enemy's turn
+    HIT(2),                 // Your shot hit a ship that is not sunk yet
+    SHIP_SUNK(3),           // Your shot sunk a ship
+    ALREADY_SHOT(4),        // You have already shot at this field
+    YOU_WON(5),             // You sunk the last ship
+    YOU_LOST(6),            // Your last ship was sunk
+    YOU_START(7),           // Randomness has decided that you start
+    ENEMY_STARTS(8);        // Randomness has decided that your enemy starts
+
+    private static final GameEvent[] BY_CODE = new GameEvent[values().length];
+
+    static {
+        for (GameEvent gameEvent : values()) BY_CODE[gameEvent.code] = gameEvent;
+    }
+
+    private final int code;
+
+    GameEvent(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public static GameEvent fromCode(int code) throws GameException {
+        ValidationResult validationResult = validate(code);
+        if (!validationResult.isValid()) throw validationResult.toGameException();
+        return BY_CODE[code];
+    }
+
+    /**
+     * @return VALID or UNKNOWN_GAME_EVENT.
+     */
+    public static ValidationResult validate(int code) {
+        return code < 0 || code >= BY_CODE.length ? ValidationResult.UNKNOWN_GAME_EVENT : ValidationResult.VALID;
+    }
+}
@@ -0,0 +1,12 @@
+package battleship;
+
+/**
+ * A GameEventListener is notified about every GameEvent of the
+ * game, no matter whether it was sent by the enemy or happened
+ * on your own side.
+ *
+ * @author friedrichvoelkers
+ */
+public interface GameEventListener {
+    void gameEvent(GameEvent gameEvent, int firstValue, int secondValue);
+}
@@ -2,13 +2,16 @@ package battleship;
 
 /**
  * The class extends the Exception class and is used to throw errors.
+ * A GameException reports a wrong input or move to the player, so it
+ * does not fill in a stack trace, which would be the most expensive
+ * part of creating it.
  *
  * @author friedrichvoelkers
  */
 public class GameException extends Exception {
 
     public GameException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
 }
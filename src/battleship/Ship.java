@@ -8,6 +8,10 @@ import java.util.ArrayList;
  * In addition, the length is also stored as an integer value, so that it is
  * easier to check whether all ships of this length have already been set.
  * It also provides a static method to check if a ship has been completely sunk.
+ * <p>
+ * The ship counts its fields that were not hit yet, so whether it is sunk is
+ * answered without looking at its coordinates. A hit finds its coordinate by the
+ * distance to the first one, because all coordinates are in one row or column.
  *
  * @author friedrichvoelkers
  */
@@ -17,6 +21,7 @@ public final class Ship {
     private final Coordinate startCoordinate;
     private final Coordinate endCoordinate;
     private int length;
+    private int numberOfRemainingFields;
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
     //                                           constructor                                                  //
@@ -24,18 +29,30 @@ public final class Ship {
 
     public Ship(Coordinate startCoordinate, Coordinate endCoordinate) throws GameException {
 
-        if (!(Coordinate.checkIfTwoCoordinatesAreHorizontal(startCoordinate, endCoordinate) || Coordinate.checkIfTwoCoordinatesAreVertical(startCoordinate, endCoordinate)))
-            throw new GameException("The Ship is not vertical or horizontal");
+        ValidationResult validationResult = validate(startCoordinate, endCoordinate);
+        if (!validationResult.isValid()) throw validationResult.toGameException();
 
         this.startCoordinate = startCoordinate;
         this.endCoordinate = endCoordinate;
         createCoordinatesAndLength(startCoordinate, endCoordinate);
+        this.numberOfRemainingFields = this.length;
     }
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
     //                                          logic methods                                                 //
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
+    /**
+     * Checks the coordinates like the constructor, but without creating the ship.
+     *
+     * @return VALID or SHIP_NOT_STRAIGHT.
+     */
+    public static ValidationResult validate(Coordinate startCoordinate, Coordinate endCoordinate) {
+        if (!(Coordinate.checkIfTwoCoordinatesAreHorizontal(startCoordinate, endCoordinate) || Coordinate.checkIfTwoCoordinatesAreVertical(startCoordinate, endCoordinate)))
+            return ValidationResult.SHIP_NOT_STRAIGHT;
+        return ValidationResult.VALID;
+    }
+
     private void createCoordinatesAndLength(Coordinate startCoordinate, Coordinate endCoordinate) {
         if (Coordinate.checkIfTwoCoordinatesAreVertical(startCoordinate, endCoordinate)) {
             addCoordinatesToArray(startCoordinate.getyCoordinate(), true, startCoordinate.getxCoordinate(), endCoordinate.getxCoordinate());
@@ -49,18 +66,29 @@ public final class Ship {
     }
 
     public static boolean checkIfShipIsCompleteyShoot(Ship ship) {
-        for (Coordinate coordinate : ship.getCoordinates()) {
-            if (coordinate.getBattleshipFieldStatus() != BattleshipFieldStatus.SHIP_SHOOT) return false;
-        }
+        return ship.numberOfRemainingFields == 0;
+    }
+
+    /**
+     * @return Whether the coordinate belongs to the ship and was not shot before.
+     */
+    public boolean gotShoot(Coordinate coordinateParameter) {
+        int index = this.indexOf(coordinateParameter);
+        if (index < 0) return false;
+        Coordinate coordinate = coordinates.get(index);
+        if (coordinate.getBattleshipFieldStatus() == BattleshipFieldStatus.SHIP_SHOOT) return false;
+        coordinate.setBattleshipFieldStatus(BattleshipFieldStatus.SHIP_SHOOT);
+        this.numberOfRemainingFields--;
         return true;
     }
 
-    public void gotShoot(Coordinate coordinateParameter) {
-        for (Coordinate coordinate : coordinates) {
-            if (coordinateParameter.compareTo(coordinate) == 0) {
-                coordinate.setBattleshipFieldStatus(BattleshipFieldStatus.SHIP_SHOOT);
-            }
-        }
+    // Only one of the distances is not 0, because the ship is in one row or column
+    private int indexOf(Coordinate coordinateParameter) {
+        Coordinate firstCoordinate = coordinates.get(0);
+        int index = coordinateParameter.getxCoordinate() - firstCoordinate.getxCoordinate() +
+                coordinateParameter.getyCoordinate() - firstCoordinate.getyCoordinate();
+        if (index < 0 || index >= this.length || coordinateParameter.compareTo(coordinates.get(index)) != 0) return -1;
+        return index;
     }
 
     private void addCoordinatesToArray(int fixedRowOrColumn, boolean isVertical, int startIndex, int endIndex) {
@@ -96,4 +124,8 @@ public final class Ship {
     public int getLength() {
         return length;
     }
+
+    public int getNumberOfRemainingFields() {
+        return numberOfRemainingFields;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package battleship;
+
+/**
+ * The ValidationResult enumeration is the answer of the validate methods, which
+ * check coordinates, ships and the values of a message without throwing. Like a
+ * GameEvent every result has a code; its message is the one of the GameException
+ * the throwing methods create for the same input. The protocol engine rejects the
+ * frames of the enemy with these results, only the UI still gets exceptions.
+ *
+ * @author friedrichvoelkers
+ */
+public enum ValidationResult {
+    VALID(0, "The input is valid."),
+    COORDINATE_NOT_ON_THE_BOARD(1, "Coordinate is not on the board"),
+    SHIP_NOT_STRAIGHT(2, "The Ship is not vertical or horizontal"),
+    SHIP_NOT_ON_THE_BOARD(3, "The ship is not on the board."),
+    SHIP_LENGTH_NOT_CORRECT(4, "The ship length is not correct."),
+    ALL_SHIPS_OF_THIS_LENGTH_SET(5, "You have already set all ships of this length."),
+    SHIP_HAS_DIRECT_NEIGHBOURS(6, "The ship has direct neighbors. One field must always remain free."),
+    UNKNOWN_GAME_STATUS(7, "The GameStatus is unknown."),
+    UNKNOWN_FIELD_STATUS(8, "The BattleshipFieldStatus is unknown."),
+    UNKNOWN_GAME_EVENT(9, "The GameEvent is unknown."),
+    WRONG_SALVO_SIZE(10, "The salvo has a wrong number of shots.");
+
+    private final int code;
+    private final String message;
+
+    ValidationResult(int code, String message) {
+        this.code = code;
+        this.message = message;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isValid() {
+        return this == VALID;
+    }
+
+    /**
+     * @return The exception for the UI, which shows the message to the player.
+     */
+    public GameException toGameException() {
+        return new GameException(message);
+    }
+}
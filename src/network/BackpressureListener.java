@@ -0,0 +1,14 @@
+package network;
+
+/**
+ * A BackpressureListener is notified when the OutboundQueue of a
+ * session fills up because the peer does not read fast enough,
+ * and again when the peer has caught up.
+ *
+ * @author friedrichvoelkers
+ */
+public interface BackpressureListener {
+    void peerFallingBehind(OutboundQueue outboundQueue);
+
+    void peerCaughtUp(OutboundQueue outboundQueue);
+}
@@ -0,0 +1,68 @@
+package network;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The ConnectMetrics collect the connect attempts and the time to connect of
+ * all TCPStream clients of this process.
+ *
+ * @author friedrichvoelkers
+ */
+public final class ConnectMetrics {
+
+    private final AtomicLong numberOfAttempts = new AtomicLong();
+    private final AtomicLong numberOfConnects = new AtomicLong();
+    private final AtomicLong numberOfFailures = new AtomicLong();
+    private final AtomicLong totalTimeToConnectInNanos = new AtomicLong();
+    private final AtomicLong maxTimeToConnectInNanos = new AtomicLong();
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                          logic methods                                                 //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    void recordAttempt() {
+        this.numberOfAttempts.incrementAndGet();
+    }
+
+    void recordConnect(long timeToConnectInNanos) {
+        this.numberOfConnects.incrementAndGet();
+        this.totalTimeToConnectInNanos.addAndGet(timeToConnectInNanos);
+        this.maxTimeToConnectInNanos.accumulateAndGet(timeToConnectInNanos, Math::max);
+    }
+
+    void recordFailure() {
+        this.numberOfFailures.incrementAndGet();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                         Getter and Setter                                              //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public long getNumberOfAttempts() {
+        return this.numberOfAttempts.get();
+    }
+
+    public long getNumberOfConnects() {
+        return this.numberOfConnects.get();
+    }
+
+    public long getNumberOfFailures() {
+        return this.numberOfFailures.get();
+    }
+
+    public double getAverageTimeToConnectInMillis() {
+        long numberOfConnects = this.numberOfConnects.get();
+        return numberOfConnects == 0 ? 0 : this.totalTimeToConnectInNanos.get() / 1e6 / numberOfConnects;
+    }
+
+    public double getMaxTimeToConnectInMillis() {
+        return this.maxTimeToConnectInNanos.get() / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: attempts: %d, connects: %d, failures: %d, time to connect avg: %.1f ms, max: %.1f ms",
+                this.getClass().getSimpleName(), this.getNumberOfAttempts(), this.getNumberOfConnects(),
+                this.getNumberOfFailures(), this.getAverageTimeToConnectInMillis(), this.getMaxTimeToConnectInMillis());
+    }
+}
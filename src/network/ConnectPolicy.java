@@ -0,0 +1,93 @@
+package network;
+
+import battleship.Battleship;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The ConnectPolicy describes how a TCPStream client connects to a server: the
+ * host, the timeout of a single connect attempt and the number of attempts.
+ * Between two attempts the client waits with an exponential backoff, which is
+ * doubled after every failed attempt up to a maximum. A part of every backoff
+ * is random (jitter), so that clients that lost their server at the same
+ * moment do not all retry in lockstep.
+ *
+ * @author friedrichvoelkers
+ */
+public final class ConnectPolicy {
+
+    public static final ConnectPolicy DEFAULT = new ConnectPolicy(Battleship.LOCALHOST, 1000, 10, 50, 2000, 0.5);
+
+    private final String host;
+    private final int connectTimeoutInMillis;
+    private final int maxNumberOfAttempts;
+    private final long initialBackoffInMillis;
+    private final long maxBackoffInMillis;
+    private final double jitter;
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                           constructors                                                 //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @param host                   The host of the server.
+     * @param connectTimeoutInMillis The timeout of a single connect attempt.
+     * @param maxNumberOfAttempts    The number of attempts before the client gives up.
+     * @param initialBackoffInMillis The backoff after the first failed attempt.
+     * @param maxBackoffInMillis     The upper bound of the backoff.
+     * @param jitter                 The random part of every backoff between 0 (no jitter)
+     *                               and 1 (the whole backoff is random).
+     */
+    public ConnectPolicy(String host, int connectTimeoutInMillis, int maxNumberOfAttempts,
+                         long initialBackoffInMillis, long maxBackoffInMillis, double jitter) {
+        if (connectTimeoutInMillis <= 0 || maxNumberOfAttempts < 1 || initialBackoffInMillis < 0 ||
+                maxBackoffInMillis < initialBackoffInMillis || jitter < 0 || jitter > 1)
+            throw new IllegalArgumentException("invalid connect policy");
+
+        this.host = host;
+        this.connectTimeoutInMillis = connectTimeoutInMillis;
+        this.maxNumberOfAttempts = maxNumberOfAttempts;
+        this.initialBackoffInMillis = initialBackoffInMillis;
+        this.maxBackoffInMillis = maxBackoffInMillis;
+        this.jitter = jitter;
+    }
+
+    public ConnectPolicy withHost(String host) {
+        return new ConnectPolicy(host, this.connectTimeoutInMillis, this.maxNumberOfAttempts,
+                this.initialBackoffInMillis, this.maxBackoffInMillis, this.jitter);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                          logic methods                                                 //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Calculates the time to wait after the given number of failed attempts.
+     *
+     * @param numberOfFailedAttempts The number of failed attempts so far (at least 1).
+     * @return The backoff in milliseconds.
+     */
+    public long backoffInMillis(int numberOfFailedAttempts) {
+        int exponent = Math.min(Math.max(numberOfFailedAttempts - 1, 0), 30);
+        long backoff = Math.min(this.maxBackoffInMillis, this.initialBackoffInMillis << exponent);
+        if (backoff < this.initialBackoffInMillis) backoff = this.maxBackoffInMillis; // overflow
+        long randomPart = (long) (backoff * this.jitter * ThreadLocalRandom.current().nextDouble());
+        return backoff - randomPart;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                         Getter and Setter                                              //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public String getHost() {
+        return this.host;
+    }
+
+    public int getConnectTimeoutInMillis() {
+        return this.connectTimeoutInMillis;
+    }
+
+    public int getMaxNumberOfAttempts() {
+        return this.maxNumberOfAttempts;
+    }
+}
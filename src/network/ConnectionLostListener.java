@@ -0,0 +1,12 @@
+package network;
+
+/**
+ * A ConnectionLostListener is notified when the transport of a
+ * ResumableConnection fails. The listener can then establish a new
+ * transport connection and resume the session with it.
+ *
+ * @author friedrichvoelkers
+ */
+public interface ConnectionLostListener {
+    void connectionLost(ResumableConnection resumableConnection);
+}
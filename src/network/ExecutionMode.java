@@ -0,0 +1,12 @@
+package network;
+
+/**
+ * The ExecutionMode enumeration is used to describe on which
+ * kind of threads the sessions are executed.
+ *
+ * @author friedrichvoelkers
+ */
+public enum ExecutionMode {
+    PLATFORM,   // Every session task gets its own platform (operating system) thread
+    VIRTUAL     // Every session task gets its own virtual thread
+}
@@ -0,0 +1,115 @@
+package network;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * The FrameBuffer builds the frames of the protocol in one reusable array.
+ * A frame is [length][type][payload]: the length (int) counts the bytes of
+ * the payload, the type (byte) is one of the METHOD constants of the protocol
+ * engine. Several frames can be collected and written to the transport with
+ * one write call, e.g. all answers to one shot.
+ *
+ * @author friedrichvoelkers
+ */
+public final class FrameBuffer extends OutputStream {
+
+    public static final int HEADER_SIZE = 5;
+
+    private final DataOutputStream dataOutputStream = new DataOutputStream(this);
+    private byte[] buffer;
+    private int size = 0;
+    private int frameStart = -1;
+    private int numberOfFrames = 0;
+
+    public FrameBuffer(int initialCapacity) {
+        this.buffer = new byte[initialCapacity];
+    }
+
+    public FrameBuffer() {
+        this(256);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                          logic methods                                                 //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Starts a new frame with the given type.
+     *
+     * @return The stream to write the payload of the frame.
+     */
+    public DataOutputStream beginFrame(int type) {
+        if (this.frameStart >= 0) throw new IllegalStateException("the last frame is not finished");
+        this.frameStart = this.size;
+        this.ensureCapacity(HEADER_SIZE);
+        this.size += HEADER_SIZE - 1;
+        this.buffer[this.size++] = (byte) type;
+        return this.dataOutputStream;
+    }
+
+    /**
+     * Finishes the current frame and writes its length into the header.
+     */
+    public void endFrame() {
+        if (this.frameStart < 0) throw new IllegalStateException("there is no frame to finish");
+        int length = this.size - this.frameStart - HEADER_SIZE;
+        this.buffer[this.frameStart] = (byte) (length >>> 24);
+        this.buffer[this.frameStart + 1] = (byte) (length >>> 16);
+        this.buffer[this.frameStart + 2] = (byte) (length >>> 8);
+        this.buffer[this.frameStart + 3] = (byte) length;
+        this.frameStart = -1;
+        this.numberOfFrames++;
+    }
+
+    /**
+     * Writes all finished frames with one write call and empties the buffer.
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        if (this.frameStart >= 0) throw new IllegalStateException("the last frame is not finished");
+        try {
+            outputStream.write(this.buffer, 0, this.size);
+        } finally {
+            this.reset();
+        }
+    }
+
+    public void reset() {
+        this.size = 0;
+        this.frameStart = -1;
+        this.numberOfFrames = 0;
+    }
+
+    @Override
+    public void write(int b) {
+        this.ensureCapacity(1);
+        this.buffer[this.size++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        this.ensureCapacity(length);
+        System.arraycopy(bytes, offset, this.buffer, this.size, length);
+        this.size += length;
+    }
+
+    private void ensureCapacity(int length) {
+        if (this.size + length > this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length * 2, this.size + length));
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                         Getter and Setter                                              //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public int getNumberOfFrames() {
+        return this.numberOfFrames;
+    }
+}
@@ -0,0 +1,71 @@
+package network;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * The FrameReader reads the frames that are built by the FrameBuffer. The
+ * payload of a frame is read completely into a reusable array, so a frame
+ * of an unknown type can be skipped and a broken payload never leaves the
+ * stream in the middle of a frame.
+ *
+ * @author friedrichvoelkers
+ */
+public final class FrameReader {
+
+    public static final int MAX_FRAME_LENGTH = 1024 * 1024;
+
+    private final DataInputStream dataInputStream;
+    private final PayloadInputStream payloadInputStream = new PayloadInputStream();
+    private final DataInputStream payload = new DataInputStream(this.payloadInputStream);
+    private byte[] buffer = new byte[256];
+
+    public FrameReader(InputStream inputStream) {
+        this.dataInputStream = new DataInputStream(inputStream);
+    }
+
+    /**
+     * Blocks until the next frame is read completely.
+     *
+     * @return The type of the frame.
+     * @throws IOException Throws an error if the stream is closed or the length is not valid.
+     */
+    public int readFrame() throws IOException {
+        int length = this.dataInputStream.readInt();
+        if (length < 0 || length > MAX_FRAME_LENGTH) throw new IOException("invalid frame length: " + length);
+        int type = this.dataInputStream.read();
+        if (type < 0) throw new EOFException();
+
+        if (length > this.buffer.length) this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length * 2, length));
+        this.dataInputStream.readFully(this.buffer, 0, length);
+        this.payloadInputStream.reset(this.buffer, length);
+        return type;
+    }
+
+    /**
+     * @return The stream to read the payload of the last frame.
+     */
+    public DataInputStream getPayload() {
+        return this.payload;
+    }
+
+    /**
+     * A ByteArrayInputStream that can be pointed at a new payload without a new instance.
+     */
+    private static final class PayloadInputStream extends ByteArrayInputStream {
+        PayloadInputStream() {
+            super(new byte[0]);
+        }
+
+        void reset(byte[] bytes, int length) {
+            this.buf = bytes;
+            this.pos = 0;
+            this.count = length;
+            this.mark = 0;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package network;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The HashedTimerWheel drives the timeouts of all sessions with one thread.
+ * The wheel is an array of buckets, every bucket stands for one tick. A timeout
+ * is put into the bucket of its deadline together with the number of rounds
+ * the wheel has to turn before it expires. Scheduling and cancelling are O(1),
+ * and every tick only visits one bucket, so the cost of the timer does not grow
+ * with the number of sessions. The price is a precision of one tick.
+ * <p>
+ * The tasks run on the thread of the wheel, so they have to be short and must
+ * not block. Blocking work has to be handed over to the SessionExecutor.
+ *
+ * @author friedrichvoelkers
+ */
+public final class HashedTimerWheel {
+
+    public static final long DEFAULT_TICK_IN_MILLIS = 100;
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private static HashedTimerWheel sharedInstance;
+
+    private final long tickInNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger numberOfTimeouts = new AtomicInteger();
+    private final Thread workerThread;
+    private final long startTimeInNanos;
+    private long tick = 0;
+    private volatile boolean running = true;
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                           constructors                                                 //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @param wheelSize The number of buckets, it is rounded up to a power of two.
+     */
+    public HashedTimerWheel(long tick, TimeUnit unit, int wheelSize) {
+        if (tick <= 0) throw new IllegalArgumentException("the tick must be positive");
+        if (wheelSize < 1) throw new IllegalArgumentException("the wheel needs at least one bucket");
+        this.tickInNanos = unit.toNanos(tick);
+
+        int numberOfBuckets = Integer.highestOneBit(wheelSize);
+        if (numberOfBuckets < wheelSize) numberOfBuckets <<= 1;
+        this.wheel = new Bucket[numberOfBuckets];
+        for (int i = 0; i < numberOfBuckets; i++) this.wheel[i] = new Bucket();
+        this.mask = numberOfBuckets - 1;
+
+        this.startTimeInNanos = System.nanoTime();
+        this.workerThread = new Thread(this::run, "battleship-timer-wheel");
+        this.workerThread.setDaemon(true);
+        this.workerThread.start();
+    }
+
+    public HashedTimerWheel() {
+        this(DEFAULT_TICK_IN_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * @return The wheel that is shared by all sessions of this process.
+     */
+    public static synchronized HashedTimerWheel getSharedInstance() {
+        if (sharedInstance == null) sharedInstance = new HashedTimerWheel();
+        return sharedInstance;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                          logic methods                                                 //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        if (!this.running) throw new IllegalStateException("the timer wheel is stopped");
+        Timeout timeout = new Timeout(task, System.nanoTime() + unit.toNanos(delay));
+        this.numberOfTimeouts.incrementAndGet();
+        this.pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    public void stop() {
+        this.running = false;
+        this.workerThread.interrupt();
+    }
+
+    private void run() {
+        while (this.running) {
+            if (!this.waitForNextTick()) return;
+            this.transferPendingTimeouts();
+            this.wheel[(int) (this.tick & this.mask)].expireTimeouts();
+            this.tick++;
+        }
+    }
+
+    private boolean waitForNextTick() {
+        long deadline = this.startTimeInNanos + (this.tick + 1) * this.tickInNanos;
+        while (true) {
+            long sleepInNanos = deadline - System.nanoTime();
+            if (sleepInNanos <= 0) return true;
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepInNanos);
+            } catch (InterruptedException ex) {
+                if (!this.running) return false;
+            }
+        }
+    }
+
+    private void transferPendingTimeouts() {
+        Timeout timeout;
+        while ((timeout = this.pendingTimeouts.poll()) != null) {
+            if (timeout.cancelled) {
+                this.numberOfTimeouts.decrementAndGet();
+                continue;
+            }
+            long deadlineTick = Math.max((timeout.deadlineInNanos - this.startTimeInNanos) / this.tickInNanos, this.tick);
+            timeout.remainingRounds = (deadlineTick - this.tick) / this.wheel.length;
+            this.wheel[(int) (deadlineTick & this.mask)].add(timeout);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                         Getter and Setter                                              //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public int getNumberOfTimeouts() {
+        return this.numberOfTimeouts.get();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                        timeouts and buckets                                            //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public static final class Timeout {
+        private final Runnable task;
+        private final long deadlineInNanos;
+        private volatile boolean cancelled = false;
+        private volatile boolean expired = false;
+        private long remainingRounds;
+        private Timeout previous;
+        private Timeout next;
+
+        private Timeout(Runnable task, long deadlineInNanos) {
+            this.task = task;
+            this.deadlineInNanos = deadlineInNanos;
+        }
+
+        /**
+         * Cancels the timeout. It is removed from its bucket the next time the
+         * wheel passes it.
+         */
+        public void cancel() {
+            this.cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return this.cancelled;
+        }
+
+        public boolean isExpired() {
+            return this.expired;
+        }
+    }
+
+    /**
+     * A doubly linked list of timeouts that is only used by the thread of the wheel.
+     */
+    private final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.previous = this.tail;
+            timeout.next = null;
+            if (this.tail == null) this.head = timeout;
+            else this.tail.next = timeout;
+            this.tail = timeout;
+        }
+
+        void expireTimeouts() {
+            Timeout timeout = this.head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.cancelled) {
+                    this.remove(timeout);
+                } else if (timeout.remainingRounds <= 0) {
+                    this.remove(timeout);
+                    timeout.expired = true;
+                    try {
+                        timeout.task.run();
+                    } catch (RuntimeException ex) {
+                        System.out.println(HashedTimerWheel.class.getSimpleName() + ": timeout task failed: " + ex);
+                    }
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        private void remove(Timeout timeout) {
+            if (timeout.previous == null) this.head = timeout.next;
+            else timeout.previous.next = timeout.next;
+            if (timeout.next == null) this.tail = timeout.previous;
+            else timeout.next.previous = timeout.previous;
+            timeout.previous = null;
+            timeout.next = null;
+            HashedTimerWheel.this.numberOfTimeouts.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package network;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * The InProcessPipeTransport connects two players in the same process without
+ * any socket. Both sides call connect on the same instance: the server side
+ * gets one end of the pipe and the client side the other end.
+ * <p>
+ * Every direction is a ring buffer in memory. The bytes are copied once from
+ * the writer into the ring buffer and once from the ring buffer into the reader,
+ * there is no system call and no kernel buffer involved. A direct hand-off of
+ * the writer's array would save one copy, but then the writer would have to
+ * wait for the reader, and two protocol engines that answer from their read
+ * loops would block each other.
+ *
+ * @author friedrichvoelkers
+ */
+public final class InProcessPipeTransport implements Transport {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final Pipe serverToClient;
+    private final Pipe clientToServer;
+
+    public InProcessPipeTransport(int bufferSize) {
+        this.serverToClient = new Pipe(bufferSize);
+        this.clientToServer = new Pipe(bufferSize);
+    }
+
+    public InProcessPipeTransport() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    @Override
+    public StreamConnection connect(boolean asServer, String name) {
+        if (asServer) return new PipeConnection(this.clientToServer, this.serverToClient);
+        else return new PipeConnection(this.serverToClient, this.clientToServer);
+    }
+
+    private static final class PipeConnection implements StreamConnection {
+        private final Pipe inputPipe;
+        private final Pipe outputPipe;
+        private final InputStream inputStream;
+        private final OutputStream outputStream;
+
+        PipeConnection(Pipe inputPipe, Pipe outputPipe) {
+            this.inputPipe = inputPipe;
+            this.outputPipe = outputPipe;
+            this.inputStream = new PipeInputStream(inputPipe);
+            this.outputStream = new PipeOutputStream(outputPipe);
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return this.inputStream;
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return this.outputStream;
+        }
+
+        @Override
+        public void close() {
+            this.inputPipe.close();
+            this.outputPipe.close();
+        }
+    }
+
+    /**
+     * One direction of the pipe: a ring buffer that is filled by the writer
+     * and emptied by the reader.
+     */
+    private static final class Pipe {
+        private final byte[] buffer;
+        private int readPosition = 0;
+        private int size = 0;
+        private boolean closed = false;
+
+        Pipe(int bufferSize) {
+            this.buffer = new byte[bufferSize];
+        }
+
+        synchronized void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                while (this.size == this.buffer.length && !this.closed) this.await();
+                if (this.closed) throw new IOException("pipe is closed");
+
+                int writePosition = (this.readPosition + this.size) % this.buffer.length;
+                int numberOfBytes = Math.min(length, Math.min(this.buffer.length - this.size, this.buffer.length - writePosition));
+                System.arraycopy(bytes, offset, this.buffer, writePosition, numberOfBytes);
+                this.size += numberOfBytes;
+                offset += numberOfBytes;
+                length -= numberOfBytes;
+                this.notifyAll();
+            }
+        }
+
+        synchronized int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) return 0;
+            while (this.size == 0 && !this.closed) this.await();
+            if (this.size == 0) return -1;
+
+            int numberOfBytes = Math.min(length, Math.min(this.size, this.buffer.length - this.readPosition));
+            System.arraycopy(this.buffer, this.readPosition, bytes, offset, numberOfBytes);
+            this.readPosition = (this.readPosition + numberOfBytes) % this.buffer.length;
+            this.size -= numberOfBytes;
+            this.notifyAll();
+            return numberOfBytes;
+        }
+
+        synchronized int available() {
+            return this.size;
+        }
+
+        synchronized void close() {
+            this.closed = true;
+            this.notifyAll();
+        }
+
+        private void await() throws IOException {
+            try {
+                this.wait();
+            } catch (InterruptedException ex) {
+                throw new IOException("interrupted while waiting for the pipe", ex);
+            }
+        }
+    }
+
+    private static final class PipeInputStream extends InputStream {
+        private final Pipe pipe;
+        private final byte[] singleByte = new byte[1];
+
+        PipeInputStream(Pipe pipe) {
+            this.pipe = pipe;
+        }
+
+        @Override
+        public synchronized int read() throws IOException {
+            return this.pipe.read(this.singleByte, 0, 1) < 0 ? -1 : this.singleByte[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            return this.pipe.read(bytes, offset, length);
+        }
+
+        @Override
+        public int available() {
+            return this.pipe.available();
+        }
+
+        @Override
+        public void close() {
+            this.pipe.close();
+        }
+    }
+
+    private static final class PipeOutputStream extends OutputStream {
+        private final Pipe pipe;
+        private final byte[] singleByte = new byte[1];
+
+        PipeOutputStream(Pipe pipe) {
+            this.pipe = pipe;
+        }
+
+        @Override
+        public synchronized void write(int b) throws IOException {
+            this.singleByte[0] = (byte) b;
+            this.pipe.write(this.singleByte, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            this.pipe.write(bytes, offset, length);
+        }
+
+        @Override
+        public void close() {
+            this.pipe.close();
+        }
+    }
+}
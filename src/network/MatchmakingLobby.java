@@ -0,0 +1,282 @@
+package network;
+
+import battleship.Battleship;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The MatchmakingLobby accepts any number of players on one port, puts them into
+ * a waiting queue and pairs them automatically. When a second player arrives, the
+ * two connections are joined and all bytes are relayed between them, so both
+ * players run their own BattleshipProtocolEngine as if one of them had created
+ * the game and the other had joined it. The players only have to use "join".
+ * <p>
+ * Pairing is O(1) per arrival: a new player either takes the player at the head
+ * of the queue or is appended to the tail. The lobby also records how long the
+ * players had to wait in the queue.
+ * <p>
+ * While a player waits, a watcher task reads from its connection. The bytes the
+ * player already sent (its hello) are kept until the opponent arrives, and then
+ * the watcher relays the connection like the relay task of the opponent. If the
+ * player disconnects while it waits, the watcher evicts it from the queue, so
+ * the next arrival is never paired with a dead connection.
+ *
+ * @author friedrichvoelkers
+ */
+public class MatchmakingLobby implements Runnable {
+
+    private static final int BACKLOG = 1024;
+    private static final int METRICS_INTERVAL_IN_MILLIS = 10_000;
+    private static final int MAX_BUFFERED_BYTES_WHILE_WAITING = 4 * 1024;
+
+    private final int port;
+    private final Queue<WaitingPlayer> waitingPlayers = new ArrayDeque<>();
+    private final AtomicLong numberOfArrivals = new AtomicLong();
+    private final AtomicLong numberOfPairs = new AtomicLong();
+    private final AtomicLong numberOfEvictions = new AtomicLong();
+    private final AtomicLong totalQueueWaitInNanos = new AtomicLong();
+    private final AtomicLong maxQueueWaitInNanos = new AtomicLong();
+    private ServerSocket serverSocket;
+    private volatile boolean running = false;
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                           constructors                                                 //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public MatchmakingLobby(int port) {
+        this.port = port;
+    }
+
+    public MatchmakingLobby() {
+        this(Battleship.DEFAULT_PORT);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                           main-method                                                  //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Battleship.DEFAULT_PORT;
+        MatchmakingLobby matchmakingLobby = new MatchmakingLobby(port);
+        matchmakingLobby.start();
+
+        while (matchmakingLobby.isRunning()) {
+            Thread.sleep(METRICS_INTERVAL_IN_MILLIS);
+            System.out.println(matchmakingLobby.getMetrics());
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                         lobby life cycle                                               //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public synchronized void start() throws IOException {
+        if (this.running) return;
+        this.serverSocket = new ServerSocket(this.port, BACKLOG);
+        this.running = true;
+        SessionExecutor.execute(this);
+        System.out.println(this.getClass().getSimpleName() + ": opened port " + this.port + " and wait for players");
+    }
+
+    public synchronized void close() throws IOException {
+        if (!this.running) return;
+        this.running = false;
+        this.serverSocket.close();
+
+        synchronized (this.waitingPlayers) {
+            for (WaitingPlayer waitingPlayer : this.waitingPlayers) {
+                closeQuietly(waitingPlayer.socket);
+            }
+            this.waitingPlayers.clear();
+        }
+    }
+
+    @Override
+    public void run() {
+        while (this.running) {
+            try {
+                Socket socket = this.serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                socket.setKeepAlive(true);
+                this.arrive(socket);
+            } catch (IOException ex) {
+                if (this.running) System.out.println(this.getClass().getSimpleName() + ": accept failed: " + ex.getLocalizedMessage());
+            }
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                          logic methods                                                 //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    void arrive(Socket socket) {
+        long now = System.nanoTime();
+        WaitingPlayer opponent;
+        this.numberOfArrivals.incrementAndGet();
+
+        synchronized (this.waitingPlayers) {
+            opponent = this.waitingPlayers.poll();
+            if (opponent == null) {
+                WaitingPlayer waitingPlayer = new WaitingPlayer(socket, now);
+                this.waitingPlayers.add(waitingPlayer);
+                SessionExecutor.execute(() -> this.watch(waitingPlayer));
+                return;
+            }
+        }
+
+        long queueWaitInNanos = now - opponent.arrivalTimeInNanos;
+        this.totalQueueWaitInNanos.addAndGet(queueWaitInNanos);
+        this.maxQueueWaitInNanos.accumulateAndGet(queueWaitInNanos, Math::max);
+        this.numberOfPairs.incrementAndGet();
+
+        this.pair(opponent, socket);
+    }
+
+    private void pair(WaitingPlayer waitingPlayer, Socket socket) {
+        try {
+            InputStream inputStream = socket.getInputStream();
+            OutputStream waitingPlayerOutputStream = waitingPlayer.socket.getOutputStream();
+
+            // The watcher of the waiting player relays its connection from now on
+            waitingPlayer.pair(socket);
+            SessionExecutor.execute(() -> relay(inputStream, waitingPlayerOutputStream, socket, waitingPlayer.socket));
+        } catch (IOException ex) {
+            closeQuietly(waitingPlayer.socket);
+            closeQuietly(socket);
+        }
+    }
+
+    /**
+     * Reads from the connection of a waiting player until it disconnects. Runs on the SessionExecutor.
+     */
+    private void watch(WaitingPlayer waitingPlayer) {
+        try {
+            InputStream inputStream = waitingPlayer.socket.getInputStream();
+            byte[] buffer = new byte[MAX_BUFFERED_BYTES_WHILE_WAITING];
+            int length;
+            while ((length = inputStream.read(buffer)) != -1) {
+                waitingPlayer.forward(buffer, length);
+            }
+        } catch (IOException ignored) {
+        }
+
+        boolean evicted;
+        synchronized (this.waitingPlayers) {
+            evicted = this.waitingPlayers.remove(waitingPlayer);
+        }
+        if (evicted) {
+            this.numberOfEvictions.incrementAndGet();
+            //<<<<<<<<<<<<<<<<<<debug
+            System.out.println(this.getClass().getSimpleName() + ": evicted a player that left the queue");
+            //>>>>>>>>>>>>>>>>>>>debug
+        }
+        closeQuietly(waitingPlayer.socket);
+        waitingPlayer.closeOpponent();
+    }
+
+    private static void relay(InputStream inputStream, OutputStream outputStream, Socket from, Socket to) {
+        try {
+            inputStream.transferTo(outputStream);
+        } catch (IOException ignored) {
+        }
+        // One player has left the game, so the connection of the other player is closed as well
+        closeQuietly(from);
+        closeQuietly(to);
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                         Getter and Setter                                              //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    public int getNumberOfWaitingPlayers() {
+        synchronized (this.waitingPlayers) {
+            return this.waitingPlayers.size();
+        }
+    }
+
+    public long getNumberOfArrivals() {
+        return this.numberOfArrivals.get();
+    }
+
+    public long getNumberOfPairs() {
+        return this.numberOfPairs.get();
+    }
+
+    public long getNumberOfEvictions() {
+        return this.numberOfEvictions.get();
+    }
+
+    public double getAverageQueueWaitInMillis() {
+        long numberOfPairs = this.numberOfPairs.get();
+        return numberOfPairs == 0 ? 0 : this.totalQueueWaitInNanos.get() / 1e6 / numberOfPairs;
+    }
+
+    public double getMaxQueueWaitInMillis() {
+        return this.maxQueueWaitInNanos.get() / 1e6;
+    }
+
+    public String getMetrics() {
+        return String.format("%s: arrivals: %d, pairs: %d, waiting: %d, evicted: %d, queue wait avg: %.1f ms, max: %.1f ms",
+                this.getClass().getSimpleName(), this.getNumberOfArrivals(), this.getNumberOfPairs(),
+                this.getNumberOfWaitingPlayers(), this.getNumberOfEvictions(), this.getAverageQueueWaitInMillis(), this.getMaxQueueWaitInMillis());
+    }
+
+    /**
+     * A player in the queue. Its watcher hands the bytes it reads to forward, which
+     * keeps them until pair has set the opponent and writes them to the opponent after that.
+     */
+    private static final class WaitingPlayer {
+        private final Socket socket;
+        private final long arrivalTimeInNanos;
+        private final ByteArrayOutputStream bufferedBytes = new ByteArrayOutputStream();
+        private Socket opponent;
+        private OutputStream opponentOutputStream;
+
+        WaitingPlayer(Socket socket, long arrivalTimeInNanos) {
+            this.socket = socket;
+            this.arrivalTimeInNanos = arrivalTimeInNanos;
+        }
+
+        synchronized void forward(byte[] bytes, int length) throws IOException {
+            if (this.opponentOutputStream != null) {
+                this.opponentOutputStream.write(bytes, 0, length);
+                return;
+            }
+            if (this.bufferedBytes.size() + length > MAX_BUFFERED_BYTES_WHILE_WAITING) {
+                throw new IOException("too many bytes while waiting for an opponent");
+            }
+            this.bufferedBytes.write(bytes, 0, length);
+        }
+
+        synchronized void pair(Socket opponent) throws IOException {
+            this.opponent = opponent;
+            if (opponent.isClosed() || this.socket.isClosed()) throw new IOException("player left the lobby");
+            this.opponentOutputStream = opponent.getOutputStream();
+            this.bufferedBytes.writeTo(this.opponentOutputStream);
+        }
+
+        synchronized void closeOpponent() {
+            // One player has left the game, so the connection of the other player is closed as well
+            if (this.opponent != null) closeQuietly(this.opponent);
+        }
+    }
+}
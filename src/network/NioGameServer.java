@@ -0,0 +1,469 @@
+package network;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The NioGameServer accepts any number of connections on one port and hosts a
+ * game session for each of them. In contrast to the TCPStream, which accepts
+ * exactly one connection per server socket, this server is based on a Selector
+ * and a non-blocking ServerSocketChannel. One thread accepts new connections
+ * and a small fixed pool of I/O threads reads and writes the data of all
+ * sessions.
+ * <p>
+ * For every accepted connection a new protocol engine is created by the
+ * ProtocolEngineFactory. The protocol engine gets an InputStream and an
+ * OutputStream, which are fed by the I/O threads, so the existing protocol
+ * engines can be used without any changes. Both streams buffer a bounded
+ * number of bytes per session: a slow reader stalls the writer of its own
+ * session instead of growing the memory of the server.
+ *
+ * @author friedrichvoelkers
+ */
+public class NioGameServer {
+
+    public static final int DEFAULT_NUMBER_OF_IO_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+
+    private static final int BACKLOG = 1024;
+    private static final int READ_BUFFER_SIZE = 8 * 1024;
+    private static final int MAX_BUFFERED_INPUT_PER_SESSION = 4 * 1024;
+    private static final int MAX_BUFFERED_OUTPUT_PER_SESSION = 64 * 1024;
+
+    private final int port;
+    private final ProtocolEngineFactory protocolEngineFactory;
+    private final IoWorker[] ioWorkers;
+    private final AtomicInteger numberOfSessions = new AtomicInteger();
+    private ServerSocketChannel serverSocketChannel;
+    private Selector acceptSelector;
+    private volatile boolean running = false;
+    private int nextIoWorker = 0;
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                           constructors                                                 //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public NioGameServer(int port, int numberOfIoThreads, ProtocolEngineFactory protocolEngineFactory) {
+        if (numberOfIoThreads < 1) throw new IllegalArgumentException("at least one I/O thread is required");
+        this.port = port;
+        this.protocolEngineFactory = protocolEngineFactory;
+        this.ioWorkers = new IoWorker[numberOfIoThreads];
+    }
+
+    public NioGameServer(int port, ProtocolEngineFactory protocolEngineFactory) {
+        this(port, DEFAULT_NUMBER_OF_IO_THREADS, protocolEngineFactory);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                        server life cycle                                               //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public synchronized void start() throws IOException {
+        if (this.running) return;
+
+        this.serverSocketChannel = ServerSocketChannel.open();
+        this.serverSocketChannel.bind(new InetSocketAddress(this.port), BACKLOG);
+        this.serverSocketChannel.configureBlocking(false);
+        this.acceptSelector = Selector.open();
+        this.serverSocketChannel.register(this.acceptSelector, SelectionKey.OP_ACCEPT);
+        this.running = true;
+
+        for (int i = 0; i < this.ioWorkers.length; i++) {
+            this.ioWorkers[i] = new IoWorker();
+            new Thread(this.ioWorkers[i], this.getClass().getSimpleName() + "-io-" + i).start();
+        }
+        new Thread(this::acceptLoop, this.getClass().getSimpleName() + "-accept").start();
+
+        System.out.println(this.getClass().getSimpleName() + ": opened port " + this.port + " with " +
+                this.ioWorkers.length + " I/O threads and wait");
+    }
+
+    public synchronized void close() throws IOException {
+        if (!this.running) return;
+        this.running = false;
+
+        this.acceptSelector.close();
+        this.serverSocketChannel.close();
+        for (IoWorker ioWorker : this.ioWorkers) {
+            ioWorker.selector.wakeup();
+        }
+    }
+
+    public int getNumberOfSessions() {
+        return this.numberOfSessions.get();
+    }
+
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    private void acceptLoop() {
+        try {
+            while (this.running) {
+                this.acceptSelector.select();
+                this.acceptSelector.selectedKeys().clear();
+
+                SocketChannel socketChannel;
+                while ((socketChannel = this.serverSocketChannel.accept()) != null) {
+                    socketChannel.configureBlocking(false);
+                    socketChannel.socket().setTcpNoDelay(true);
+                    this.ioWorkers[this.nextIoWorker].register(socketChannel);
+                    this.nextIoWorker = (this.nextIoWorker + 1) % this.ioWorkers.length;
+                }
+            }
+        } catch (IOException | ClosedSelectorException ex) {
+            if (this.running) System.out.println(this.getClass().getSimpleName() + ": accept failed: " + ex.getLocalizedMessage());
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                            I/O threads                                                 //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private final class IoWorker implements Runnable {
+        private final Selector selector;
+        private final Queue<SocketChannel> pendingRegistrations = new ConcurrentLinkedQueue<>();
+        private final Queue<NioSession> pendingInterestUpdates = new ConcurrentLinkedQueue<>();
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+
+        IoWorker() throws IOException {
+            this.selector = Selector.open();
+        }
+
+        void register(SocketChannel socketChannel) {
+            this.pendingRegistrations.add(socketChannel);
+            this.selector.wakeup();
+        }
+
+        void requestInterestUpdate(NioSession nioSession) {
+            this.pendingInterestUpdates.add(nioSession);
+            this.selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    this.selector.select();
+                    this.processRegistrations();
+                    this.processInterestUpdates();
+
+                    Iterator<SelectionKey> iterator = this.selector.selectedKeys().iterator();
+                    while (iterator.hasNext()) {
+                        SelectionKey selectionKey = iterator.next();
+                        iterator.remove();
+                        NioSession nioSession = (NioSession) selectionKey.attachment();
+
+                        if (selectionKey.isValid() && selectionKey.isReadable()) nioSession.readFromChannel(this.readBuffer);
+                        if (selectionKey.isValid() && selectionKey.isWritable()) nioSession.writeToChannel();
+                    }
+                }
+            } catch (IOException ex) {
+                System.out.println(NioGameServer.class.getSimpleName() + ": I/O thread failed: " + ex.getLocalizedMessage());
+            } finally {
+                for (SelectionKey selectionKey : this.selector.keys()) {
+                    ((NioSession) selectionKey.attachment()).closeNow();
+                }
+                try {
+                    this.selector.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        private void processRegistrations() {
+            SocketChannel socketChannel;
+            while ((socketChannel = this.pendingRegistrations.poll()) != null) {
+                NioSession nioSession = new NioSession(this, socketChannel);
+                try {
+                    nioSession.selectionKey = socketChannel.register(this.selector, SelectionKey.OP_READ, nioSession);
+                    numberOfSessions.incrementAndGet();
+                    protocolEngineFactory.createProtocolEngine().handleConnection(nioSession.inputStream, nioSession.outputStream);
+                } catch (IOException ex) {
+                    nioSession.closeNow();
+                }
+            }
+        }
+
+        private void processInterestUpdates() {
+            NioSession nioSession;
+            while ((nioSession = this.pendingInterestUpdates.poll()) != null) {
+                nioSession.updateInterestOps();
+            }
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                              sessions                                                  //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * A session belongs to exactly one I/O thread. Only this thread touches the
+     * channel and the selection key, all other threads (e.g. the thread of the
+     * protocol engine) ask the I/O thread to update the interest set.
+     */
+    private final class NioSession {
+        private final IoWorker ioWorker;
+        private final SocketChannel socketChannel;
+        private final SessionInputStream inputStream = new SessionInputStream(this);
+        private final SessionOutputStream outputStream = new SessionOutputStream(this);
+        private SelectionKey selectionKey;
+        private volatile boolean closeRequested = false;
+        private boolean closed = false;
+
+        NioSession(IoWorker ioWorker, SocketChannel socketChannel) {
+            this.ioWorker = ioWorker;
+            this.socketChannel = socketChannel;
+        }
+
+        void readFromChannel(ByteBuffer readBuffer) {
+            int numberOfBytes;
+            readBuffer.clear();
+            readBuffer.limit(Math.min(readBuffer.capacity(), this.inputStream.freeSpace()));
+            try {
+                numberOfBytes = this.socketChannel.read(readBuffer);
+            } catch (IOException ex) {
+                numberOfBytes = -1;
+            }
+
+            if (numberOfBytes < 0) {
+                this.closeNow();
+                return;
+            }
+
+            readBuffer.flip();
+            this.inputStream.append(readBuffer);
+            this.updateInterestOps();
+        }
+
+        void writeToChannel() {
+            try {
+                this.outputStream.writeTo(this.socketChannel);
+                this.updateInterestOps();
+            } catch (IOException ex) {
+                this.closeNow();
+            }
+        }
+
+        void requestInterestUpdate() {
+            this.ioWorker.requestInterestUpdate(this);
+        }
+
+        void requestClose() {
+            this.closeRequested = true;
+            this.ioWorker.requestInterestUpdate(this);
+        }
+
+        void updateInterestOps() {
+            if (this.closed) return;
+            if (this.closeRequested && this.outputStream.isEmpty()) {
+                this.closeNow();
+                return;
+            }
+
+            int interestOps = 0;
+            if (!this.closeRequested && this.inputStream.freeSpace() > 0) interestOps |= SelectionKey.OP_READ;
+            if (!this.outputStream.isEmpty()) interestOps |= SelectionKey.OP_WRITE;
+            this.selectionKey.interestOps(interestOps);
+        }
+
+        void closeNow() {
+            if (this.closed) return;
+            this.closed = true;
+            this.closeRequested = true;
+            if (this.selectionKey != null) {
+                this.selectionKey.cancel();
+                numberOfSessions.decrementAndGet();
+            }
+            try {
+                this.socketChannel.close();
+            } catch (IOException ignored) {
+            }
+            this.inputStream.endOfStream();
+            this.outputStream.endOfStream();
+        }
+    }
+
+    /**
+     * The InputStream of a session. The I/O thread appends the received bytes to
+     * a ring buffer and the protocol engine blocks until there is something to
+     * read. If the buffer is full, the I/O thread stops reading from the channel
+     * until the protocol engine has consumed enough data.
+     */
+    private static final class SessionInputStream extends InputStream {
+        private final NioSession nioSession;
+        private final byte[] buffer = new byte[MAX_BUFFERED_INPUT_PER_SESSION];
+        private int readPosition = 0;
+        private int size = 0;
+        private boolean endOfStream = false;
+
+        SessionInputStream(NioSession nioSession) {
+            this.nioSession = nioSession;
+        }
+
+        synchronized void append(ByteBuffer byteBuffer) {
+            while (byteBuffer.hasRemaining() && this.size < this.buffer.length) {
+                int writePosition = (this.readPosition + this.size) % this.buffer.length;
+                int length = Math.min(byteBuffer.remaining(), Math.min(this.buffer.length - this.size, this.buffer.length - writePosition));
+                byteBuffer.get(this.buffer, writePosition, length);
+                this.size += length;
+            }
+            this.notifyAll();
+        }
+
+        synchronized int freeSpace() {
+            return this.buffer.length - this.size;
+        }
+
+        synchronized void endOfStream() {
+            this.endOfStream = true;
+            this.notifyAll();
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] singleByte = new byte[1];
+            return this.read(singleByte, 0, 1) < 0 ? -1 : singleByte[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) return 0;
+            boolean wasFull;
+            int numberOfBytes;
+
+            synchronized (this) {
+                while (this.size == 0 && !this.endOfStream) {
+                    try {
+                        this.wait();
+                    } catch (InterruptedException ex) {
+                        throw new IOException("interrupted while waiting for data");
+                    }
+                }
+                if (this.size == 0) return -1;
+
+                wasFull = this.freeSpace() == 0;
+                numberOfBytes = Math.min(length, Math.min(this.size, this.buffer.length - this.readPosition));
+                System.arraycopy(this.buffer, this.readPosition, bytes, offset, numberOfBytes);
+                this.readPosition = (this.readPosition + numberOfBytes) % this.buffer.length;
+                this.size -= numberOfBytes;
+            }
+
+            if (wasFull) this.nioSession.requestInterestUpdate();
+            return numberOfBytes;
+        }
+
+        @Override
+        public synchronized int available() {
+            return this.size;
+        }
+
+        @Override
+        public void close() {
+            this.nioSession.requestClose();
+        }
+    }
+
+    /**
+     * The OutputStream of a session. The written bytes are copied into a ring
+     * buffer, which the I/O thread writes to the channel, so all writes since
+     * the last write to the channel go out together. If the buffer is full, the
+     * writer blocks until the I/O thread has written enough data.
+     */
+    private static final class SessionOutputStream extends OutputStream {
+        private final NioSession nioSession;
+        private final byte[] buffer = new byte[MAX_BUFFERED_OUTPUT_PER_SESSION];
+        private final ByteBuffer byteBuffer = ByteBuffer.wrap(this.buffer);
+        private int readPosition = 0;
+        private int size = 0;
+        private boolean endOfStream = false;
+
+        SessionOutputStream(NioSession nioSession) {
+            this.nioSession = nioSession;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            boolean wasEmpty;
+            synchronized (this) {
+                this.waitForFreeSpace();
+                wasEmpty = this.size == 0;
+                this.buffer[(this.readPosition + this.size) % this.buffer.length] = (byte) b;
+                this.size++;
+            }
+            if (wasEmpty) this.nioSession.requestInterestUpdate();
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                boolean wasEmpty;
+                synchronized (this) {
+                    this.waitForFreeSpace();
+                    wasEmpty = this.size == 0;
+                    int writePosition = (this.readPosition + this.size) % this.buffer.length;
+                    int numberOfBytes = Math.min(length, Math.min(this.buffer.length - this.size, this.buffer.length - writePosition));
+                    System.arraycopy(bytes, offset, this.buffer, writePosition, numberOfBytes);
+                    this.size += numberOfBytes;
+                    offset += numberOfBytes;
+                    length -= numberOfBytes;
+                }
+                // The I/O thread is only woken up for the first bytes, the others are written with them
+                if (wasEmpty) this.nioSession.requestInterestUpdate();
+            }
+        }
+
+        // must hold the lock of this stream
+        private void waitForFreeSpace() throws IOException {
+            while (this.size == this.buffer.length && !this.endOfStream && !this.nioSession.closeRequested) {
+                try {
+                    this.wait();
+                } catch (InterruptedException ex) {
+                    throw new IOException("interrupted while waiting for the channel");
+                }
+            }
+            if (this.endOfStream || this.nioSession.closeRequested) throw new IOException("session is closed");
+        }
+
+        /**
+         * Called by the I/O thread: writes as much of the buffer as the channel takes.
+         */
+        synchronized void writeTo(SocketChannel socketChannel) throws IOException {
+            boolean wasFull = this.size == this.buffer.length;
+            while (this.size > 0) {
+                int numberOfBytes = Math.min(this.size, this.buffer.length - this.readPosition);
+                this.byteBuffer.clear().position(this.readPosition).limit(this.readPosition + numberOfBytes);
+                int written = socketChannel.write(this.byteBuffer);
+                this.readPosition = (this.readPosition + written) % this.buffer.length;
+                this.size -= written;
+                if (written < numberOfBytes) break;
+            }
+            if (wasFull && this.size < this.buffer.length) this.notifyAll();
+        }
+
+        synchronized boolean isEmpty() {
+            return this.size == 0;
+        }
+
+        synchronized void endOfStream() {
+            this.endOfStream = true;
+            this.notifyAll();
+        }
+
+        @Override
+        public void close() {
+            this.nioSession.requestClose();
+        }
+    }
+}
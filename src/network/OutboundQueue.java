@@ -0,0 +1,267 @@
+package network;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * The OutboundQueue decouples the game logic from a slow peer. The serializers
+ * of the protocol engine write into this stream, every flush puts the written
+ * bytes as one message into a bounded queue and returns at once. One writer
+ * task per queue runs on the SessionExecutor for the whole session: it waits
+ * for messages and writes them to the transport, so a flush never starts a
+ * new thread.
+ * <p>
+ * The backpressure is explicit: if the queued bytes exceed the high watermark,
+ * the BackpressureListeners are told that the peer falls behind, and when the
+ * queue is drained below the low watermark, they are told that it has caught
+ * up. A message that does not fit into the queue any more is rejected with a
+ * QueueFullException instead of blocking the caller.
+ *
+ * @author friedrichvoelkers
+ */
+public final class OutboundQueue extends OutputStream {
+
+    public static final int DEFAULT_CAPACITY_IN_BYTES = 64 * 1024;
+
+    private final OutputStream outputStream;
+    private final int capacityInBytes;
+    private final int highWatermarkInBytes;
+    private final int lowWatermarkInBytes;
+    private final Queue<byte[]> messages = new ArrayDeque<>();
+    private final List<BackpressureListener> backpressureListenerList = new ArrayList<>();
+
+    // only used by the writing thread, which holds the lock of this stream
+    private byte[] buffer = new byte[256];
+    private int size = 0;
+
+    // guarded by messages
+    private int queuedBytes = 0;
+    private boolean writerStarted = false;
+    private boolean fallingBehind = false;
+    private boolean closed = false;
+    private IOException writeException;
+
+    // metrics, guarded by messages
+    private long numberOfMessages = 0;
+    private long numberOfRejectedMessages = 0;
+    private long numberOfTimesFallenBehind = 0;
+    private int maxQueuedBytes = 0;
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                           constructors                                                 //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public OutboundQueue(OutputStream outputStream, int capacityInBytes) {
+        if (capacityInBytes < 1) throw new IllegalArgumentException("the capacity must be positive");
+        this.outputStream = outputStream;
+        this.capacityInBytes = capacityInBytes;
+        this.highWatermarkInBytes = capacityInBytes * 3 / 4;
+        this.lowWatermarkInBytes = capacityInBytes / 4;
+    }
+
+    public OutboundQueue(OutputStream outputStream) {
+        this(outputStream, DEFAULT_CAPACITY_IN_BYTES);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                          stream methods                                                //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public synchronized void write(int b) {
+        this.ensureCapacity(1);
+        this.buffer[this.size++] = (byte) b;
+    }
+
+    @Override
+    public synchronized void write(byte[] bytes, int offset, int length) {
+        this.ensureCapacity(length);
+        System.arraycopy(bytes, offset, this.buffer, this.size, length);
+        this.size += length;
+    }
+
+    /**
+     * Puts the bytes written since the last flush as one message into the queue.
+     *
+     * @throws QueueFullException Throws an error if the peer has fallen so far
+     *                            behind that the message does not fit into the
+     *                            queue. The message is dropped.
+     * @throws IOException        Throws an error if the queue is closed or a
+     *                            previous write to the transport failed.
+     */
+    @Override
+    public synchronized void flush() throws IOException {
+        if (this.size == 0) return;
+        byte[] message = Arrays.copyOf(this.buffer, this.size);
+        this.size = 0;
+
+        boolean startWriter;
+        boolean notifyFallingBehind = false;
+        synchronized (this.messages) {
+            if (this.writeException != null) throw this.writeException;
+            if (this.closed) throw new IOException("the outbound queue is closed");
+            if (this.queuedBytes + message.length > this.capacityInBytes) {
+                this.numberOfRejectedMessages++;
+                throw new QueueFullException(this.queuedBytes, this.capacityInBytes);
+            }
+
+            this.messages.add(message);
+            this.queuedBytes += message.length;
+            this.numberOfMessages++;
+            this.maxQueuedBytes = Math.max(this.maxQueuedBytes, this.queuedBytes);
+
+            if (!this.fallingBehind && this.queuedBytes >= this.highWatermarkInBytes) {
+                this.fallingBehind = true;
+                this.numberOfTimesFallenBehind++;
+                notifyFallingBehind = true;
+            }
+
+            startWriter = !this.writerStarted;
+            this.writerStarted = true;
+            this.messages.notifyAll();
+        }
+
+        if (notifyFallingBehind) {
+            for (BackpressureListener backpressureListener : this.backpressureListenerList)
+                backpressureListener.peerFallingBehind(this);
+        }
+        if (startWriter) SessionExecutor.execute(this::writeMessages);
+    }
+
+    /**
+     * Closes the queue. Messages that are already queued are still written,
+     * afterwards the transport is closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            this.flush();
+        } catch (IOException ignored) {
+            // The last message is lost anyway, the transport is closed below
+        }
+        boolean closeNow;
+        synchronized (this.messages) {
+            if (this.closed) return;
+            this.closed = true;
+            closeNow = !this.writerStarted;
+            this.messages.notifyAll();
+        }
+        if (closeNow) this.outputStream.close();
+    }
+
+    private void ensureCapacity(int length) {
+        if (this.size + length > this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length * 2, this.size + length));
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                            writer task                                                 //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Writes the queued messages until the queue is closed and empty.
+     */
+    private void writeMessages() {
+        while (true) {
+            byte[] message;
+            synchronized (this.messages) {
+                try {
+                    while (this.messages.isEmpty() && !this.closed) this.messages.wait();
+                } catch (InterruptedException ex) {
+                    this.closed = true;
+                }
+                message = this.messages.peek();
+            }
+
+            if (message == null) {
+                this.closeTransportQuietly();
+                return;
+            }
+
+            try {
+                this.outputStream.write(message);
+                this.outputStream.flush();
+            } catch (IOException ex) {
+                synchronized (this.messages) {
+                    this.writeException = ex;
+                    this.messages.clear();
+                    this.queuedBytes = 0;
+                }
+                this.closeTransportQuietly();
+                return;
+            }
+
+            boolean notifyCaughtUp = false;
+            synchronized (this.messages) {
+                this.messages.poll();
+                this.queuedBytes -= message.length;
+                if (this.fallingBehind && this.queuedBytes <= this.lowWatermarkInBytes) {
+                    this.fallingBehind = false;
+                    notifyCaughtUp = true;
+                }
+            }
+            if (notifyCaughtUp) {
+                for (BackpressureListener backpressureListener : this.backpressureListenerList)
+                    backpressureListener.peerCaughtUp(this);
+            }
+        }
+    }
+
+    private void closeTransportQuietly() {
+        try {
+            this.outputStream.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                         Getter and Setter                                              //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public void subscribeBackpressureListener(BackpressureListener backpressureListener) {
+        this.backpressureListenerList.add(backpressureListener);
+    }
+
+    public int getQueuedBytes() {
+        synchronized (this.messages) {
+            return this.queuedBytes;
+        }
+    }
+
+    public boolean isFallingBehind() {
+        synchronized (this.messages) {
+            return this.fallingBehind;
+        }
+    }
+
+    public String getMetrics() {
+        synchronized (this.messages) {
+            return String.format("%s: messages: %d, queued: %d bytes, max queued: %d of %d bytes, fallen behind: %d times, rejected: %d",
+                    this.getClass().getSimpleName(), this.numberOfMessages, this.queuedBytes, this.maxQueuedBytes,
+                    this.capacityInBytes, this.numberOfTimesFallenBehind, this.numberOfRejectedMessages);
+        }
+    }
+
+    public long getNumberOfRejectedMessages() {
+        synchronized (this.messages) {
+            return this.numberOfRejectedMessages;
+        }
+    }
+
+    /**
+     * Signals that a message was rejected, because the peer does not read fast enough.
+     */
+    public static final class QueueFullException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public QueueFullException(int queuedBytes, int capacityInBytes) {
+            super("The enemy falls behind: " + queuedBytes + " of " + capacityInBytes + " bytes are not sent yet.");
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package network;
+
+/**
+ * A ProtocolEngineFactory creates a new protocol engine for every
+ * session that is accepted by a server that hosts more than one game,
+ * e.g. the NioGameServer.
+ *
+ * @author friedrichvoelkers
+ */
+public interface ProtocolEngineFactory {
+    ProtocolEngine createProtocolEngine();
+}
@@ -0,0 +1,402 @@
+package network;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A ResumableConnection keeps a game session alive when the underlying
+ * connection is dropped. The protocol engine reads from and writes to the
+ * streams of this class, which in turn use the streams of the current
+ * transport connection.
+ * <p>
+ * Every flush of the OutputStream becomes a frame with a sequence number:
+ * [sequence number][length][bytes]. Both sides keep a bounded replay buffer of
+ * the frames they have sent. If the transport fails, the InputStream does not
+ * fail but waits until the connection is resumed with a new transport
+ * connection (or until the resume timeout is over). While resuming, both sides
+ * exchange the session id and the sequence number of the last frame they have
+ * received and then replay only the frames the other side has missed.
+ * <p>
+ * The frames of the replay buffer are recycled, so neither sending nor
+ * receiving allocates a new array once the buffers have grown to the
+ * largest frame. Like the FrameReader, a frame longer than
+ * {@link FrameReader#MAX_FRAME_LENGTH} is refused.
+ *
+ * @author friedrichvoelkers
+ */
+public final class ResumableConnection {
+
+    public static final int DEFAULT_REPLAY_BUFFER_SIZE = 1024;
+    public static final long DEFAULT_RESUME_TIMEOUT_IN_MILLIS = 60_000;
+
+    private final int replayBufferSize;
+    private final long resumeTimeoutInMillis;
+    private final Object connectionLock = new Object();
+    private final Object outputLock = new Object();
+    private final Deque<Frame> replayBuffer = new ArrayDeque<>();
+    private final Deque<Frame> freeFrames = new ArrayDeque<>();
+    private final List<ConnectionLostListener> connectionLostListenerList = new ArrayList<>();
+    private final ResumableInputStream inputStream = new ResumableInputStream();
+    private final ResumableOutputStream outputStream = new ResumableOutputStream();
+    private final long sessionId;
+
+    // guarded by connectionLock
+    private DataInputStream transportInputStream;
+    private DataOutputStream transportOutputStream;
+    private int generation = 0;
+    private boolean connected = false;
+    private boolean closed = false;
+    private long connectionLostAtInMillis;
+
+    // guarded by outputLock
+    private int lastSentSequenceNumber = 0;
+
+    // only used by the reading thread and while resuming
+    private volatile int lastReceivedSequenceNumber = 0;
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                           constructors                                                 //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Creates a new session on top of the given transport streams. Both sides
+     * exchange a random number and derive the same session id from it, so this
+     * constructor blocks until the other side has created its connection as well.
+     */
+    public ResumableConnection(InputStream inputStream, OutputStream outputStream, int replayBufferSize, long resumeTimeoutInMillis) throws IOException {
+        if (replayBufferSize < 1) throw new IllegalArgumentException("the replay buffer needs at least one frame");
+        this.replayBufferSize = replayBufferSize;
+        this.resumeTimeoutInMillis = resumeTimeoutInMillis;
+
+        DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+        DataInputStream dataInputStream = new DataInputStream(inputStream);
+        long yourRandom = ThreadLocalRandom.current().nextLong();
+        dataOutputStream.writeLong(yourRandom);
+        dataOutputStream.flush();
+        this.sessionId = yourRandom ^ dataInputStream.readLong();
+
+        this.attach(dataInputStream, dataOutputStream);
+    }
+
+    public ResumableConnection(InputStream inputStream, OutputStream outputStream) throws IOException {
+        this(inputStream, outputStream, DEFAULT_REPLAY_BUFFER_SIZE, DEFAULT_RESUME_TIMEOUT_IN_MILLIS);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                          logic methods                                                 //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Resumes the session with a new transport connection. Both sides send the
+     * session id and the last received sequence number and replay the frames
+     * the other side has missed.
+     *
+     * @throws IOException Throws an error if the other side belongs to another
+     *                     session or if it missed more frames than the replay
+     *                     buffer holds.
+     */
+    public void resume(InputStream inputStream, OutputStream outputStream) throws IOException {
+        synchronized (this.outputLock) {
+            synchronized (this.connectionLock) {
+                if (this.closed) throw new IOException("the session is closed");
+                if (this.connected) this.detach();
+            }
+
+            DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+            DataInputStream dataInputStream = new DataInputStream(inputStream);
+            dataOutputStream.writeLong(this.sessionId);
+            dataOutputStream.writeInt(this.lastReceivedSequenceNumber);
+            dataOutputStream.flush();
+
+            if (dataInputStream.readLong() != this.sessionId) throw new IOException("the other side belongs to another session");
+            int enemiesLastReceivedSequenceNumber = dataInputStream.readInt();
+
+            if (enemiesLastReceivedSequenceNumber < this.lastSentSequenceNumber) {
+                Frame oldestFrame = this.replayBuffer.peekFirst();
+                if (oldestFrame == null || oldestFrame.sequenceNumber > enemiesLastReceivedSequenceNumber + 1)
+                    throw new IOException("the other side missed more frames than the replay buffer holds");
+
+                for (Frame frame : this.replayBuffer) {
+                    if (frame.sequenceNumber > enemiesLastReceivedSequenceNumber) frame.writeTo(dataOutputStream);
+                }
+                dataOutputStream.flush();
+            }
+
+            this.attach(dataInputStream, dataOutputStream);
+        }
+    }
+
+    public void close() {
+        synchronized (this.connectionLock) {
+            if (this.closed) return;
+            this.closed = true;
+            if (this.connected) this.detach();
+            this.connectionLock.notifyAll();
+        }
+    }
+
+    private void attach(DataInputStream dataInputStream, DataOutputStream dataOutputStream) {
+        synchronized (this.connectionLock) {
+            this.transportInputStream = dataInputStream;
+            this.transportOutputStream = dataOutputStream;
+            this.generation++;
+            this.connected = true;
+            this.connectionLock.notifyAll();
+        }
+    }
+
+    // must hold connectionLock
+    private void detach() {
+        this.connected = false;
+        this.connectionLostAtInMillis = System.currentTimeMillis();
+        try {
+            this.transportOutputStream.close();
+        } catch (IOException ignored) {
+        }
+        try {
+            this.transportInputStream.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void connectionLost(int generation) {
+        synchronized (this.connectionLock) {
+            if (this.closed || !this.connected || this.generation != generation) return;
+            this.detach();
+        }
+
+        for (ConnectionLostListener connectionLostListener : this.connectionLostListenerList) {
+            SessionExecutor.execute(() -> connectionLostListener.connectionLost(this));
+        }
+    }
+
+    private void writeFrame(byte[] bytes, int length) throws IOException {
+        if (length > FrameReader.MAX_FRAME_LENGTH) throw new IOException("invalid frame length: " + length);
+        synchronized (this.outputLock) {
+            Frame frame = this.freeFrames.isEmpty() ? new Frame() : this.freeFrames.removeFirst();
+            frame.set(++this.lastSentSequenceNumber, bytes, length);
+            this.replayBuffer.addLast(frame);
+            if (this.replayBuffer.size() > this.replayBufferSize) this.freeFrames.addLast(this.replayBuffer.removeFirst());
+
+            DataOutputStream dataOutputStream;
+            int generation;
+            synchronized (this.connectionLock) {
+                if (this.closed) throw new IOException("the session is closed");
+                // Without a connection the frame stays in the replay buffer and is sent when resuming
+                if (!this.connected) return;
+                dataOutputStream = this.transportOutputStream;
+                generation = this.generation;
+            }
+
+            try {
+                frame.writeTo(dataOutputStream);
+                dataOutputStream.flush();
+            } catch (IOException ex) {
+                this.connectionLost(generation);
+            }
+        }
+    }
+
+    /**
+     * Blocks until the next frame is read into the buffer of the input stream.
+     *
+     * @return The length of the frame or -1 if the session is closed.
+     */
+    private int readFrame() throws IOException {
+        while (true) {
+            DataInputStream dataInputStream;
+            int generation;
+            synchronized (this.connectionLock) {
+                while (!this.connected && !this.closed) {
+                    long remaining = this.connectionLostAtInMillis + this.resumeTimeoutInMillis - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        this.closed = true;
+                        throw new IOException("the connection was lost and not resumed in time");
+                    }
+                    try {
+                        this.connectionLock.wait(remaining);
+                    } catch (InterruptedException ex) {
+                        throw new IOException("interrupted while waiting for the connection to resume", ex);
+                    }
+                }
+                if (this.closed) return -1;
+                dataInputStream = this.transportInputStream;
+                generation = this.generation;
+            }
+
+            int sequenceNumber;
+            int length;
+            try {
+                sequenceNumber = dataInputStream.readInt();
+                length = dataInputStream.readInt();
+            } catch (IOException ex) {
+                this.connectionLost(generation);
+                continue;
+            }
+
+            // A broken length is not a lost connection, resuming would not help
+            if (length < 0 || length > FrameReader.MAX_FRAME_LENGTH) {
+                this.close();
+                throw new IOException("invalid frame length: " + length);
+            }
+
+            try {
+                dataInputStream.readFully(this.inputStream.bufferFor(length), 0, length);
+            } catch (IOException ex) {
+                this.connectionLost(generation);
+                continue;
+            }
+
+            // Frames that were received before the connection was lost could be replayed again
+            if (sequenceNumber <= this.lastReceivedSequenceNumber) continue;
+            this.lastReceivedSequenceNumber = sequenceNumber;
+            return length;
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                         Getter and Setter                                              //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public InputStream getInputStream() {
+        return this.inputStream;
+    }
+
+    public OutputStream getOutputStream() {
+        return this.outputStream;
+    }
+
+    public boolean isConnected() {
+        synchronized (this.connectionLock) {
+            return this.connected;
+        }
+    }
+
+    public void subscribeConnectionLostListener(ConnectionLostListener connectionLostListener) {
+        this.connectionLostListenerList.add(connectionLostListener);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                         frames and streams                                             //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * A sent frame of the replay buffer. It keeps its own copy of the bytes and
+     * is reused for a later frame once it has dropped out of the replay buffer.
+     */
+    private static final class Frame {
+        private int sequenceNumber;
+        private byte[] bytes = new byte[0];
+        private int length;
+
+        void set(int sequenceNumber, byte[] bytes, int length) {
+            this.sequenceNumber = sequenceNumber;
+            if (length > this.bytes.length) this.bytes = new byte[length];
+            System.arraycopy(bytes, 0, this.bytes, 0, length);
+            this.length = length;
+        }
+
+        void writeTo(DataOutputStream dataOutputStream) throws IOException {
+            dataOutputStream.writeInt(this.sequenceNumber);
+            dataOutputStream.writeInt(this.length);
+            dataOutputStream.write(this.bytes, 0, this.length);
+        }
+    }
+
+    private final class ResumableInputStream extends InputStream {
+        private byte[] buffer = new byte[256];
+        private int length;
+        private int position;
+
+        @Override
+        public synchronized int read() throws IOException {
+            if (!this.nextFrameIfNeeded()) return -1;
+            return this.buffer[this.position++] & 0xFF;
+        }
+
+        @Override
+        public synchronized int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) return 0;
+            if (!this.nextFrameIfNeeded()) return -1;
+            int numberOfBytes = Math.min(length, this.length - this.position);
+            System.arraycopy(this.buffer, this.position, bytes, offset, numberOfBytes);
+            this.position += numberOfBytes;
+            return numberOfBytes;
+        }
+
+        private boolean nextFrameIfNeeded() throws IOException {
+            while (this.position == this.length) {
+                this.length = readFrame();
+                this.position = 0;
+                if (this.length < 0) {
+                    this.length = 0;
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // only called by readFrame while the reading thread holds the lock of this stream
+        private byte[] bufferFor(int length) {
+            if (length > this.buffer.length) this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length * 2, length));
+            return this.buffer;
+        }
+
+        @Override
+        public void close() {
+            ResumableConnection.this.close();
+        }
+    }
+
+    /**
+     * Collects the written bytes until the next flush, which sends them as one frame.
+     */
+    private final class ResumableOutputStream extends OutputStream {
+        private byte[] buffer = new byte[256];
+        private int size = 0;
+
+        @Override
+        public synchronized void write(int b) {
+            this.ensureCapacity(1);
+            this.buffer[this.size++] = (byte) b;
+        }
+
+        @Override
+        public synchronized void write(byte[] bytes, int offset, int length) {
+            this.ensureCapacity(length);
+            System.arraycopy(bytes, offset, this.buffer, this.size, length);
+            this.size += length;
+        }
+
+        @Override
+        public synchronized void flush() throws IOException {
+            if (this.size == 0) return;
+            int length = this.size;
+            this.size = 0;
+            writeFrame(this.buffer, length);
+        }
+
+        private void ensureCapacity(int length) {
+            if (this.size + length > this.buffer.length) {
+                byte[] newBuffer = new byte[Math.max(this.buffer.length * 2, this.size + length)];
+                System.arraycopy(this.buffer, 0, newBuffer, 0, this.size);
+                this.buffer = newBuffer;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.flush();
+            ResumableConnection.this.close();
+        }
+    }
+}
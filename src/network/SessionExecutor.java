@@ -0,0 +1,99 @@
+package network;
+
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * The SessionExecutor runs all tasks that belong to a session: the blocking
+ * read loop of the protocol engines, the connection setup of the TCPStream
+ * and the notification of the listeners. All of these tasks spend most of
+ * their time blocked, so with virtual threads a single process can hold tens
+ * of thousands of them.
+ * <p>
+ * The execution mode is read from the system property "battleship.executionMode"
+ * ("platform" or "virtual") when the class is loaded and can be changed at
+ * startup with setExecutionMode. Any other ExecutorService can be plugged in
+ * with setExecutorService; its owner stays responsible for shutting it down.
+ * The executors created by this class are shut down when they are replaced,
+ * the tasks that are already running keep running.
+ *
+ * @author friedrichvoelkers
+ */
+public final class SessionExecutor {
+
+    public static final String EXECUTION_MODE_PROPERTY = "battleship.executionMode";
+
+    private static final String THREAD_NAME_PREFIX = "battleship-session-";
+
+    private static volatile ExecutionMode executionMode = readExecutionModeProperty();
+    private static volatile ExecutorService executorService = createExecutorService(executionMode);
+    private static boolean ownsExecutorService = true;
+
+    private SessionExecutor() {
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                          logic methods                                                 //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    public static void execute(Runnable task) {
+        ExecutorService currentExecutorService = executorService;
+        try {
+            currentExecutorService.execute(task);
+        } catch (RejectedExecutionException ex) {
+            // The executor was replaced and shut down in the meantime
+            if (executorService == currentExecutorService) throw ex;
+            executorService.execute(task);
+        }
+    }
+
+    public static ExecutorService createExecutorService(ExecutionMode executionMode) {
+        return switch (executionMode) {
+            case PLATFORM -> Executors.newThreadPerTaskExecutor(Thread.ofPlatform().name(THREAD_NAME_PREFIX, 0).factory());
+            case VIRTUAL -> Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(THREAD_NAME_PREFIX, 0).factory());
+        };
+    }
+
+    private static ExecutionMode readExecutionModeProperty() {
+        String property = System.getProperty(EXECUTION_MODE_PROPERTY, ExecutionMode.PLATFORM.name());
+        try {
+            return ExecutionMode.valueOf(property.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            System.out.println(SessionExecutor.class.getSimpleName() + ": Unknown execution mode " + property + ", use " + ExecutionMode.PLATFORM);
+            return ExecutionMode.PLATFORM;
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                         Getter and Setter                                              //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @return the execution mode or null if an ExecutorService was plugged in with setExecutorService
+     */
+    public static ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public static synchronized void setExecutionMode(ExecutionMode executionMode) {
+        if (SessionExecutor.executionMode == executionMode) return;
+        replaceExecutorService(createExecutorService(executionMode), true);
+        SessionExecutor.executionMode = executionMode;
+    }
+
+    public static synchronized void setExecutorService(ExecutorService executorService) {
+        replaceExecutorService(executorService, false);
+        SessionExecutor.executionMode = null;
+    }
+
+    // must hold the lock of this class
+    private static void replaceExecutorService(ExecutorService executorService, boolean ownsExecutorService) {
+        ExecutorService replacedExecutorService = SessionExecutor.executorService;
+        boolean ownsReplacedExecutorService = SessionExecutor.ownsExecutorService;
+        SessionExecutor.executorService = executorService;
+        SessionExecutor.ownsExecutorService = ownsExecutorService;
+        if (ownsReplacedExecutorService && replacedExecutorService != executorService) replacedExecutorService.shutdown();
+    }
+}
@@ -0,0 +1,19 @@
+package network;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A StreamConnection is an established connection of a transport. Its
+ * streams are handed to a protocol engine.
+ *
+ * @author friedrichvoelkers
+ */
+public interface StreamConnection extends Closeable {
+
+    InputStream getInputStream() throws IOException;
+
+    OutputStream getOutputStream() throws IOException;
+}
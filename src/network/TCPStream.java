@@ -1,12 +1,19 @@
 package network;
 
-import battleship.Battleship;
-
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * This class is from @author thsc. A link to his repository
@@ -15,40 +22,60 @@ import java.net.Socket;
  *
  * @author thsc
  */
-public class TCPStream extends Thread {
+public class TCPStream implements Runnable, StreamConnection {
+    private static final ConnectMetrics connectMetrics = new ConnectMetrics();
+
     private final int port;
     private final boolean asServer;
     private final String name;
+    private final ConnectPolicy connectPolicy;
     private TCPStreamCreatedListener listener;
-    private Socket socket = null;
-    private boolean fatalError = false;
+    private volatile Socket socket = null;
+    private volatile boolean fatalError = false;
+    private volatile boolean started = false;
+    private volatile int numberOfConnectAttempts = 0;
+    private volatile long timeToConnectInNanos = -1;
+
+    // Completes as soon as the socket is accepted or connected and fails on a fatal error
+    private final CompletableFuture<TCPStream> connection = new CompletableFuture<>();
 
-    public final int WAIT_LOOP_IN_MILLIS = 1000; // 30 sec
-    private Thread createThread = null;
-    private final long waitInMillis = WAIT_LOOP_IN_MILLIS;
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
     //                                           constructors                                                 //
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
-    public TCPStream(int port, boolean asServer, String name, TCPStreamCreatedListener listener) {
+    public TCPStream(int port, boolean asServer, String name, ConnectPolicy connectPolicy, TCPStreamCreatedListener listener) {
         this.port = port;
         this.asServer = asServer;
         this.name = name;
+        this.connectPolicy = connectPolicy;
         this.listener = listener;
     }
 
+    public TCPStream(int port, boolean asServer, String name, TCPStreamCreatedListener listener) {
+        this(port, asServer, name, ConnectPolicy.DEFAULT, listener);
+    }
+
+    public TCPStream(int port, boolean asServer, String name, ConnectPolicy connectPolicy) {
+        this(port, asServer, name, connectPolicy, null);
+    }
+
     public TCPStream(int port, boolean asServer, String name) {
-        this(port, asServer, name, null);
+        this(port, asServer, name, ConnectPolicy.DEFAULT, null);
     }
 
     public void setStreamCreationListener(TCPStreamCreatedListener listener) {
         this.listener = listener;
     }
 
+    public void start() {
+        this.started = true;
+        SessionExecutor.execute(this);
+    }
+
     @Override
     public void run() {
-        this.createThread = Thread.currentThread();
+        this.started = true;
 
         try {
             if(this.asServer) {
@@ -59,44 +86,75 @@ public class TCPStream extends Thread {
                 TCPClient tcpClient = new TCPClient();
                 this.socket = tcpClient.getSocket();
             }
-
-            if(this.listener != null) {
-                this.listener.streamCreated(this);
-            }
         } catch (IOException ex) {
             System.out.println("No connection could be established.");
             this.fatalError = true;
+            this.connection.completeExceptionally(ex);
+            return;
         }
-    }
 
-    public void waitForConnection() throws IOException {
-        if(this.createThread == null) {
-            /* in unit tests there is a race condition between the test
-            thread and those newly created tests to establish a connection.
+        this.connection.complete(this);
+        if(this.listener != null) {
+            this.listener.streamCreated(this);
+        }
+    }
 
-            Thus, this call could be in the right order - give it a
-            second chance
-            */
+    /**
+     * The returned future completes the moment the socket is accepted or
+     * connected and completes exceptionally if no connection could be
+     * established.
+     */
+    public CompletableFuture<TCPStream> getConnectionFuture() {
+        return this.connection;
+    }
 
-            try {
-                Thread.sleep(this.waitInMillis);
-            } catch (InterruptedException ignored) {
-            }
+    public void waitForConnection() throws IOException {
+        this.checkStarted();
+        try {
+            this.connection.get();
+        } catch (ExecutionException ex) {
+            throw new IOException("no connection could be established", ex.getCause());
+        } catch (InterruptedException ex) {
+            throw new IOException("interrupted while waiting for a connection", ex);
+        }
+    }
 
-            if(this.createThread == null) {
-                // that's probably wrong usage:
-                throw new IOException("must start TCPStream thread first by calling start()");
-            }
+    public void waitForConnection(long timeout, TimeUnit timeUnit) throws IOException {
+        this.checkStarted();
+        try {
+            this.connection.get(timeout, timeUnit);
+        } catch (ExecutionException ex) {
+            throw new IOException("no connection could be established", ex.getCause());
+        } catch (InterruptedException ex) {
+            throw new IOException("interrupted while waiting for a connection", ex);
+        } catch (TimeoutException ex) {
+            throw new IOException("no connection within " + timeout + " " + timeUnit.toString().toLowerCase());
         }
+    }
 
-        while(!this.fatalError && this.socket == null) {
-            try {
-                Thread.sleep(this.waitInMillis);
-            } catch (InterruptedException ignored) {
-            }
+    private void checkStarted() throws IOException {
+        if(!this.started) {
+            // that's probably wrong usage:
+            throw new IOException("must start TCPStream first by calling start()");
         }
     }
 
+    public boolean hasFatalError() {
+        return this.fatalError;
+    }
+
+    public int getNumberOfConnectAttempts() {
+        return this.numberOfConnectAttempts;
+    }
+
+    public double getTimeToConnectInMillis() {
+        return this.timeToConnectInNanos < 0 ? -1 : this.timeToConnectInNanos / 1e6;
+    }
+
+    public static ConnectMetrics getConnectMetrics() {
+        return connectMetrics;
+    }
+
     public void checkConnected() throws IOException {
         if(this.socket == null) {
             //<<<<<<<<<<<<<<<<<<debug
@@ -117,6 +175,11 @@ public class TCPStream extends Thread {
         return this.socket.getOutputStream();
     }
 
+    @Override
+    public void close() throws IOException {
+        if(this.socket != null) this.socket.close();
+    }
+
     private class TCPServer {
         private ServerSocket srvSocket = null;
 
@@ -137,7 +200,13 @@ public class TCPStream extends Thread {
             System.out.println(stringBuilder);
             //>>>>>>>>>>>>>>>>>>>debug
 
-            Socket socket = this.srvSocket.accept();
+            Socket socket;
+            try {
+                socket = this.srvSocket.accept();
+            } finally {
+                // the server accepts only one connection, so the port is released right away
+                this.srvSocket.close();
+            }
             //<<<<<<<<<<<<<<<<<<debug
             stringBuilder = new StringBuilder();
             stringBuilder.append(this.getClass().getSimpleName());
@@ -153,30 +222,70 @@ public class TCPStream extends Thread {
 
     }
 
+    /**
+     * The client connects with a non-blocking SocketChannel, so every attempt is
+     * bounded by the connect timeout of the ConnectPolicy. Failed attempts are
+     * retried with a jittered exponential backoff. As soon as the connection is
+     * established, the channel is switched back to blocking mode, because the
+     * protocol engines work with blocking streams.
+     */
     private class TCPClient {
 
         Socket getSocket() throws IOException {
-            boolean killed = false;
-            int numberOfTrials = 0;
-            int maxNumberOfTrials = 10;
-            while(!killed) {
+            long start = System.nanoTime();
+            InetSocketAddress address = new InetSocketAddress(connectPolicy.getHost(), port);
+            IOException lastException = null;
+
+            for (int attempt = 1; attempt <= connectPolicy.getMaxNumberOfAttempts(); attempt++) {
+                numberOfConnectAttempts = attempt;
+                connectMetrics.recordAttempt();
                 try {
+                    Socket socket = this.connect(address);
+                    timeToConnectInNanos = System.nanoTime() - start;
+                    connectMetrics.recordConnect(timeToConnectInNanos);
                     //<<<<<<<<<<<<<<<<<<debug
-                    System.out.println(this.getClass().getSimpleName() + " (" + name + "): Try to connect to localhost on port " + port);
+                    System.out.println(this.getClass().getSimpleName() + " (" + name + "): connected to " +
+                            connectPolicy.getHost() + " on port " + port + " after " + attempt + " attempt(s)");
                     //>>>>>>>>>>>>>>>>>>>debug
-                    return new Socket(Battleship.LOCALHOST, port);
-                }
-                catch(IOException ioe) {
-                    //<<<<<<<<<<<<<<<<<<debug
-                    numberOfTrials++;
-                    System.out.println(this.getClass().getSimpleName() + " (" + name + "): Try (" + numberOfTrials + "/" + maxNumberOfTrials + ") failed. Try again.");
-                    if (numberOfTrials == maxNumberOfTrials) killed = true;
+                    return socket;
+                } catch (IOException ex) {
+                    lastException = ex;
+                    if (attempt == connectPolicy.getMaxNumberOfAttempts()) break;
                     try {
-                        Thread.sleep(waitInMillis);
-                    } catch (InterruptedException ignored) {}
+                        Thread.sleep(connectPolicy.backoffInMillis(attempt));
+                    } catch (InterruptedException ignored) {
+                        break;
+                    }
+                }
+            }
+
+            connectMetrics.recordFailure();
+            //<<<<<<<<<<<<<<<<<<debug
+            System.out.println(this.getClass().getSimpleName() + " (" + name + "): could not connect to " +
+                    connectPolicy.getHost() + " on port " + port + " after " + numberOfConnectAttempts + " attempt(s)");
+            //>>>>>>>>>>>>>>>>>>>debug
+            throw new IOException("no connection after " + numberOfConnectAttempts + " attempts", lastException);
+        }
+
+        private Socket connect(InetSocketAddress address) throws IOException {
+            SocketChannel socketChannel = SocketChannel.open();
+            try {
+                socketChannel.configureBlocking(false);
+                if (!socketChannel.connect(address)) {
+                    try (Selector selector = Selector.open()) {
+                        socketChannel.register(selector, SelectionKey.OP_CONNECT);
+                        if (selector.select(connectPolicy.getConnectTimeoutInMillis()) == 0)
+                            throw new SocketTimeoutException("connect timed out");
+                        socketChannel.finishConnect();
+                    }
                 }
+                // The selector is closed, so the channel is no longer registered and may block again
+                socketChannel.configureBlocking(true);
+                return socketChannel.socket();
+            } catch (IOException ex) {
+                socketChannel.close();
+                throw ex;
             }
-            throw new IOException("thread was killed before establishing a connection");
         }
     }
 }
@@ -0,0 +1,31 @@
+package network;
+
+import java.io.IOException;
+
+/**
+ * The TCPTransport establishes the connection with a TCPStream.
+ *
+ * @author friedrichvoelkers
+ */
+public final class TCPTransport implements Transport {
+
+    private final int port;
+    private final ConnectPolicy connectPolicy;
+
+    public TCPTransport(int port, ConnectPolicy connectPolicy) {
+        this.port = port;
+        this.connectPolicy = connectPolicy;
+    }
+
+    public TCPTransport(int port) {
+        this(port, ConnectPolicy.DEFAULT);
+    }
+
+    @Override
+    public StreamConnection connect(boolean asServer, String name) throws IOException {
+        TCPStream tcpStream = new TCPStream(this.port, asServer, name, this.connectPolicy);
+        tcpStream.start();
+        tcpStream.waitForConnection();
+        return tcpStream;
+    }
+}
@@ -0,0 +1,28 @@
+package network;
+
+import java.io.IOException;
+
+/**
+ * A Transport establishes a connection between two players. The protocol
+ * engines only need an InputStream and an OutputStream, so the game does not
+ * depend on TCP: co-located bots and test harnesses can use Unix domain
+ * sockets or an in-process pipe instead and skip the TCP stack.
+ * <p>
+ * Implementations: TCPTransport, UnixDomainSocketTransport, InProcessPipeTransport.
+ *
+ * @author friedrichvoelkers
+ */
+public interface Transport {
+
+    /**
+     * Establishes the connection. This method blocks until the connection is
+     * established or failed.
+     *
+     * @param asServer Whether this side waits for the other side (create) or
+     *                 connects to it (join).
+     * @param name     The name of the player, used for debug output.
+     * @return The established connection.
+     * @throws IOException Throws an error if no connection could be established.
+     */
+    StreamConnection connect(boolean asServer, String name) throws IOException;
+}
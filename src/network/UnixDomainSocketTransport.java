@@ -0,0 +1,93 @@
+package network;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The UnixDomainSocketTransport connects two players on the same host with a
+ * Unix domain socket. The server side binds the socket file, accepts exactly
+ * one connection and removes the file again. The client side retries like the
+ * TCPStream client until the server has bound the socket file.
+ *
+ * @author friedrichvoelkers
+ */
+public final class UnixDomainSocketTransport implements Transport {
+
+    private final Path socketPath;
+    private final ConnectPolicy connectPolicy;
+
+    public UnixDomainSocketTransport(Path socketPath, ConnectPolicy connectPolicy) {
+        this.socketPath = socketPath;
+        this.connectPolicy = connectPolicy;
+    }
+
+    public UnixDomainSocketTransport(Path socketPath) {
+        this(socketPath, ConnectPolicy.DEFAULT);
+    }
+
+    @Override
+    public StreamConnection connect(boolean asServer, String name) throws IOException {
+        UnixDomainSocketAddress address = UnixDomainSocketAddress.of(this.socketPath);
+        if (asServer) return this.accept(address);
+
+        IOException lastException = null;
+        for (int attempt = 1; attempt <= this.connectPolicy.getMaxNumberOfAttempts(); attempt++) {
+            try {
+                return new ChannelConnection(SocketChannel.open(address));
+            } catch (IOException ex) {
+                lastException = ex;
+                try {
+                    Thread.sleep(this.connectPolicy.backoffInMillis(attempt));
+                } catch (InterruptedException ignored) {
+                    break;
+                }
+            }
+        }
+        throw new IOException("no connection to " + this.socketPath, lastException);
+    }
+
+    private StreamConnection accept(UnixDomainSocketAddress address) throws IOException {
+        Files.deleteIfExists(this.socketPath);
+        try (ServerSocketChannel serverSocketChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            serverSocketChannel.bind(address);
+            return new ChannelConnection(serverSocketChannel.accept());
+        } finally {
+            Files.deleteIfExists(this.socketPath);
+        }
+    }
+
+    private static final class ChannelConnection implements StreamConnection {
+        private final SocketChannel socketChannel;
+        private final InputStream inputStream;
+        private final OutputStream outputStream;
+
+        ChannelConnection(SocketChannel socketChannel) {
+            this.socketChannel = socketChannel;
+            this.inputStream = Channels.newInputStream(socketChannel);
+            this.outputStream = Channels.newOutputStream(socketChannel);
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return this.inputStream;
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return this.outputStream;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.socketChannel.close();
+        }
+    }
+}
@@ -1,12 +1,20 @@
 package ui;
 
 import battleship.*;
+import network.ConnectPolicy;
+import network.ConnectionLostListener;
 import network.GameSessionEstablishedListener;
+import network.ResumableConnection;
 import network.TCPStream;
 import network.TCPStreamCreatedListener;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * This class contains the main method and reads the
@@ -19,24 +27,30 @@ import java.util.ArrayList;
  * @author thsc
  * @author friedrichvoelkers
  */
-public class BattleshipUI implements TCPStreamCreatedListener, GameSessionEstablishedListener {
+public final class BattleshipUI implements TCPStreamCreatedListener, GameSessionEstablishedListener, ConnectionLostListener, GameEventListener {
 
     private static final String CREATE = "create";
     private static final String HELP = "help";
     private static final String JOIN = "join";
     private static final String FIRE = "fire";
+    private static final String SALVO = "salvo";
     private static final String SET = "set";
+    private static final String FLEET = "fleet";
     private static final String SHOW = "show";
     private static final String EXIT = "exit";
     private static final String RULES = "rules";
 
     private static final int WAIT_MILLI_SECONDS = 50;
+    private static final int ANSWER_TIMEOUT_MILLI_SECONDS = 5_000;
 
     private final BufferedReader bufferedReader;
     private final PrintStream printStream;
     private final String yourName;
     private final BattleshipImpl battleship;
     private TCPStream tcpStream;
+    private boolean asServer;
+    private ConnectPolicy connectPolicy = ConnectPolicy.DEFAULT;
+    private ResumableConnection resumableConnection;
     private BattleshipProtocolEngine battleshipProtocolEngine;
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -48,6 +62,7 @@ public class BattleshipUI implements TCPStreamCreatedListener, GameSessionEstabl
         this.bufferedReader = new BufferedReader(new InputStreamReader(inputStream));
         this.yourName = yourName;
         this.battleship = new BattleshipImpl(yourName);
+        this.battleship.subscribeGameEventListener(this);
     }
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -115,12 +130,16 @@ public class BattleshipUI implements TCPStreamCreatedListener, GameSessionEstabl
                 "\n" +
                 "create \t Create a new game." +
                 "\n" +
-                "join \t Join an other game." +
+                "join \t Join an other game or a matchmaking lobby. Optional: the host (default: localhost)." +
                 "\n" +
                 "fire \t Select a point." + printIfConectionExists() +
                 "\n" +
+                "salvo \t Select several points at once, afterwards it's your enemy's turn." + printIfConectionExists() +
+                "\n" +
                 "set \t Set your ships." + printIfConectionExists() +
                 "\n" +
+                "fleet \t Set all of your ships at once, four values per ship." + printIfConectionExists() +
+                "\n" +
                 "show \t Show both boards." + printIfConectionExists() +
                 "\n" +
                 "rules \t Show the rules." +
@@ -140,6 +159,35 @@ public class BattleshipUI implements TCPStreamCreatedListener, GameSessionEstabl
         this.printStream.println("\n");
     }
 
+    /**
+     * All texts of the game events are produced here, the protocol only sends the codes.
+     */
+    String gameEventText(GameEvent gameEvent, int firstValue, int secondValue) {
+        return switch (gameEvent) {
+            case ENEMY_PLACED_SHIP -> "Your enemy has placed a ship. (" + firstValue + "/" + secondValue + ")";
+            case MISS -> "Unfortunately, you didn't hit a ship and it's your enemy's turn.";
+            case HIT -> "You hit a ship! It's your turn again! But the ship has not yet been completely hit.";
+            case SHIP_SUNK -> "You hit a ship! It's your turn again! The ship is completely hit.";
+            case ALREADY_SHOT -> "You have already shot at this field. Please try again.";
+            case YOU_WON -> """
+                    ########################################
+                    #                                      #
+                    #       Congratulation! You Won!       #
+                    #                                      #
+                    ########################################
+                    """;
+            case YOU_LOST -> """
+                    ########################################
+                    #                                      #
+                    #         You lost the game :(         #
+                    #                                      #
+                    ########################################
+                    """;
+            case YOU_START -> "Randomness has decided. You start!";
+            case ENEMY_STARTS -> "Randomness has decided. Your enemy starts!";
+        };
+    }
+
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
     //                                         read user input                                                //
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -160,9 +208,11 @@ public class BattleshipUI implements TCPStreamCreatedListener, GameSessionEstabl
 
                 switch (inputStringArray[0]) {
                     case CREATE -> this.doCreate();
-                    case JOIN -> this.doJoin();
+                    case JOIN -> this.doJoin(inputStringArray[1]);
                     case FIRE -> this.doFire(inputStringArray[1]);
+                    case SALVO -> this.doFireSalvo(inputStringArray[1]);
                     case SET -> this.doSetShips(inputStringArray[1]);
+                    case FLEET -> this.doSetFleet(inputStringArray[1]);
                     case SHOW -> this.doShow();
                     case RULES -> this.doRules();
                     case HELP -> {
@@ -199,13 +249,46 @@ public class BattleshipUI implements TCPStreamCreatedListener, GameSessionEstabl
             // Check if input is correct
             int[] intParameter = this.integerParameterIsCorrect(parameter, 2);
 
+            // Implement logic and print boards when you got the answer
+            this.waitForAnswer(battleship.fire(new Coordinate(intParameter[0], intParameter[1])));
+        } catch (GameException e) {
+            this.printStream.println(e.getLocalizedMessage());
+        }
+    }
+
+    private void doFireSalvo(String parameter) {
+
+        try {
+            // Check if a connection is there
+            if (!this.alreadyConnected()) throw new GameException("No connection. Please use create or join");
+
+            // Check if input is correct, every shot has two values
+            int numberOfValues = parameter.trim().split(" ").length;
+            if (numberOfValues % 2 != 0) throw new GameException("Incorrect number of parameters");
+            int[] intParameter = this.integerParameterIsCorrect(parameter, numberOfValues);
+
             // Implement logic
-            battleship.doFire(new Coordinate(intParameter[0], intParameter[1]), false);
+            List<Coordinate> coordinates = new ArrayList<>();
+            for (int i = 0; i < intParameter.length; i += 2) {
+                coordinates.add(new Coordinate(intParameter[i], intParameter[i + 1]));
+            }
+            this.waitForAnswer(battleship.fireSalvo(coordinates));
+        } catch (GameException e) {
+            this.printStream.println(e.getLocalizedMessage());
+        }
+    }
 
-            // Print boards and wait a moment until you got the answer
-            Thread.sleep(WAIT_MILLI_SECONDS);
+    private void waitForAnswer(Future<?> answer) {
+        try {
+            answer.get(ANSWER_TIMEOUT_MILLI_SECONDS, TimeUnit.MILLISECONDS);
             if (battleship.battleshipEngine.getYourGameStatus() != GameStatus.YOU_WON)
                 this.printStream.println(battleship.battleshipEngine.printBoards());
+        } catch (ExecutionException e) {
+            this.printStream.println(e.getCause().getLocalizedMessage());
+        } catch (TimeoutException e) {
+            // The answer is still applied to the boards when it arrives, only nobody waits for it
+            answer.cancel(false);
+            this.printStream.println("Your enemy has not answered yet.");
         } catch (GameException | InterruptedException e) {
             this.printStream.println(e.getLocalizedMessage());
         }
@@ -236,22 +319,50 @@ public class BattleshipUI implements TCPStreamCreatedListener, GameSessionEstabl
 
     }
 
+    private void doSetFleet(String parameter) {
+
+        try {
+            // Check if a connection is there
+            if (!this.alreadyConnected()) throw new GameException("No connection. Please use create or join");
+
+            // Check if input is correct, every ship has four values
+            int numberOfValues = parameter.trim().split(" ").length;
+            if (numberOfValues % 4 != 0) throw new GameException("Incorrect number of parameters");
+            int[] intParameter = this.integerParameterIsCorrect(parameter, numberOfValues);
+
+            // Implement logic
+            List<Ship> ships = new ArrayList<>();
+            for (int i = 0; i < intParameter.length; i += 4) {
+                ships.add(new Ship(new Coordinate(intParameter[i], intParameter[i + 1]), new Coordinate(intParameter[i + 2], intParameter[i + 3])));
+            }
+            battleship.doSetFleet(ships);
+
+            this.printStream.println(battleship.battleshipEngine.printBoards());
+            this.printStream.println("All of your ships are set.");
+        } catch (GameException e) {
+            this.printStream.println(e.getLocalizedMessage());
+        }
+    }
+
     private void doCreate() {
 
         if (this.alreadyConnected()) return;
 
-        this.tcpStream = new TCPStream(Battleship.DEFAULT_PORT, true, this.yourName);
-        this.tcpStream.setStreamCreationListener(this);
-        this.tcpStream.start();
+        this.asServer = true;
+        this.openTCPStream();
     }
 
-    private void doJoin() {
+    private void doJoin(String parameter) {
 
         if (this.alreadyConnected()) return;
 
-        this.tcpStream = new TCPStream(Battleship.DEFAULT_PORT, false, this.yourName);
-        this.tcpStream.setStreamCreationListener(this);
-        this.tcpStream.start();
+        // Without a parameter the input loop appends a "."
+        String host = parameter.trim();
+        if (host.isEmpty() || host.equals(".")) host = Battleship.LOCALHOST;
+
+        this.asServer = false;
+        this.connectPolicy = ConnectPolicy.DEFAULT.withHost(host);
+        this.openTCPStream();
     }
 
     private void doRules() {
@@ -299,14 +410,34 @@ public class BattleshipUI implements TCPStreamCreatedListener, GameSessionEstabl
         return this.tcpStream != null;
     }
 
+    private void openTCPStream() {
+        this.tcpStream = new TCPStream(Battleship.DEFAULT_PORT, this.asServer, this.yourName, this.connectPolicy);
+        this.tcpStream.setStreamCreationListener(this);
+        this.tcpStream.start();
+    }
+
     @Override
     public void streamCreated(TCPStream stream) {
+        // A new stream after a lost connection resumes the running game
+        if (this.resumableConnection != null) {
+            try {
+                this.resumableConnection.resume(stream.getInputStream(), stream.getOutputStream());
+                this.printStream.println("The connection to your enemy is resumed.");
+            } catch (IOException e) {
+                this.printStream.println("The game could not be resumed: " + e.getLocalizedMessage());
+                this.resumableConnection.close();
+            }
+            return;
+        }
+
         this.battleshipProtocolEngine = new BattleshipProtocolEngine(this.battleship, this.yourName);
         this.battleship.setProtocolEngine(battleshipProtocolEngine);
         this.battleshipProtocolEngine.subscribeGameSessionEstablishedListener(this);
 
         try {
-            battleshipProtocolEngine.handleConnection(stream.getInputStream(), stream.getOutputStream());
+            this.resumableConnection = new ResumableConnection(stream.getInputStream(), stream.getOutputStream());
+            this.resumableConnection.subscribeConnectionLostListener(this);
+            battleshipProtocolEngine.handleConnection(this.resumableConnection.getInputStream(), this.resumableConnection.getOutputStream());
         } catch (IOException e) {
             System.err.println("cannot get streams from tcpStream - fatal, give up: " + e.getLocalizedMessage());
             System.exit(1);
@@ -324,4 +455,15 @@ public class BattleshipUI implements TCPStreamCreatedListener, GameSessionEstabl
     public void gameSessionEstablished(boolean oracle, String enemiesName) {
         this.battleship.enemiesName = enemiesName;
     }
+
+    @Override
+    public void gameEvent(GameEvent gameEvent, int firstValue, int secondValue) {
+        this.printStream.println(this.gameEventText(gameEvent, firstValue, secondValue));
+    }
+
+    @Override
+    public void connectionLost(ResumableConnection resumableConnection) {
+        this.printStream.println("The connection to your enemy is lost. Trying to resume the game...");
+        this.openTCPStream();
+    }
 }
@@ -0,0 +1,129 @@
+package battleship;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This test class tests that the futures of fire and fireSalvo are
+ * completed with the answer to exactly their shot.
+ *
+ * @author friedrichvoelkers
+ */
+public class AsyncFireTest {
+
+    public static final String FRIEDRICH = "Friedrich";
+
+    @Test
+    public void pipelinedShotsGetTheirAnswers() throws Exception {
+        BattleshipImpl[] players = startGame(BattleshipProtocolEngine.DEFAULT_CAPABILITIES);
+        BattleshipImpl shooter = players[0];
+
+        // Both shots hit, so the shooter may fire again before the first answer is there
+        CompletableFuture<FireResult> firstShot = shooter.fire(new Coordinate(0, 0));
+        CompletableFuture<FireResult> secondShot = shooter.fire(new Coordinate(0, 1));
+
+        FireResult firstResult = firstShot.get(5, TimeUnit.SECONDS);
+        FireResult secondResult = secondShot.get(5, TimeUnit.SECONDS);
+        assertCoordinate(0, 0, firstResult.getCoordinate());
+        assertCoordinate(0, 1, secondResult.getCoordinate());
+        Assert.assertSame(BattleshipFieldStatus.SHIP_NO_SHOOT, secondResult.getBattleshipFieldStatus());
+        Assert.assertTrue(secondResult.isShipSunk());
+
+        // The answer is already applied when the future is completed
+        Assert.assertSame(BattleshipFieldStatus.SHIP_SHOOT, shooter.battleshipEngine.getEnemysBattleshipBoard().getFieldStatus(new Coordinate(0, 1)));
+    }
+
+    @Test
+    public void shotsWithoutCorrelationIdAreAnsweredInOrder() throws Exception {
+        BattleshipImpl[] players = startGame(BattleshipProtocolEngine.DEFAULT_CAPABILITIES & ~BattleshipProtocolEngine.CAPABILITY_CORRELATION_ID);
+        BattleshipImpl shooter = players[0];
+
+        CompletableFuture<FireResult> firstShot = shooter.fire(new Coordinate(0, 0));
+        CompletableFuture<FireResult> secondShot = shooter.fire(new Coordinate(4, 4));
+
+        assertCoordinate(0, 0, firstShot.get(5, TimeUnit.SECONDS).getCoordinate());
+        FireResult secondResult = secondShot.get(5, TimeUnit.SECONDS);
+        assertCoordinate(4, 4, secondResult.getCoordinate());
+        Assert.assertSame(GameStatus.PLAYING_ENEMY_TURN, secondResult.getShooterGameStatus());
+    }
+
+    @Test
+    public void plainShotKeepsItsPlaceWithoutCorrelationId() throws Exception {
+        BattleshipImpl[] players = startGame(BattleshipProtocolEngine.DEFAULT_CAPABILITIES & ~BattleshipProtocolEngine.CAPABILITY_CORRELATION_ID);
+        BattleshipImpl shooter = players[0];
+
+        // The answer to the plain shot must not complete the future of the second one
+        shooter.doFire(new Coordinate(0, 0), false);
+        CompletableFuture<FireResult> secondShot = shooter.fire(new Coordinate(0, 1));
+        assertCoordinate(0, 1, secondShot.get(5, TimeUnit.SECONDS).getCoordinate());
+    }
+
+    @Test
+    public void cancelledShotDoesNotTakeTheNextAnswer() throws Exception {
+        for (int capabilities : new int[]{BattleshipProtocolEngine.DEFAULT_CAPABILITIES,
+                BattleshipProtocolEngine.DEFAULT_CAPABILITIES & ~BattleshipProtocolEngine.CAPABILITY_CORRELATION_ID}) {
+            BattleshipImpl shooter = startGame(capabilities)[0];
+
+            shooter.fire(new Coordinate(0, 0)).cancel(false);
+            CompletableFuture<FireResult> secondShot = shooter.fire(new Coordinate(0, 1));
+            assertCoordinate(0, 1, secondShot.get(5, TimeUnit.SECONDS).getCoordinate());
+        }
+    }
+
+    @Test
+    public void salvoGetsAllAnswers() throws Exception {
+        BattleshipImpl[] players = startGame(BattleshipProtocolEngine.DEFAULT_CAPABILITIES);
+
+        List<FireResult> fireResults = players[0].fireSalvo(List.of(new Coordinate(0, 0), new Coordinate(4, 4)))
+                .get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(2, fireResults.size());
+        Assert.assertSame(BattleshipFieldStatus.SHIP_NO_SHOOT, fireResults.get(0).getBattleshipFieldStatus());
+        Assert.assertSame(BattleshipFieldStatus.EMPTY_NO_SHOOT, fireResults.get(1).getBattleshipFieldStatus());
+        assertCoordinate(4, 4, fireResults.get(1).getCoordinate());
+    }
+
+    @Test
+    public void closeFailsPendingShots() throws IOException, GameException, InterruptedException, TimeoutException {
+        BattleshipProtocolEngine protocolEngine = new BattleshipProtocolEngine(new BattleshipImpl(FRIEDRICH), FRIEDRICH);
+        protocolEngine.connect(new ByteArrayInputStream(new byte[0]), OutputStream.nullOutputStream());
+
+        CompletableFuture<FireResult> shot = protocolEngine.doFireAsync(new Coordinate(3, 3));
+        Assert.assertFalse(shot.isDone());
+        protocolEngine.close();
+
+        try {
+            shot.get(5, TimeUnit.SECONDS);
+            Assert.fail("the shot must fail");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof GameException);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                          helper methods                                                //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @return The player whose turn it is and the other player.
+     */
+    private static BattleshipImpl[] startGame(int sabinesCapabilities) throws IOException, InterruptedException, GameException {
+        BattleshipImpl[] players = TwoPlayerGame.connect(BattleshipEngine.STANDARD_DIMENSION,
+                BattleshipProtocolEngine.DEFAULT_CAPABILITIES, sabinesCapabilities);
+        return TwoPlayerGame.startGame(players[0], players[1]);
+    }
+
+    private static void assertCoordinate(int xCoordinate, int yCoordinate, Coordinate coordinate) {
+        Assert.assertEquals(xCoordinate, coordinate.getxCoordinate());
+        Assert.assertEquals(yCoordinate, coordinate.getyCoordinate());
+    }
+}
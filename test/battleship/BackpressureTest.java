@@ -0,0 +1,69 @@
+package battleship;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * This test class tests that the protocol engine closes the session
+ * if the enemy falls so far behind that its outbound queue is full.
+ *
+ * @author friedrichvoelkers
+ */
+public class BackpressureTest {
+
+    public static final String FRIEDRICH = "Friedrich";
+
+    @Test
+    public void closeSessionWhenOutboundQueueIsFull() throws IOException {
+        CountDownLatch release = new CountDownLatch(1);
+        BattleshipImpl battleship = new BattleshipImpl(FRIEDRICH);
+        BattleshipProtocolEngine protocolEngine = new BattleshipProtocolEngine(battleship, FRIEDRICH);
+        battleship.setProtocolEngine(protocolEngine);
+        protocolEngine.connect(new ByteArrayInputStream(new byte[0]), new BlockedOutputStream(release));
+
+        try {
+            boolean rejected = false;
+            for (int i = 0; i < 100_000 && !rejected; i++) {
+                try {
+                    protocolEngine.doSendHeartbeat();
+                } catch (GameException e) {
+                    rejected = true;
+                }
+            }
+            Assert.assertTrue(rejected);
+            Assert.assertTrue(protocolEngine.isClosed());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    /**
+     * An OutputStream of an enemy that does not read until the test releases it.
+     */
+    private static final class BlockedOutputStream extends OutputStream {
+        private final CountDownLatch release;
+
+        BlockedOutputStream(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            this.write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            try {
+                this.release.await();
+            } catch (InterruptedException ex) {
+                throw new IOException(ex);
+            }
+        }
+    }
+}
@@ -70,6 +70,35 @@ public class BattleshipBoardTest {
         Assert.assertEquals(battleshipBoard.getShipOnACoordinate(new Coordinate(9, 5)), ship1);
     }
 
+    @Test
+    public void getShipOnEveryCoordinateOfTheShip() throws GameException {
+        BattleshipBoard battleshipBoard = new BattleshipBoard(true);
+        Ship ship1 = createShip1();
+        Ship ship2 = createShip2();
+        battleshipBoard.addShip(ship1);
+        battleshipBoard.addShip(ship2);
+        for (Coordinate coordinate : ship1.getCoordinates()) Assert.assertSame(ship1, battleshipBoard.getShipOnACoordinate(coordinate));
+        for (Coordinate coordinate : ship2.getCoordinates()) Assert.assertSame(ship2, battleshipBoard.getShipOnACoordinate(coordinate));
+    }
+
+    @Test(expected = GameException.class)
+    public void getShipOnACoordinateWithoutShip() throws GameException {
+        BattleshipBoard battleshipBoard = new BattleshipBoard(true);
+        battleshipBoard.addShip(createShip1());
+        battleshipBoard.getShipOnACoordinate(createCoordinateOnBoard());
+    }
+
+    @Test
+    public void shipAlreadyExistsOnLargeBoard() throws GameException {
+        int dimension = BattleshipEngine.MAX_DIMENSION;
+        BattleshipBoard battleshipBoard = new BattleshipBoard(true, dimension);
+        Ship ship = new Ship(Coordinate.of(9_000, 9_995, dimension), Coordinate.of(9_000, 9_999, dimension));
+        battleshipBoard.addShip(ship);
+        Assert.assertSame(ship, battleshipBoard.getShipOnACoordinate(Coordinate.of(9_000, 9_997, dimension)));
+        Assert.assertTrue(battleshipBoard.shipAlreadyExists(new Ship(Coordinate.of(8_999, 9_999, dimension), Coordinate.of(9_000, 9_999, dimension))));
+        Assert.assertFalse(battleshipBoard.shipAlreadyExists(new Ship(Coordinate.of(8_999, 9_995, dimension), Coordinate.of(8_999, 9_999, dimension))));
+    }
+
     @Test
     public void checkIfAllShipsAreShoot() throws GameException {
         BattleshipBoard battleshipBoard = new BattleshipBoard(true);
@@ -78,6 +107,28 @@ public class BattleshipBoardTest {
         Assert.assertNotEquals(battleshipBoard.getShipOnACoordinate(new Coordinate(9, 5)), createShip2());
     }
 
+    @Test
+    public void countHitsUntilAllShipsAreSunk() throws GameException {
+        BattleshipBoard battleshipBoard = new BattleshipBoard(true);
+        Ship ship1 = createShip1();
+        Ship ship2 = createShip2();
+        battleshipBoard.addShip(ship1);
+        battleshipBoard.addShip(ship2);
+
+        for (Coordinate coordinate : ship2.getCoordinates()) {
+            Assert.assertFalse(Ship.checkIfShipIsCompleteyShoot(ship2));
+            // A second shot at the same field is not counted again
+            battleshipBoard.setFieldStatus(BattleshipFieldStatus.SHIP_SHOOT, coordinate);
+            battleshipBoard.setFieldStatus(BattleshipFieldStatus.SHIP_SHOOT, coordinate);
+        }
+        Assert.assertTrue(Ship.checkIfShipIsCompleteyShoot(ship2));
+        Assert.assertEquals(5, ship1.getNumberOfRemainingFields());
+        Assert.assertFalse(battleshipBoard.checkIfAllShipsAreShoot());
+
+        for (Coordinate coordinate : ship1.getCoordinates()) battleshipBoard.setFieldStatus(BattleshipFieldStatus.SHIP_SHOOT, coordinate);
+        Assert.assertTrue(battleshipBoard.checkIfAllShipsAreShoot());
+    }
+
     @Test
     public void getFieldStatus1() throws GameException {
         BattleshipBoard battleshipBoard = new BattleshipBoard(true);
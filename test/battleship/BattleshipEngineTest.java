@@ -63,6 +63,33 @@ public class BattleshipEngineTest {
         Assert.assertFalse(battleshipEngine.checkIfTheShipHasDirectNeighbours(new Ship(new Coordinate(5,7), new Coordinate(7,7))));
     }
 
+    // Every placement of every length on a board with ships at the edges and in the corners
+    @Test
+    public void checkIfTheShipHasDirectNeighbours3() throws GameException {
+        for (int dimension : new int[]{BattleshipEngine.STANDARD_DIMENSION, 20, BattleshipBoard.MAX_DENSE_DIMENSION, 200}) {
+            BattleshipEngine battleshipEngine = new BattleshipEngine(dimension);
+            int last = dimension - 1;
+            battleshipEngine.getYourBattleshipBoard().addShip(new Ship(Coordinate.of(0, 0, dimension), Coordinate.of(0, 1, dimension)));
+            battleshipEngine.getYourBattleshipBoard().addShip(new Ship(Coordinate.of(last - 3, last, dimension), Coordinate.of(last, last, dimension)));
+            battleshipEngine.getYourBattleshipBoard().addShip(new Ship(Coordinate.of(4, 4, dimension), Coordinate.of(4, 6, dimension)));
+
+            for (int x = 0; x < dimension; x++) {
+                for (int y = 0; y < dimension; y++) {
+                    for (int length = 1; length <= 5; length++) {
+                        if (y + length <= dimension) {
+                            Ship ship = new Ship(Coordinate.of(x, y, dimension), Coordinate.of(x, y + length - 1, dimension));
+                            Assert.assertEquals(hasShipAround(battleshipEngine, ship, dimension), battleshipEngine.checkIfTheShipHasDirectNeighbours(ship));
+                        }
+                        if (x + length <= dimension) {
+                            Ship ship = new Ship(Coordinate.of(x + length - 1, y, dimension), Coordinate.of(x, y, dimension));
+                            Assert.assertEquals(hasShipAround(battleshipEngine, ship, dimension), battleshipEngine.checkIfTheShipHasDirectNeighbours(ship));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     @Test
     public void getYourBattleshipBoard() {
     }
@@ -142,6 +169,17 @@ public class BattleshipEngineTest {
         Assert.assertEquals(battleshipEngine.getSumOfRequiredNumberOfShips(), 10);
     }
 
+    private static boolean hasShipAround(BattleshipEngine battleshipEngine, Ship ship, int dimension) throws GameException {
+        for (Coordinate coordinate : ship.getCoordinates()) {
+            for (int i = Math.max(coordinate.getxCoordinate() - 1, 0); i <= Math.min(coordinate.getxCoordinate() + 1, dimension - 1); i++) {
+                for (int j = Math.max(coordinate.getyCoordinate() - 1, 0); j <= Math.min(coordinate.getyCoordinate() + 1, dimension - 1); j++) {
+                    if (battleshipEngine.getYourBattleshipBoard().getFieldStatus(Coordinate.of(i, j, dimension)) == BattleshipFieldStatus.SHIP_NO_SHOOT) return true;
+                }
+            }
+        }
+        return false;
+    }
+
     private Ship createCorrectShip1() throws GameException {
         return new Ship(new Coordinate(9 , 5), new Coordinate(9, 9));
     }
@@ -4,6 +4,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * This test class tests the logic of the game.
@@ -155,6 +156,13 @@ public class BattleshipImplTests {
         Assert.assertSame(coordinate.getBattleshipFieldStatus(), BattleshipFieldStatus.EMPTY_SHOOT);
     }
 
+    @Test(expected = UnsupportedOperationException.class)
+    public void checkCoordinate4() throws GameException {
+        Coordinate coordinate = Coordinate.of(1, 5);
+        Assert.assertSame(coordinate, Coordinate.of(1, 5));
+        coordinate.setBattleshipFieldStatus(BattleshipFieldStatus.SHIP_SHOOT);
+    }
+
     @Test
     public void checkShip1() throws GameException{
         Ship ship = new Ship(new Coordinate(1,1), new Coordinate(1, 5));
@@ -178,6 +186,16 @@ public class BattleshipImplTests {
         }
     }
 
+    @Test
+    public void checkShip3() throws GameException{
+        Ship ship = new Ship(new Coordinate(5, 3), new Coordinate(2, 3));
+        Assert.assertFalse(ship.gotShoot(new Coordinate(6, 3)));
+        Assert.assertFalse(ship.gotShoot(new Coordinate(3, 4)));
+        Assert.assertTrue(ship.gotShoot(new Coordinate(4, 3)));
+        Assert.assertFalse(ship.gotShoot(new Coordinate(4, 3)));
+        Assert.assertEquals(3, ship.getNumberOfRemainingFields());
+    }
+
     @Test
     public void checkYourBattleshipBoard1() throws GameException {
         BattleshipBoard battleshipBoard = new BattleshipBoard(true);
@@ -219,6 +237,95 @@ public class BattleshipImplTests {
     }
 
 
+    // The answer to a shot changes the enemies board and both GameStatus at once
+    @Test
+    public void applyFireResult() throws GameException {
+        BattleshipImpl battleship = getBattleshipImpl();
+        Coordinate coordinate = new Coordinate(3, 4);
+        battleship.doSendFireResult(new FireResult(BattleshipFieldStatus.SHIP_NO_SHOOT, coordinate,
+                GameStatus.PLAYING_YOUR_TURN, GameStatus.PLAYING_ENEMY_TURN, true, false));
+
+        Assert.assertSame(BattleshipFieldStatus.SHIP_SHOOT, battleship.battleshipEngine.getEnemysBattleshipBoard().getFieldStatus(coordinate));
+        Assert.assertSame(GameStatus.PLAYING_YOUR_TURN, battleship.battleshipEngine.getYourGameStatus());
+        Assert.assertSame(GameStatus.PLAYING_ENEMY_TURN, battleship.battleshipEngine.getEnemiesGameStatus());
+    }
+
+    // A salvo is evaluated at once and afterwards it is the target's turn, even after a hit
+    @Test
+    public void receiveSalvo() throws GameException {
+        BattleshipImpl battleship = getBattleshipImpl();
+        addTenCorrectShips(battleship, createTenCorrectShips());
+        battleship.doFireSalvo(List.of(new Coordinate(0, 0), new Coordinate(0, 1), new Coordinate(4, 4)), true);
+
+        BattleshipBoard battleshipBoard = battleship.battleshipEngine.getYourBattleshipBoard();
+        Assert.assertSame(BattleshipFieldStatus.SHIP_SHOOT, battleshipBoard.getFieldStatus(new Coordinate(0, 0)));
+        Assert.assertSame(BattleshipFieldStatus.SHIP_SHOOT, battleshipBoard.getFieldStatus(new Coordinate(0, 1)));
+        Assert.assertSame(BattleshipFieldStatus.EMPTY_SHOOT, battleshipBoard.getFieldStatus(new Coordinate(4, 4)));
+        Assert.assertTrue(Ship.checkIfShipIsCompleteyShoot(battleshipBoard.getShipOnACoordinate(new Coordinate(0, 0))));
+        Assert.assertSame(GameStatus.PLAYING_YOUR_TURN, battleship.battleshipEngine.getYourGameStatus());
+        Assert.assertSame(GameStatus.PLAYING_ENEMY_TURN, battleship.battleshipEngine.getEnemiesGameStatus());
+    }
+
+    @Test
+    public void salvosSinkAllShips() throws GameException {
+        BattleshipImpl battleship = getBattleshipImpl();
+        addTenCorrectShips(battleship, createTenCorrectShips());
+        List<Coordinate> salvo = new ArrayList<>();
+        for (Ship ship : createTenCorrectShips()) {
+            for (Coordinate coordinate : ship.getCoordinates()) {
+                salvo.add(coordinate);
+                if (salvo.size() == 10) {
+                    battleship.doFireSalvo(salvo, true);
+                    salvo.clear();
+                }
+            }
+        }
+        if (!salvo.isEmpty()) battleship.doFireSalvo(salvo, true);
+
+        Assert.assertSame(GameStatus.YOU_LOSE, battleship.battleshipEngine.getYourGameStatus());
+        Assert.assertSame(GameStatus.YOU_WON, battleship.battleshipEngine.getEnemiesGameStatus());
+    }
+
+    @Test(expected = GameException.class)
+    public void salvoWithTooManyShots() throws GameException {
+        BattleshipImpl battleship = getBattleshipImpl();
+        addTenCorrectShips(battleship, createTenCorrectShips());
+        List<Coordinate> salvo = new ArrayList<>();
+        for (int i = 0; i < 11; i++) salvo.add(new Coordinate(i % 10, i / 10));
+        battleship.doFireSalvo(salvo, true);
+    }
+
+    @Test
+    public void setFleet() throws GameException {
+        BattleshipImpl battleship = getBattleshipImpl();
+        battleship.doSetFleet(createTenCorrectShips());
+        Assert.assertEquals(10, battleship.battleshipEngine.getYourBattleshipBoard().getNumberOfShips());
+        Assert.assertSame(GameStatus.All_SHIPS_ARE_SET, battleship.battleshipEngine.getYourGameStatus());
+    }
+
+    // A fleet with one wrong ship is rejected as a whole
+    @Test
+    public void setIncorrectFleet() throws GameException {
+        BattleshipImpl battleship = getBattleshipImpl();
+        ArrayList<Ship> ships = createTenCorrectShips();
+        ships.set(9, new Ship(new Coordinate(8, 5), new Coordinate(8, 9)));
+        try {
+            battleship.doSetFleet(ships);
+            Assert.fail("The ship next to another ship was not rejected");
+        } catch (GameException expected) {
+        }
+        Assert.assertEquals(0, battleship.battleshipEngine.getYourBattleshipBoard().getNumberOfShips());
+        Assert.assertSame(GameStatus.ON_CREATE, battleship.battleshipEngine.getYourGameStatus());
+    }
+
+    @Test(expected = GameException.class)
+    public void setIncompleteFleet() throws GameException {
+        BattleshipImpl battleship = getBattleshipImpl();
+        ArrayList<Ship> ships = createTenCorrectShips();
+        ships.remove(9);
+        battleship.doSetFleet(ships);
+    }
+
     @SuppressWarnings("DuplicatedCode")
     private ArrayList<Ship> createTenCorrectShips() throws GameException {
         return new ArrayList<>() {{
@@ -0,0 +1,129 @@
+package battleship;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * This test class tests that the BitBoard answers like the BattleshipBoard.
+ *
+ * @author friedrichvoelkers
+ */
+public class BitBoardTest {
+
+    @Test
+    public void createBoards() throws GameException {
+        BitBoard yourBoard = new BitBoard(true);
+        BitBoard enemiesBoard = new BitBoard(false);
+        for (int i = 0; i < BattleshipEngine.STANDARD_DIMENSION; i++) {
+            for (int j = 0; j < BattleshipEngine.STANDARD_DIMENSION; j++) {
+                Assert.assertSame(BattleshipFieldStatus.EMPTY_NO_SHOOT, yourBoard.getFieldStatus(new Coordinate(i, j)));
+                Assert.assertSame(BattleshipFieldStatus.UNKNOWN, enemiesBoard.getFieldStatus(new Coordinate(i, j)));
+            }
+        }
+    }
+
+    @Test
+    public void sameFieldStatusAsBattleshipBoard() throws GameException {
+        BitBoard bitBoard = new BitBoard(true);
+        BattleshipBoard battleshipBoard = new BattleshipBoard(true);
+        for (Ship ship : createTenCorrectShips()) {
+            bitBoard.addShip(ship);
+            battleshipBoard.addShip(ship);
+        }
+        bitBoard.shoot(new Coordinate(0, 0));
+        battleshipBoard.setFieldStatus(BattleshipFieldStatus.SHIP_SHOOT, new Coordinate(0, 0));
+        bitBoard.shoot(new Coordinate(6, 4));
+        battleshipBoard.setFieldStatus(BattleshipFieldStatus.EMPTY_SHOOT, new Coordinate(6, 4));
+
+        for (int i = 0; i < BattleshipEngine.STANDARD_DIMENSION; i++) {
+            for (int j = 0; j < BattleshipEngine.STANDARD_DIMENSION; j++) {
+                Coordinate coordinate = new Coordinate(i, j);
+                Assert.assertSame(battleshipBoard.getFieldStatus(coordinate), bitBoard.getFieldStatus(coordinate));
+            }
+        }
+        Assert.assertEquals(10, bitBoard.getNumberOfShips());
+        Assert.assertEquals(4, bitBoard.getNumberOfShipsPerLength(2));
+        Assert.assertEquals(1, bitBoard.getNumberOfShipsPerLength(5));
+    }
+
+    @Test
+    public void shipAlreadyExists() throws GameException {
+        BitBoard bitBoard = new BitBoard(true);
+        bitBoard.addShip(new Ship(new Coordinate(9, 5), new Coordinate(9, 9)));
+        Assert.assertTrue(bitBoard.shipAlreadyExists(new Ship(new Coordinate(5, 9), new Coordinate(9, 9))));
+        Assert.assertFalse(bitBoard.shipAlreadyExists(new Ship(new Coordinate(1, 1), new Coordinate(1, 2))));
+    }
+
+    @Test(expected = GameException.class)
+    public void addOverlappingShip() throws GameException {
+        BitBoard bitBoard = new BitBoard(true);
+        bitBoard.addShip(new Ship(new Coordinate(9, 5), new Coordinate(9, 9)));
+        bitBoard.addShip(new Ship(new Coordinate(5, 9), new Coordinate(9, 9)));
+    }
+
+    @Test
+    public void directNeighbours() throws GameException {
+        BitBoard bitBoard = new BitBoard(true);
+        // The ship crosses the border of the low and the high word
+        bitBoard.addShip(new Ship(new Coordinate(6, 2), new Coordinate(6, 5)));
+        Assert.assertTrue(bitBoard.checkIfTheShipHasDirectNeighbours(new Ship(new Coordinate(7, 6), new Coordinate(9, 6))));
+        Assert.assertTrue(bitBoard.checkIfTheShipHasDirectNeighbours(new Ship(new Coordinate(5, 0), new Coordinate(5, 1))));
+        Assert.assertFalse(bitBoard.checkIfTheShipHasDirectNeighbours(new Ship(new Coordinate(6, 7), new Coordinate(6, 9))));
+        Assert.assertFalse(bitBoard.checkIfTheShipHasDirectNeighbours(new Ship(new Coordinate(4, 0), new Coordinate(4, 1))));
+
+        // The halo does not wrap around to the next row
+        BitBoard edgeBoard = new BitBoard(true);
+        edgeBoard.addShip(new Ship(new Coordinate(3, 9), new Coordinate(4, 9)));
+        Assert.assertFalse(edgeBoard.checkIfTheShipHasDirectNeighbours(new Ship(new Coordinate(5, 0), new Coordinate(8, 0))));
+    }
+
+    @Test
+    public void sinkAllShips() throws GameException {
+        BitBoard bitBoard = new BitBoard(true);
+        List<Ship> ships = createTenCorrectShips();
+        for (Ship ship : ships) bitBoard.addShip(ship);
+
+        for (Ship ship : ships) {
+            Assert.assertFalse(bitBoard.checkIfAllShipsAreShoot());
+            for (Coordinate coordinate : ship.getCoordinates()) {
+                Assert.assertFalse(bitBoard.checkIfShipIsCompletelyShoot(ship));
+                Assert.assertSame(BattleshipFieldStatus.SHIP_NO_SHOOT, bitBoard.shoot(coordinate));
+            }
+            Assert.assertTrue(bitBoard.checkIfShipIsCompletelyShoot(ship));
+            Assert.assertSame(ship, bitBoard.getShipOnACoordinate(ship.getEndCoordinate()));
+        }
+        Assert.assertTrue(bitBoard.checkIfAllShipsAreShoot());
+    }
+
+    @Test
+    public void enemiesBoard() throws GameException {
+        BitBoard bitBoard = new BitBoard(false);
+        bitBoard.setFieldStatus(BattleshipFieldStatus.SHIP_SHOOT, new Coordinate(9, 9));
+        bitBoard.setFieldStatus(BattleshipFieldStatus.EMPTY_SHOOT, new Coordinate(0, 0));
+        Assert.assertSame(BattleshipFieldStatus.SHIP_SHOOT, bitBoard.getFieldStatus(new Coordinate(9, 9)));
+        Assert.assertSame(BattleshipFieldStatus.EMPTY_SHOOT, bitBoard.getFieldStatus(new Coordinate(0, 0)));
+        Assert.assertSame(BattleshipFieldStatus.UNKNOWN, bitBoard.getFieldStatus(new Coordinate(5, 5)));
+        Assert.assertEquals('x', bitBoard.printField(new Coordinate(9, 9)));
+        Assert.assertEquals('?', bitBoard.printField(new Coordinate(5, 5)));
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                          helper methods                                                //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static List<Ship> createTenCorrectShips() throws GameException {
+        return List.of(
+                new Ship(new Coordinate(0, 0), new Coordinate(0, 1)),
+                new Ship(new Coordinate(0, 3), new Coordinate(3, 3)),
+                new Ship(new Coordinate(0, 6), new Coordinate(0, 9)),
+                new Ship(new Coordinate(3, 0), new Coordinate(5, 0)),
+                new Ship(new Coordinate(2, 5), new Coordinate(2, 7)),
+                new Ship(new Coordinate(2, 9), new Coordinate(3, 9)),
+                new Ship(new Coordinate(5, 5), new Coordinate(6, 5)),
+                new Ship(new Coordinate(5, 9), new Coordinate(7, 9)),
+                new Ship(new Coordinate(7, 0), new Coordinate(7, 1)),
+                new Ship(new Coordinate(9, 5), new Coordinate(9, 9)));
+    }
+}
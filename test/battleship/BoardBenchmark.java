@@ -0,0 +1,114 @@
+package battleship;
+
+import java.util.List;
+
+/**
+ * This benchmark compares the BattleshipBoard with the BitBoard in the checks a
+ * simulation or a bot does all the time. Every game places the ten ships of the
+ * tests with the overlap and the neighbour check and then shoots at all fields
+ * row by row; after a hit it checks whether the ship is sunk and whether all
+ * ships are sunk. The benchmark reports the time per game and per check.
+ * <p>
+ * Usage: BoardBenchmark [games]
+ *
+ * @author friedrichvoelkers
+ */
+public class BoardBenchmark {
+
+    private static final int CHECKS_PER_GAME = 10 * 2 + BitBoard.NUMBER_OF_FIELDS;
+
+    public static void main(String[] args) throws GameException {
+        int numberOfGames = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        List<Ship> ships = createTenCorrectShips();
+        Coordinate[] fields = new Coordinate[BitBoard.NUMBER_OF_FIELDS];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = Coordinate.of(i / BattleshipEngine.STANDARD_DIMENSION, i % BattleshipEngine.STANDARD_DIMENSION);
+        }
+
+        System.out.println("games: " + numberOfGames);
+        // The first round warms up the JIT
+        for (int round = 0; round < 2; round++) {
+            String battleshipBoardReport = report("BattleshipBoard", measureBattleshipBoard(fields, numberOfGames), numberOfGames);
+            String bitBoardReport = report("BitBoard", measureBitBoard(ships, fields, numberOfGames), numberOfGames);
+            if (round == 1) {
+                System.out.println(battleshipBoardReport);
+                System.out.println(bitBoardReport);
+            }
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                           measurements                                                 //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static long measureBattleshipBoard(Coordinate[] fields, int numberOfGames) throws GameException {
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int game = 0; game < numberOfGames; game++) {
+            BattleshipEngine battleshipEngine = new BattleshipEngine();
+            BattleshipBoard battleshipBoard = battleshipEngine.getYourBattleshipBoard();
+            // The ships count their hits, so every game needs its own fleet
+            for (Ship ship : createTenCorrectShips()) {
+                if (battleshipBoard.shipAlreadyExists(ship) || battleshipEngine.checkIfTheShipHasDirectNeighbours(ship)) checksum--;
+                battleshipBoard.addShip(ship);
+            }
+
+            for (Coordinate field : fields) {
+                if (battleshipBoard.getFieldStatus(field) != BattleshipFieldStatus.SHIP_NO_SHOOT) {
+                    battleshipBoard.setFieldStatus(BattleshipFieldStatus.EMPTY_SHOOT, field);
+                    continue;
+                }
+                battleshipBoard.setFieldStatus(BattleshipFieldStatus.SHIP_SHOOT, field);
+                if (Ship.checkIfShipIsCompleteyShoot(battleshipBoard.getShipOnACoordinate(field))) checksum++;
+                if (battleshipBoard.checkIfAllShipsAreShoot()) checksum++;
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        if (checksum != 11L * numberOfGames) throw new IllegalStateException("wrong checksum " + checksum);
+        return nanos;
+    }
+
+    private static long measureBitBoard(List<Ship> ships, Coordinate[] fields, int numberOfGames) throws GameException {
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int game = 0; game < numberOfGames; game++) {
+            BitBoard bitBoard = new BitBoard(true);
+            for (Ship ship : ships) {
+                if (bitBoard.shipAlreadyExists(ship) || bitBoard.checkIfTheShipHasDirectNeighbours(ship)) checksum--;
+                bitBoard.addShip(ship);
+            }
+
+            for (Coordinate field : fields) {
+                if (bitBoard.shoot(field) != BattleshipFieldStatus.SHIP_NO_SHOOT) continue;
+                if (bitBoard.checkIfShipIsCompletelyShoot(bitBoard.getShipOnACoordinate(field))) checksum++;
+                if (bitBoard.checkIfAllShipsAreShoot()) checksum++;
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        if (checksum != 11L * numberOfGames) throw new IllegalStateException("wrong checksum " + checksum);
+        return nanos;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                          helper methods                                                //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static String report(String name, long nanos, int numberOfGames) {
+        return String.format("%-15s %8.1f ns/game, %6.1f ns/check", name, nanos / (double) numberOfGames,
+                nanos / (double) numberOfGames / CHECKS_PER_GAME);
+    }
+
+    private static List<Ship> createTenCorrectShips() throws GameException {
+        return List.of(
+                new Ship(new Coordinate(0, 0), new Coordinate(0, 1)),
+                new Ship(new Coordinate(0, 3), new Coordinate(3, 3)),
+                new Ship(new Coordinate(0, 6), new Coordinate(0, 9)),
+                new Ship(new Coordinate(3, 0), new Coordinate(5, 0)),
+                new Ship(new Coordinate(2, 5), new Coordinate(2, 7)),
+                new Ship(new Coordinate(2, 9), new Coordinate(3, 9)),
+                new Ship(new Coordinate(5, 5), new Coordinate(6, 5)),
+                new Ship(new Coordinate(5, 9), new Coordinate(7, 9)),
+                new Ship(new Coordinate(7, 0), new Coordinate(7, 1)),
+                new Ship(new Coordinate(9, 5), new Coordinate(9, 9)));
+    }
+}
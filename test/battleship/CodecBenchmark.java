@@ -0,0 +1,217 @@
+package battleship;
+
+import network.FrameBuffer;
+import network.FrameReader;
+
+import java.io.*;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * This benchmark compares the BinaryCodec, the CompactCodec and the DecimalCodec.
+ * The micro benchmark encodes and decodes the frames of a shot (DO_FIRE) and of
+ * a result (SEND_RESULT) and reports the time, the throughput and the bytes per
+ * message. The game report
+ * lets a BattleshipProtocolEngine with the negotiated codec send all messages
+ * of one game in both directions: the placement of ten ships by both players
+ * and a hundred shots with their answers, and reports the bytes per game.
+ * <p>
+ * Usage: CodecBenchmark [messages]
+ *
+ * @author friedrichvoelkers
+ */
+public class CodecBenchmark {
+
+    private static final String NAME = "Player";
+    private static final int CAPABILITIES_WITHOUT_COMPACT_CODEC = BattleshipProtocolEngine.DEFAULT_CAPABILITIES & ~BattleshipProtocolEngine.CAPABILITY_COMPACT_CODEC;
+    private static final List<Codec> CODECS = List.of(new BinaryCodec(), new CompactCodec(), new DecimalCodec());
+    private static final int NUMBER_OF_SHOTS = BattleshipEngine.STANDARD_DIMENSION * BattleshipEngine.STANDARD_DIMENSION;
+
+    public static void main(String[] args) throws Exception {
+        int numberOfMessages = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+
+        PrintStream result = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        result.println("messages: " + numberOfMessages);
+        // The first round warms up the JIT
+        for (int round = 0; round < 2; round++) {
+            for (Codec codec : CODECS) {
+                String report = measureMessages(codec, numberOfMessages);
+                if (round == 1) result.println(report);
+            }
+        }
+        for (Codec codec : CODECS) {
+            result.println(measureGame(codec));
+        }
+        System.exit(0);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                           measurements                                                 //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static String measureMessages(Codec codec, int numberOfMessages) throws IOException {
+        FrameBuffer frameBuffer = new FrameBuffer();
+        ReusableOutputStream reusableOutputStream = new ReusableOutputStream();
+        ReusableInputStream reusableInputStream = new ReusableInputStream();
+        FrameReader frameReader = new FrameReader(reusableInputStream);
+        long bytesPerShot = 0;
+        long bytesPerResult = 0;
+        long checksum = 0;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < numberOfMessages; i += 2) {
+            int x = i % 10;
+            int y = i / 10 % 10;
+
+            DataOutputStream dataOutputStream = frameBuffer.beginFrame(BattleshipProtocolEngine.METHOD_DO_FIRE);
+            codec.writeValue(dataOutputStream, x);
+            codec.writeValue(dataOutputStream, y);
+            frameBuffer.endFrame();
+            frameBuffer.writeTo(reusableOutputStream);
+            bytesPerShot = reusableOutputStream.size();
+
+            dataOutputStream = frameBuffer.beginFrame(BattleshipProtocolEngine.METHOD_DO_SEND_RESULT);
+            codec.writeValue(dataOutputStream, BattleshipProtocolEngine.BATTLESHIP_FIELD_STATUS_SHIP_SHOOT);
+            codec.writeValue(dataOutputStream, x);
+            codec.writeValue(dataOutputStream, y);
+            frameBuffer.endFrame();
+            frameBuffer.writeTo(reusableOutputStream);
+            bytesPerResult = reusableOutputStream.size() - bytesPerShot;
+
+            reusableOutputStream.writeTo(reusableInputStream);
+            for (int message = 0; message < 2; message++) {
+                checksum += frameReader.readFrame();
+                DataInputStream payload = frameReader.getPayload();
+                while (payload.available() > 0) checksum += codec.readValue(payload);
+            }
+        }
+        double nanosPerMessage = (System.nanoTime() - start) / (double) numberOfMessages;
+
+        return String.format("%-15s encode + decode: %6.1f ns/message, %6.1f million messages/s, shot: %3d bytes, result: %3d bytes (checksum %d)",
+                codec.getClass().getSimpleName(), nanosPerMessage, 1_000 / nanosPerMessage, bytesPerShot, bytesPerResult, checksum);
+    }
+
+    private static String measureGame(Codec codec) throws Exception {
+        CountingOutputStream countingOutputStream = new CountingOutputStream();
+        CountDownLatch release = new CountDownLatch(1);
+        ByteArrayOutputStream handshake = new ByteArrayOutputStream();
+        DataOutputStream handshakeOutputStream = new DataOutputStream(handshake);
+        int capabilities = switch (codec) {
+            case CompactCodec compactCodec -> BattleshipProtocolEngine.DEFAULT_CAPABILITIES;
+            case DecimalCodec decimalCodec -> BattleshipProtocolEngine.DEFAULT_CAPABILITIES | BattleshipProtocolEngine.CAPABILITY_DECIMAL_CODEC;
+            default -> CAPABILITIES_WITHOUT_COMPACT_CODEC;
+        };
+        handshakeOutputStream.writeInt(BattleshipProtocolEngine.HANDSHAKE_MAGIC);
+        handshakeOutputStream.writeShort(BattleshipProtocolEngine.PROTOCOL_VERSION);
+        handshakeOutputStream.writeInt(capabilities);
+        handshakeOutputStream.writeUTF(NAME);
+        handshakeOutputStream.writeInt(BattleshipEngine.STANDARD_DIMENSION);
+        InputStream inputStream = new SequenceInputStream(new ByteArrayInputStream(handshake.toByteArray()), new BlockingInputStream(release));
+
+        BattleshipImpl battleship = new BattleshipImpl(NAME);
+        BattleshipProtocolEngine protocolEngine = new BattleshipProtocolEngine(battleship, NAME);
+        battleship.setProtocolEngine(protocolEngine);
+        protocolEngine.setOfferedCapabilities(capabilities);
+        protocolEngine.handleConnection(inputStream, countingOutputStream);
+
+        // Wait for the handshake and do not count it
+        while (protocolEngine.getCodec().getClass() != codec.getClass() || countingOutputStream.numberOfBytes == 0) Thread.sleep(1);
+        countingOutputStream.reset();
+
+        // Both players place their ships, the messages of the enemy are the same
+        for (Ship ship : createTenCorrectShips()) battleship.doSetShips(ship.getStartCoordinate(), ship.getEndCoordinate());
+        long bytesPerPlacement = countingOutputStream.numberOfBytes;
+
+        // The enemy shoots at every field and the player answers, the shots of the player cost the same
+        for (int i = 0; i < NUMBER_OF_SHOTS; i++) {
+            Coordinate coordinate = new Coordinate(i / 10, i % 10);
+            protocolEngine.doFire(coordinate, false);
+            battleship.doFire(coordinate, true);
+        }
+        while (protocolEngine.getOutboundQueue().getQueuedBytes() > 0) Thread.sleep(1);
+        long bytesPerShots = countingOutputStream.numberOfBytes - bytesPerPlacement;
+        release.countDown();
+
+        return String.format("%-15s game (2 x 10 ships, %d shots): %6d bytes/game, %5.1f bytes/shot with answer",
+                codec.getClass().getSimpleName(), NUMBER_OF_SHOTS, 2 * bytesPerPlacement + bytesPerShots,
+                bytesPerShots / (double) NUMBER_OF_SHOTS);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                          helper methods                                                //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static List<Ship> createTenCorrectShips() throws GameException {
+        return List.of(
+                new Ship(new Coordinate(0, 0), new Coordinate(0, 1)),
+                new Ship(new Coordinate(0, 3), new Coordinate(3, 3)),
+                new Ship(new Coordinate(0, 6), new Coordinate(0, 9)),
+                new Ship(new Coordinate(3, 0), new Coordinate(5, 0)),
+                new Ship(new Coordinate(2, 5), new Coordinate(2, 7)),
+                new Ship(new Coordinate(2, 9), new Coordinate(3, 9)),
+                new Ship(new Coordinate(5, 5), new Coordinate(6, 5)),
+                new Ship(new Coordinate(5, 9), new Coordinate(7, 9)),
+                new Ship(new Coordinate(7, 0), new Coordinate(7, 1)),
+                new Ship(new Coordinate(9, 5), new Coordinate(9, 9)));
+    }
+
+    /**
+     * Gives the frames that were written to it to the ReusableInputStream without copying them.
+     */
+    private static final class ReusableOutputStream extends ByteArrayOutputStream {
+        void writeTo(ReusableInputStream reusableInputStream) {
+            reusableInputStream.reset(this.buf, this.count);
+            this.reset();
+        }
+    }
+
+    private static final class ReusableInputStream extends ByteArrayInputStream {
+        ReusableInputStream() {
+            super(new byte[0]);
+        }
+
+        void reset(byte[] bytes, int length) {
+            this.buf = bytes;
+            this.pos = 0;
+            this.count = length;
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private volatile long numberOfBytes = 0;
+
+        @Override
+        public synchronized void write(int b) {
+            this.numberOfBytes++;
+        }
+
+        @Override
+        public synchronized void write(byte[] bytes, int offset, int length) {
+            this.numberOfBytes += length;
+        }
+
+        synchronized void reset() {
+            this.numberOfBytes = 0;
+        }
+    }
+
+    private static final class BlockingInputStream extends InputStream {
+        private final CountDownLatch release;
+
+        BlockingInputStream(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                this.release.await();
+            } catch (InterruptedException ex) {
+                throw new IOException(ex);
+            }
+            return -1;
+        }
+    }
+}
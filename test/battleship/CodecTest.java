@@ -0,0 +1,88 @@
+package battleship;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.*;
+
+/**
+ * This test class tests that the codecs read the values they
+ * have written and how many bytes they need for them.
+ *
+ * @author friedrichvoelkers
+ */
+public class CodecTest {
+
+    public static final int[] VALUES = {0, 1, 9, 63, 64, -1, -64, -65, 127, 128, 300, 16_384, Integer.MAX_VALUE, Integer.MIN_VALUE};
+
+    @Test
+    public void binaryCodecRoundTrip() throws IOException {
+        roundTrip(new BinaryCodec());
+    }
+
+    @Test
+    public void compactCodecRoundTrip() throws IOException {
+        roundTrip(new CompactCodec());
+    }
+
+    @Test
+    public void decimalCodecRoundTrip() throws IOException {
+        roundTrip(new DecimalCodec());
+    }
+
+    @Test
+    public void compactCodecSizes() throws IOException {
+        Assert.assertEquals(1, size(new CompactCodec(), 9));
+        Assert.assertEquals(1, size(new CompactCodec(), BattleshipProtocolEngine.GAME_STATUS_YOU_LOSE));
+        Assert.assertEquals(1, size(new CompactCodec(), -64));
+        Assert.assertEquals(2, size(new CompactCodec(), 64));
+        Assert.assertEquals(CompactCodec.MAX_VARINT_SIZE, size(new CompactCodec(), Integer.MIN_VALUE));
+        Assert.assertEquals(4, size(new BinaryCodec(), 9));
+        Assert.assertEquals(DecimalCodec.MAX_LINE_SIZE, size(new DecimalCodec(), Integer.MIN_VALUE));
+    }
+
+    @Test
+    public void decimalCodecWritesDigits() throws IOException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+        new DecimalCodec().writeValue(dataOutputStream, 3);
+        new DecimalCodec().writeValue(dataOutputStream, -17);
+        Assert.assertEquals("3\n-17\n", byteArrayOutputStream.toString());
+    }
+
+    @Test(expected = IOException.class)
+    public void decimalCodecRejectsLetters() throws IOException {
+        new DecimalCodec().readValue(new DataInputStream(new ByteArrayInputStream("4a\n".getBytes())));
+    }
+
+    @Test(expected = IOException.class)
+    public void decimalCodecRejectsTooLongLine() throws IOException {
+        new DecimalCodec().readValue(new DataInputStream(new ByteArrayInputStream("99999999999\n".getBytes())));
+    }
+
+    @Test(expected = IOException.class)
+    public void compactCodecRejectsTooLongVarint() throws IOException {
+        byte[] bytes = {(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01};
+        new CompactCodec().readValue(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                          helper methods                                                //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static void roundTrip(Codec codec) throws IOException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+        for (int value : VALUES) codec.writeValue(dataOutputStream, value);
+
+        DataInputStream dataInputStream = new DataInputStream(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()));
+        for (int value : VALUES) Assert.assertEquals(value, codec.readValue(dataInputStream));
+        Assert.assertEquals(0, dataInputStream.available());
+    }
+
+    private static int size(Codec codec, int value) throws IOException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        codec.writeValue(new DataOutputStream(byteArrayOutputStream), value);
+        return byteArrayOutputStream.size();
+    }
+}
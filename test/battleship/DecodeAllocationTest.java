@@ -0,0 +1,170 @@
+package battleship;
+
+import network.FrameBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * This test class tests that the protocol engine decodes
+ * the messages of a game without allocating any objects.
+ *
+ * @author friedrichvoelkers
+ */
+public class DecodeAllocationTest {
+
+    public static final int NUMBER_OF_WARMUP_ROUNDS = 20_000;
+    public static final int NUMBER_OF_ROUNDS = 20_000;
+    public static final int MESSAGES_PER_ROUND = 9;
+
+    @Test
+    public void decodeWithoutAllocation() throws IOException, GameException {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assert.assertTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        BattleshipProtocolEngine warmupProtocolEngine = createProtocolEngine(NUMBER_OF_WARMUP_ROUNDS);
+        for (int i = 0; i < NUMBER_OF_WARMUP_ROUNDS * MESSAGES_PER_ROUND; i++) {
+            Assert.assertTrue(warmupProtocolEngine.read());
+        }
+
+        BattleshipProtocolEngine protocolEngine = createProtocolEngine(NUMBER_OF_ROUNDS);
+        int numberOfMessages = NUMBER_OF_ROUNDS * MESSAGES_PER_ROUND;
+
+        // The allocation of the measurement itself is subtracted
+        long threadId = Thread.currentThread().threadId();
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        long baseline = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+
+        before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < numberOfMessages; i++) {
+            protocolEngine.read();
+        }
+        long allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId) - before - baseline;
+
+        Assert.assertEquals("allocated bytes per message", 0, allocatedBytes / numberOfMessages);
+    }
+
+    private static BattleshipProtocolEngine createProtocolEngine(int numberOfRounds) throws IOException {
+        BattleshipProtocolEngine protocolEngine = new BattleshipProtocolEngine(new SilentBattleship(), "Friedrich");
+        protocolEngine.connect(new ByteArrayInputStream(createMessages(numberOfRounds)), OutputStream.nullOutputStream());
+        return protocolEngine;
+    }
+
+    private static byte[] createMessages(int numberOfRounds) throws IOException {
+        FrameBuffer frameBuffer = new FrameBuffer();
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        for (int round = 0; round < numberOfRounds; round++) {
+            int x = round % 10;
+            int y = (round / 10) % 10;
+
+            DataOutputStream dataOutputStream = frameBuffer.beginFrame(BattleshipProtocolEngine.METHOD_DO_FIRE);
+            dataOutputStream.writeInt(x);
+            dataOutputStream.writeInt(y);
+            frameBuffer.endFrame();
+
+            dataOutputStream = frameBuffer.beginFrame(BattleshipProtocolEngine.METHOD_DO_CHANGE_STATUS);
+            dataOutputStream.writeInt(BattleshipProtocolEngine.GAME_STATUS_PLAYING_YOUR_TURN);
+            dataOutputStream.writeBoolean(true);
+            frameBuffer.endFrame();
+
+            dataOutputStream = frameBuffer.beginFrame(BattleshipProtocolEngine.METHOD_DO_SEND_RESULT);
+            dataOutputStream.writeInt(BattleshipProtocolEngine.BATTLESHIP_FIELD_STATUS_SHIP_SHOOT);
+            dataOutputStream.writeInt(x);
+            dataOutputStream.writeInt(y);
+            frameBuffer.endFrame();
+
+            dataOutputStream = frameBuffer.beginFrame(BattleshipProtocolEngine.METHOD_BOTH_PLAY_SET_ALL_SHIPS);
+            dataOutputStream.writeBoolean(round % 2 == 0);
+            frameBuffer.endFrame();
+
+            frameBuffer.beginFrame(BattleshipProtocolEngine.METHOD_HEARTBEAT);
+            frameBuffer.endFrame();
+
+            dataOutputStream = frameBuffer.beginFrame(BattleshipProtocolEngine.METHOD_DO_SEND_FIRE_RESULT);
+            dataOutputStream.writeByte(BattleshipProtocolEngine.BATTLESHIP_FIELD_STATUS_EMPTY_NO_SHOOT);
+            dataOutputStream.writeByte(x);
+            dataOutputStream.writeByte(y);
+            dataOutputStream.writeByte(BattleshipProtocolEngine.GAME_STATUS_PLAYING_ENEMY_TURN);
+            dataOutputStream.writeByte(BattleshipProtocolEngine.GAME_STATUS_PLAYING_YOUR_TURN);
+            dataOutputStream.writeByte(0);
+            frameBuffer.endFrame();
+
+            dataOutputStream = frameBuffer.beginFrame(BattleshipProtocolEngine.METHOD_DO_SEND_EVENT);
+            dataOutputStream.writeByte(GameEvent.SHIP_SUNK.getCode());
+            dataOutputStream.writeShort(x);
+            dataOutputStream.writeShort(y);
+            frameBuffer.endFrame();
+
+            dataOutputStream = frameBuffer.beginFrame(BattleshipProtocolEngine.METHOD_DO_FIRE_SALVO);
+            dataOutputStream.writeInt(3);
+            for (int shot = 0; shot < 3; shot++) {
+                dataOutputStream.writeInt((x + shot) % 10);
+                dataOutputStream.writeInt(y);
+            }
+            frameBuffer.endFrame();
+
+            dataOutputStream = frameBuffer.beginFrame(BattleshipProtocolEngine.METHOD_DO_SEND_SALVO_RESULT);
+            dataOutputStream.writeByte(BattleshipProtocolEngine.GAME_STATUS_PLAYING_ENEMY_TURN);
+            dataOutputStream.writeByte(BattleshipProtocolEngine.GAME_STATUS_PLAYING_YOUR_TURN);
+            dataOutputStream.writeInt(3);
+            for (int shot = 0; shot < 3; shot++) {
+                dataOutputStream.writeByte(BattleshipProtocolEngine.BATTLESHIP_FIELD_STATUS_SHIP_NO_SHOOT << 2 | BattleshipProtocolEngine.FIRE_RESULT_FLAG_SHIP_SUNK);
+                dataOutputStream.writeInt((x + shot) % 10);
+                dataOutputStream.writeInt(y);
+            }
+            frameBuffer.endFrame();
+
+            frameBuffer.writeTo(byteArrayOutputStream);
+        }
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    /**
+     * Receives the messages without doing anything, so only the decoding is measured.
+     */
+    private static class SilentBattleship implements Battleship {
+        @Override
+        public void doFire(Coordinate coordinate, boolean isYourBoard) {
+        }
+
+        @Override
+        public void doSetShips(Coordinate startCoordinate, Coordinate endCoordinate) {
+        }
+
+        @Override
+        public void doSetFleet(List<Ship> ships) {
+        }
+
+        @Override
+        public void doChangeGameStatus(GameStatus gameStatus, boolean isYourStatus, boolean bothPlayerSetAllShips) {
+        }
+
+        @Override
+        public void doSendResult(BattleshipFieldStatus battleshipFieldStatus, Coordinate coordinate) {
+        }
+
+        @Override
+        public void doSendFireResult(FireResult fireResult) {
+        }
+
+        @Override
+        public void doSendEvent(GameEvent gameEvent, int firstValue, int secondValue) {
+        }
+
+        @Override
+        public void doFireSalvo(List<Coordinate> coordinates, boolean isYourBoard) {
+        }
+
+        @Override
+        public void doSendSalvoResult(List<FireResult> fireResults) {
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package battleship;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+
+/**
+ * This test class tests that the game starts when both players
+ * place their fleet at once, also against an enemy that does
+ * not know the fleet message.
+ *
+ * @author friedrichvoelkers
+ */
+public class FleetTest {
+
+    @Test
+    public void setFleetWithOneMessage() throws IOException, InterruptedException, GameException {
+        startGame(BattleshipProtocolEngine.DEFAULT_CAPABILITIES);
+    }
+
+    @Test
+    public void setFleetAgainstOlderClient() throws IOException, InterruptedException, GameException {
+        startGame(BattleshipProtocolEngine.DEFAULT_CAPABILITIES & ~BattleshipProtocolEngine.CAPABILITY_FLEET);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                          helper methods                                                //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static void startGame(int sabinesCapabilities) throws IOException, InterruptedException, GameException {
+        BattleshipImpl[] players = TwoPlayerGame.connect(BattleshipEngine.STANDARD_DIMENSION,
+                BattleshipProtocolEngine.DEFAULT_CAPABILITIES, sabinesCapabilities);
+        BattleshipImpl[] shooterAndTarget = TwoPlayerGame.startGame(players[0], players[1]);
+        Assert.assertNotSame(shooterAndTarget[0].battleshipEngine.getYourGameStatus(), shooterAndTarget[1].battleshipEngine.getYourGameStatus());
+    }
+}
@@ -0,0 +1,182 @@
+package battleship;
+
+import network.FrameBuffer;
+import network.FrameReader;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This benchmark measures what the event codes save per game compared with the
+ * text messages that were sent before. It plays one game against the ten ships
+ * of the tests, shooting all fields row by row until the last ship is sunk, and
+ * collects the events the shooter is told about, plus the ten "ship placed"
+ * events of the enemy.
+ * <p>
+ * "text messages" sends every event like the former METHOD_DO_SEND_MESSAGE: the
+ * method as int and the English text with writeUTF, which the receiver reads
+ * into a new String. "event codes" sends the frames of METHOD_DO_SEND_EVENT. For
+ * both encodings the benchmark reports the bytes and the Strings per game and
+ * the bytes allocated per game for encoding and decoding all events.
+ * <p>
+ * Usage: GameEventBenchmark [games]
+ *
+ * @author friedrichvoelkers
+ */
+public class GameEventBenchmark {
+
+    private static final int FORMER_METHOD_DO_SEND_MESSAGE = 6;
+    private static final String[] TEXTS = {
+            null,
+            "Unfortunately, you didn't hit a ship and it's your enemy's turn.",
+            "You hit a ship! It's your turn again! But the ship has not yet been completely hit.",
+            "You hit a ship! It's your turn again! The ship is completely hit.",
+            "You have already shot at this field. Please try again.",
+            """
+                    ########################################
+                    #                                      #
+                    #       Congratulation! You Won!       #
+                    #                                      #
+                    ########################################
+                    """};
+
+    public static void main(String[] args) throws Exception {
+        int numberOfGames = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        List<int[]> events = playGame();
+
+        System.out.println("events per game: " + events.size() + ", games: " + numberOfGames);
+        // The first round warms up the JIT
+        for (int round = 0; round < 2; round++) {
+            if (round == 1) System.out.println(measureTextMessages(events, numberOfGames));
+            else measureTextMessages(events, numberOfGames);
+            if (round == 1) System.out.println(measureEventCodes(events, numberOfGames));
+            else measureEventCodes(events, numberOfGames);
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                           measurements                                                 //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static String measureTextMessages(List<int[]> events, int numberOfGames) throws IOException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        long bytesPerGame = 0;
+        long stringsPerGame = 0;
+        long allocatedBefore = allocatedBytes();
+
+        for (int game = 0; game < numberOfGames; game++) {
+            byteArrayOutputStream.reset();
+            DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+            int numberOfStrings = 0;
+            for (int[] event : events) {
+                String text = TEXTS[event[0]];
+                if (text == null) {
+                    text = "Your enemy has placed a ship. (" + event[1] + "/" + event[2] + ")";
+                    numberOfStrings++;
+                }
+                dataOutputStream.writeInt(FORMER_METHOD_DO_SEND_MESSAGE);
+                dataOutputStream.writeUTF(text);
+            }
+
+            DataInputStream dataInputStream = new DataInputStream(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()));
+            for (int i = 0; i < events.size(); i++) {
+                dataInputStream.readInt();
+                if (dataInputStream.readUTF() != null) numberOfStrings++;
+            }
+            bytesPerGame = byteArrayOutputStream.size();
+            stringsPerGame = numberOfStrings;
+        }
+
+        return report("text messages", bytesPerGame, stringsPerGame, (allocatedBytes() - allocatedBefore) / numberOfGames);
+    }
+
+    private static String measureEventCodes(List<int[]> events, int numberOfGames) throws IOException, GameException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        FrameBuffer frameBuffer = new FrameBuffer(4096);
+        long bytesPerGame = 0;
+        long allocatedBefore = allocatedBytes();
+
+        for (int game = 0; game < numberOfGames; game++) {
+            byteArrayOutputStream.reset();
+            for (int[] event : events) {
+                DataOutputStream dataOutputStream = frameBuffer.beginFrame(BattleshipProtocolEngine.METHOD_DO_SEND_EVENT);
+                dataOutputStream.writeByte(event[0]);
+                dataOutputStream.writeShort(event[1]);
+                dataOutputStream.writeShort(event[2]);
+                frameBuffer.endFrame();
+            }
+            frameBuffer.writeTo(byteArrayOutputStream);
+
+            FrameReader frameReader = new FrameReader(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()));
+            for (int i = 0; i < events.size(); i++) {
+                frameReader.readFrame();
+                GameEvent.fromCode(frameReader.getPayload().readUnsignedByte());
+                frameReader.getPayload().readShort();
+                frameReader.getPayload().readShort();
+            }
+            bytesPerGame = byteArrayOutputStream.size();
+        }
+
+        return report("event codes", bytesPerGame, 0, (allocatedBytes() - allocatedBefore) / numberOfGames);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                          helper methods                                                //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @return The events of one game as [code, first value, second value].
+     */
+    private static List<int[]> playGame() throws GameException {
+        List<int[]> events = new ArrayList<>();
+        BattleshipImpl enemy = new BattleshipImpl("Enemy");
+        List<Ship> ships = createTenCorrectShips();
+        for (int i = 0; i < ships.size(); i++) {
+            enemy.doSetShips(ships.get(i).getStartCoordinate(), ships.get(i).getEndCoordinate());
+            events.add(new int[]{GameEvent.ENEMY_PLACED_SHIP.getCode(), i + 1, ships.size()});
+        }
+
+        BattleshipBoard board = enemy.battleshipEngine.getYourBattleshipBoard();
+        for (int y = 0; y < BattleshipEngine.STANDARD_DIMENSION; y++) {
+            for (int x = 0; x < BattleshipEngine.STANDARD_DIMENSION; x++) {
+                Coordinate coordinate = new Coordinate(x, y);
+                boolean hit = board.getFieldStatus(coordinate) == BattleshipFieldStatus.SHIP_NO_SHOOT;
+                enemy.doFire(coordinate, true);
+
+                GameEvent gameEvent = GameEvent.MISS;
+                if (hit && board.checkIfAllShipsAreShoot()) gameEvent = GameEvent.YOU_WON;
+                else if (hit && Ship.checkIfShipIsCompleteyShoot(board.getShipOnACoordinate(coordinate))) gameEvent = GameEvent.SHIP_SUNK;
+                else if (hit) gameEvent = GameEvent.HIT;
+                events.add(new int[]{gameEvent.getCode(), 0, 0});
+
+                if (gameEvent == GameEvent.YOU_WON) return events;
+            }
+        }
+        return events;
+    }
+
+    private static List<Ship> createTenCorrectShips() throws GameException {
+        return List.of(
+                new Ship(new Coordinate(0, 0), new Coordinate(0, 1)),
+                new Ship(new Coordinate(0, 3), new Coordinate(3, 3)),
+                new Ship(new Coordinate(0, 6), new Coordinate(0, 9)),
+                new Ship(new Coordinate(3, 0), new Coordinate(5, 0)),
+                new Ship(new Coordinate(2, 5), new Coordinate(2, 7)),
+                new Ship(new Coordinate(2, 9), new Coordinate(3, 9)),
+                new Ship(new Coordinate(5, 5), new Coordinate(6, 5)),
+                new Ship(new Coordinate(5, 9), new Coordinate(7, 9)),
+                new Ship(new Coordinate(7, 0), new Coordinate(7, 1)),
+                new Ship(new Coordinate(9, 5), new Coordinate(9, 9)));
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    private static String report(String encoding, long bytesPerGame, long stringsPerGame, long allocatedBytesPerGame) {
+        return String.format("%-15s wire: %6d bytes/game, strings: %4d/game, allocated: %8d bytes/game",
+                encoding, bytesPerGame, stringsPerGame, allocatedBytesPerGame);
+    }
+}
@@ -0,0 +1,207 @@
+package battleship;
+
+import network.FrameBuffer;
+import network.FrameReader;
+import network.InProcessPipeTransport;
+import network.StreamConnection;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This test class tests that both sides of the handshake agree on
+ * the same protocol version and on the capabilities both offer.
+ *
+ * @author friedrichvoelkers
+ */
+public class HandshakeTest {
+
+    public static final String FRIEDRICH = "Friedrich";
+    public static final String SABINE = "Sabine";
+
+    @Test
+    public void useAllCapabilitiesOfferedByBoth() throws IOException, InterruptedException {
+        BattleshipProtocolEngine[] protocolEngines = connect(BattleshipProtocolEngine.DEFAULT_CAPABILITIES, BattleshipProtocolEngine.DEFAULT_CAPABILITIES);
+        for (BattleshipProtocolEngine protocolEngine : protocolEngines) {
+            Assert.assertEquals(BattleshipProtocolEngine.PROTOCOL_VERSION, protocolEngine.getProtocolVersion());
+            Assert.assertEquals(BattleshipProtocolEngine.DEFAULT_CAPABILITIES, protocolEngine.getCapabilities());
+            Assert.assertTrue(protocolEngine.getCodec() instanceof CompactCodec);
+            protocolEngine.close();
+        }
+    }
+
+    @Test
+    public void useOnlyCapabilitiesOfferedByBoth() throws IOException, InterruptedException {
+        // Sabine acts like an older client that knows batching, but not the compact codec
+        BattleshipProtocolEngine[] protocolEngines = connect(BattleshipProtocolEngine.DEFAULT_CAPABILITIES, BattleshipProtocolEngine.CAPABILITY_BATCHING);
+        for (BattleshipProtocolEngine protocolEngine : protocolEngines) {
+            Assert.assertTrue(protocolEngine.hasCapability(BattleshipProtocolEngine.CAPABILITY_BATCHING));
+            Assert.assertFalse(protocolEngine.hasCapability(BattleshipProtocolEngine.CAPABILITY_COMPACT_CODEC));
+            Assert.assertTrue(protocolEngine.getCodec() instanceof BinaryCodec);
+            protocolEngine.close();
+        }
+    }
+
+    @Test
+    public void useDecimalCodecOnlyIfBothOfferIt() throws IOException, InterruptedException {
+        int capabilitiesWithDecimalCodec = BattleshipProtocolEngine.DEFAULT_CAPABILITIES | BattleshipProtocolEngine.CAPABILITY_DECIMAL_CODEC;
+        for (BattleshipProtocolEngine protocolEngine : connect(capabilitiesWithDecimalCodec, capabilitiesWithDecimalCodec)) {
+            Assert.assertTrue(protocolEngine.getCodec() instanceof DecimalCodec);
+            protocolEngine.close();
+        }
+        for (BattleshipProtocolEngine protocolEngine : connect(capabilitiesWithDecimalCodec, BattleshipProtocolEngine.DEFAULT_CAPABILITIES)) {
+            Assert.assertTrue(protocolEngine.getCodec() instanceof CompactCodec);
+            protocolEngine.close();
+        }
+    }
+
+    @Test
+    public void useOlderProtocolVersion() throws IOException, InterruptedException {
+        InProcessPipeTransport transport = new InProcessPipeTransport();
+        CountDownLatch established = new CountDownLatch(1);
+        BattleshipProtocolEngine friedrichProtocolEngine = createProtocolEngine(FRIEDRICH, BattleshipProtocolEngine.DEFAULT_CAPABILITIES, established);
+        StreamConnection friedrichConnection = transport.connect(true, FRIEDRICH);
+        friedrichProtocolEngine.handleConnection(friedrichConnection.getInputStream(), friedrichConnection.getOutputStream());
+
+        DataOutputStream sabineOutputStream = new DataOutputStream(transport.connect(false, SABINE).getOutputStream());
+        sabineOutputStream.writeInt(BattleshipProtocolEngine.HANDSHAKE_MAGIC);
+        sabineOutputStream.writeShort(1);
+        sabineOutputStream.writeInt(0);
+        sabineOutputStream.writeUTF(SABINE);
+        sabineOutputStream.flush();
+
+        Assert.assertTrue(established.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(1, friedrichProtocolEngine.getProtocolVersion());
+        Assert.assertEquals(0, friedrichProtocolEngine.getCapabilities());
+        friedrichProtocolEngine.close();
+    }
+
+    @Test
+    public void playAgainstVersionTwoAsCreator() throws IOException, InterruptedException, GameException {
+        playAgainstVersionTwo(true);
+    }
+
+    @Test
+    public void playAgainstVersionTwoAsJoiner() throws IOException, InterruptedException, GameException {
+        playAgainstVersionTwo(false);
+    }
+
+    @Test
+    public void closeSessionWithForeignProtocol() throws IOException, InterruptedException {
+        InProcessPipeTransport transport = new InProcessPipeTransport();
+        BattleshipProtocolEngine friedrichProtocolEngine = createProtocolEngine(FRIEDRICH, BattleshipProtocolEngine.DEFAULT_CAPABILITIES, new CountDownLatch(1));
+        StreamConnection friedrichConnection = transport.connect(true, FRIEDRICH);
+        friedrichProtocolEngine.handleConnection(friedrichConnection.getInputStream(), friedrichConnection.getOutputStream());
+
+        // Sabine sends her name like the protocol did before the versioned handshake
+        DataOutputStream sabineOutputStream = new DataOutputStream(transport.connect(false, SABINE).getOutputStream());
+        sabineOutputStream.writeUTF(SABINE);
+        sabineOutputStream.writeUTF(SABINE);
+        sabineOutputStream.flush();
+
+        for (int i = 0; i < 100 && !friedrichProtocolEngine.isClosed(); i++) {
+            Thread.sleep(50);
+        }
+        Assert.assertTrue(friedrichProtocolEngine.isClosed());
+    }
+
+    @Test
+    public void closeSessionWithDifferentBoardDimension() throws IOException, InterruptedException {
+        InProcessPipeTransport transport = new InProcessPipeTransport();
+        CountDownLatch established = new CountDownLatch(2);
+        BattleshipProtocolEngine friedrichProtocolEngine = createProtocolEngine(FRIEDRICH, BattleshipProtocolEngine.DEFAULT_CAPABILITIES, established);
+        BattleshipProtocolEngine sabineProtocolEngine = createProtocolEngine(SABINE, BattleshipProtocolEngine.DEFAULT_CAPABILITIES, established);
+        sabineProtocolEngine.setBoardDimension(1_000);
+
+        StreamConnection friedrichConnection = transport.connect(true, FRIEDRICH);
+        StreamConnection sabineConnection = transport.connect(false, SABINE);
+        friedrichProtocolEngine.handleConnection(friedrichConnection.getInputStream(), friedrichConnection.getOutputStream());
+        sabineProtocolEngine.handleConnection(sabineConnection.getInputStream(), sabineConnection.getOutputStream());
+
+        for (int i = 0; i < 100 && !(friedrichProtocolEngine.isClosed() && sabineProtocolEngine.isClosed()); i++) {
+            Thread.sleep(50);
+        }
+        Assert.assertTrue(friedrichProtocolEngine.isClosed());
+        Assert.assertTrue(sabineProtocolEngine.isClosed());
+        Assert.assertEquals(2, established.getCount());
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                          helper methods                                                //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Sabine acts like a client of version 2, which knows the frames, but sends no board
+     * dimension and expects the first frame right after the handshake.
+     */
+    private static void playAgainstVersionTwo(boolean friedrichAsServer) throws IOException, InterruptedException, GameException {
+        InProcessPipeTransport transport = new InProcessPipeTransport();
+        CountDownLatch established = new CountDownLatch(1);
+        BattleshipImpl friedrich = new BattleshipImpl(FRIEDRICH);
+        BattleshipProtocolEngine friedrichProtocolEngine = new BattleshipProtocolEngine(friedrich, FRIEDRICH);
+        friedrich.setProtocolEngine(friedrichProtocolEngine);
+        friedrichProtocolEngine.subscribeGameSessionEstablishedListener((coinToss, partnerName) -> established.countDown());
+        StreamConnection friedrichConnection = transport.connect(friedrichAsServer, FRIEDRICH);
+        StreamConnection sabineConnection = transport.connect(!friedrichAsServer, SABINE);
+        friedrichProtocolEngine.handleConnection(friedrichConnection.getInputStream(), friedrichConnection.getOutputStream());
+
+        DataOutputStream sabineOutputStream = new DataOutputStream(sabineConnection.getOutputStream());
+        sabineOutputStream.writeInt(BattleshipProtocolEngine.HANDSHAKE_MAGIC);
+        sabineOutputStream.writeShort(2);
+        sabineOutputStream.writeInt(0);
+        sabineOutputStream.writeUTF(SABINE);
+        // The first frame follows the handshake at once
+        FrameBuffer frameBuffer = new FrameBuffer();
+        DataOutputStream payload = frameBuffer.beginFrame(BattleshipProtocolEngine.METHOD_DO_CHANGE_STATUS);
+        payload.writeInt(BattleshipProtocolEngine.GAME_STATUS_All_SHIPS_ARE_SET);
+        payload.writeBoolean(true);
+        frameBuffer.endFrame();
+        frameBuffer.writeTo(sabineOutputStream);
+        sabineOutputStream.flush();
+
+        DataInputStream sabineInputStream = new DataInputStream(sabineConnection.getInputStream());
+        Assert.assertEquals(BattleshipProtocolEngine.HANDSHAKE_MAGIC, sabineInputStream.readInt());
+        Assert.assertEquals(BattleshipProtocolEngine.PROTOCOL_VERSION, sabineInputStream.readUnsignedShort());
+        sabineInputStream.readInt();
+        Assert.assertEquals(FRIEDRICH, sabineInputStream.readUTF());
+
+        Assert.assertTrue(established.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(2, friedrichProtocolEngine.getProtocolVersion());
+        Assert.assertTrue(friedrich.battleshipEngine.awaitGameStatus(
+                (yourGameStatus, enemiesGameStatus) -> enemiesGameStatus == GameStatus.All_SHIPS_ARE_SET, 5_000));
+
+        // Friedrich's first frame must follow his handshake at once as well
+        friedrichProtocolEngine.doSendHeartbeat();
+        Assert.assertEquals(BattleshipProtocolEngine.METHOD_HEARTBEAT, new FrameReader(sabineInputStream).readFrame());
+        friedrichProtocolEngine.close();
+    }
+
+    private static BattleshipProtocolEngine[] connect(int friedrichCapabilities, int sabineCapabilities) throws IOException, InterruptedException {
+        InProcessPipeTransport transport = new InProcessPipeTransport();
+        CountDownLatch established = new CountDownLatch(2);
+        BattleshipProtocolEngine friedrichProtocolEngine = createProtocolEngine(FRIEDRICH, friedrichCapabilities, established);
+        BattleshipProtocolEngine sabineProtocolEngine = createProtocolEngine(SABINE, sabineCapabilities, established);
+
+        StreamConnection friedrichConnection = transport.connect(true, FRIEDRICH);
+        StreamConnection sabineConnection = transport.connect(false, SABINE);
+        friedrichProtocolEngine.handleConnection(friedrichConnection.getInputStream(), friedrichConnection.getOutputStream());
+        sabineProtocolEngine.handleConnection(sabineConnection.getInputStream(), sabineConnection.getOutputStream());
+
+        Assert.assertTrue(established.await(5, TimeUnit.SECONDS));
+        return new BattleshipProtocolEngine[]{friedrichProtocolEngine, sabineProtocolEngine};
+    }
+
+    private static BattleshipProtocolEngine createProtocolEngine(String name, int capabilities, CountDownLatch established) {
+        BattleshipImpl battleship = new BattleshipImpl(name);
+        BattleshipProtocolEngine protocolEngine = new BattleshipProtocolEngine(battleship, name);
+        battleship.setProtocolEngine(protocolEngine);
+        protocolEngine.setOfferedCapabilities(capabilities);
+        protocolEngine.subscribeGameSessionEstablishedListener((coinToss, partnerName) -> established.countDown());
+        return protocolEngine;
+    }
+}
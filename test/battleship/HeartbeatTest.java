@@ -0,0 +1,79 @@
+package battleship;
+
+import network.InProcessPipeTransport;
+import network.StreamConnection;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * This test class tests that heartbeats keep a quiet session
+ * alive and that a session without any heartbeat is closed.
+ *
+ * @author friedrichvoelkers
+ */
+public class HeartbeatTest {
+
+    public static final String FRIEDRICH = "Friedrich";
+    public static final String SABINE = "Sabine";
+    public static final long HEARTBEAT_INTERVAL_IN_MILLIS = 100;
+    public static final long IDLE_TIMEOUT_IN_MILLIS = 500;
+
+    @Test
+    public void heartbeatsKeepSessionAlive() throws IOException, InterruptedException {
+        InProcessPipeTransport transport = new InProcessPipeTransport();
+        BattleshipProtocolEngine friedrichProtocolEngine = createProtocolEngine(FRIEDRICH, transport.connect(true, FRIEDRICH));
+        BattleshipProtocolEngine sabineProtocolEngine = createProtocolEngine(SABINE, transport.connect(false, SABINE));
+
+        Thread.sleep(3 * IDLE_TIMEOUT_IN_MILLIS);
+        Assert.assertFalse(friedrichProtocolEngine.isClosed());
+        Assert.assertFalse(sabineProtocolEngine.isClosed());
+
+        friedrichProtocolEngine.close();
+        sabineProtocolEngine.close();
+    }
+
+    @Test
+    public void closeAbandonedSession() throws IOException, InterruptedException {
+        InProcessPipeTransport transport = new InProcessPipeTransport();
+        BattleshipProtocolEngine friedrichProtocolEngine = createProtocolEngine(FRIEDRICH, transport.connect(true, FRIEDRICH));
+
+        // Sabine only sends her handshake and then stops answering like a crashed client
+        DataOutputStream sabineOutputStream = new DataOutputStream(transport.connect(false, SABINE).getOutputStream());
+        sabineOutputStream.writeInt(BattleshipProtocolEngine.HANDSHAKE_MAGIC);
+        sabineOutputStream.writeShort(BattleshipProtocolEngine.PROTOCOL_VERSION);
+        sabineOutputStream.writeInt(BattleshipProtocolEngine.DEFAULT_CAPABILITIES);
+        sabineOutputStream.writeUTF(SABINE);
+        sabineOutputStream.writeInt(BattleshipEngine.STANDARD_DIMENSION);
+
+        for (int i = 0; i < 100 && !friedrichProtocolEngine.isClosed(); i++) {
+            Thread.sleep(50);
+        }
+        Assert.assertTrue(friedrichProtocolEngine.isClosed());
+    }
+
+    @Test
+    public void closeSessionWithoutHandshake() throws IOException, InterruptedException {
+        InProcessPipeTransport transport = new InProcessPipeTransport();
+        BattleshipProtocolEngine friedrichProtocolEngine = createProtocolEngine(FRIEDRICH, transport.connect(true, FRIEDRICH));
+
+        // Sabine connects, but never sends her handshake
+        transport.connect(false, SABINE);
+
+        for (int i = 0; i < 100 && !friedrichProtocolEngine.isClosed(); i++) {
+            Thread.sleep(50);
+        }
+        Assert.assertTrue(friedrichProtocolEngine.isClosed());
+    }
+
+    private static BattleshipProtocolEngine createProtocolEngine(String name, StreamConnection streamConnection) throws IOException {
+        BattleshipImpl battleship = new BattleshipImpl(name);
+        BattleshipProtocolEngine protocolEngine = new BattleshipProtocolEngine(battleship, name);
+        battleship.setProtocolEngine(protocolEngine);
+        protocolEngine.setHeartbeat(HEARTBEAT_INTERVAL_IN_MILLIS, IDLE_TIMEOUT_IN_MILLIS);
+        protocolEngine.handleConnection(streamConnection.getInputStream(), streamConnection.getOutputStream());
+        return protocolEngine;
+    }
+}
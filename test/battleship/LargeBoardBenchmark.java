@@ -0,0 +1,97 @@
+package battleship;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This benchmark measures the memory and the time per shot of boards of growing
+ * size. For every dimension it creates a number of engines, places the ten ships
+ * of the tests in the lower right corner of your board and shoots at a fixed
+ * number of fields of both boards. The memory is the growth of the used heap
+ * after a garbage collection, divided by the number of engines.
+ * <p>
+ * Usage: LargeBoardBenchmark [engines] [shots]
+ *
+ * @author friedrichvoelkers
+ */
+public class LargeBoardBenchmark {
+
+    private static final int[] DIMENSIONS = {10, 100, 1_000, 10_000};
+
+    public static void main(String[] args) throws GameException {
+        int numberOfEngines = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int numberOfShots = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+
+        System.out.println("engines: " + numberOfEngines + ", shots: " + numberOfShots);
+        for (int dimension : DIMENSIONS) {
+            Coordinate[] fields = createFields(dimension, numberOfShots);
+            List<Ship> ships = createTenCorrectShips(dimension);
+
+            long usedBefore = usedMemory();
+            List<BattleshipEngine> battleshipEngines = new ArrayList<>();
+            long nanos = 0;
+            for (int i = 0; i < numberOfEngines; i++) {
+                BattleshipEngine battleshipEngine = new BattleshipEngine(dimension);
+                for (Ship ship : ships) battleshipEngine.getYourBattleshipBoard().addShip(ship);
+                nanos += shoot(battleshipEngine, fields);
+                battleshipEngines.add(battleshipEngine);
+            }
+            long bytesPerEngine = (usedMemory() - usedBefore) / numberOfEngines;
+
+            System.out.printf("%6d x %-6d %12d bytes/engine, %6.1f ns/shot, %d engines%n", dimension, dimension,
+                    bytesPerEngine, nanos / (double) numberOfEngines / fields.length, battleshipEngines.size());
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                           measurements                                                 //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static long shoot(BattleshipEngine battleshipEngine, Coordinate[] fields) {
+        BattleshipBoard yourBoard = battleshipEngine.getYourBattleshipBoard();
+        BattleshipBoard enemiesBoard = battleshipEngine.getEnemysBattleshipBoard();
+        long start = System.nanoTime();
+        for (Coordinate field : fields) {
+            boolean hit = yourBoard.getFieldStatus(field) == BattleshipFieldStatus.SHIP_NO_SHOOT;
+            yourBoard.setFieldStatus(hit ? BattleshipFieldStatus.SHIP_SHOOT : BattleshipFieldStatus.EMPTY_SHOOT, field);
+            enemiesBoard.setFieldStatus(hit ? BattleshipFieldStatus.SHIP_SHOOT : BattleshipFieldStatus.EMPTY_SHOOT, field);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                          helper methods                                                //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @return Fields spread over the whole board; small boards get every field at most once.
+     */
+    private static Coordinate[] createFields(int dimension, int numberOfShots) throws GameException {
+        int numberOfFields = (int) Math.min((long) dimension * dimension, numberOfShots);
+        long step = (long) dimension * dimension / numberOfFields;
+        Coordinate[] fields = new Coordinate[numberOfFields];
+        for (int i = 0; i < numberOfFields; i++) {
+            long field = i * step;
+            fields[i] = Coordinate.of((int) (field / dimension), (int) (field % dimension), dimension);
+        }
+        return fields;
+    }
+
+    private static List<Ship> createTenCorrectShips(int dimension) throws GameException {
+        int offset = dimension - BattleshipEngine.STANDARD_DIMENSION;
+        int[][] ships = {{0, 0, 0, 1}, {0, 3, 3, 3}, {0, 6, 0, 9}, {3, 0, 5, 0}, {2, 5, 2, 7},
+                {2, 9, 3, 9}, {5, 5, 6, 5}, {5, 9, 7, 9}, {7, 0, 7, 1}, {9, 5, 9, 9}};
+        List<Ship> tenCorrectShips = new ArrayList<>();
+        for (int[] ship : ships) {
+            tenCorrectShips.add(new Ship(Coordinate.of(ship[0] + offset, ship[1] + offset, dimension),
+                    Coordinate.of(ship[2] + offset, ship[3] + offset, dimension)));
+        }
+        return tenCorrectShips;
+    }
+}
@@ -0,0 +1,64 @@
+package battleship;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This test class tests games on boards larger than the standard board.
+ *
+ * @author friedrichvoelkers
+ */
+public class LargeBoardTest {
+
+    public static final String FRIEDRICH = "Friedrich";
+
+    @Test
+    public void largeBoardStoresOnlyShipsAndShots() throws GameException {
+        int dimension = BattleshipEngine.MAX_DIMENSION;
+        BattleshipImpl battleship = new BattleshipImpl(FRIEDRICH, dimension);
+        battleship.doSetFleet(TwoPlayerGame.createTenCorrectShips(dimension - BattleshipEngine.STANDARD_DIMENSION, dimension));
+        BattleshipBoard battleshipBoard = battleship.battleshipEngine.getYourBattleshipBoard();
+        Assert.assertEquals(30, battleshipBoard.getNumberOfStoredFields());
+
+        battleship.doFire(Coordinate.of(5_000, 5_000, dimension), true);
+        battleship.doFire(Coordinate.of(9_999, 9_999, dimension), true);
+        Assert.assertEquals(31, battleshipBoard.getNumberOfStoredFields());
+        Assert.assertSame(BattleshipFieldStatus.EMPTY_SHOOT, battleshipBoard.getFieldStatus(Coordinate.of(5_000, 5_000, dimension)));
+        Assert.assertSame(BattleshipFieldStatus.SHIP_SHOOT, battleshipBoard.getFieldStatus(Coordinate.of(9_999, 9_999, dimension)));
+        Assert.assertSame(BattleshipFieldStatus.EMPTY_NO_SHOOT, battleshipBoard.getFieldStatus(Coordinate.of(0, 0, dimension)));
+    }
+
+    @Test(expected = GameException.class)
+    public void coordinateOutsideTheLargeBoard() throws GameException {
+        Coordinate.of(BattleshipEngine.MAX_DIMENSION, 0, BattleshipEngine.MAX_DIMENSION);
+    }
+
+    @Test(expected = GameException.class)
+    public void shipOutsideTheStandardBoard() throws GameException {
+        BattleshipImpl battleship = new BattleshipImpl(FRIEDRICH);
+        battleship.doSetFleet(TwoPlayerGame.createTenCorrectShips(10, 20));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooLargeBoard() {
+        new BattleshipImpl(FRIEDRICH, BattleshipEngine.MAX_DIMENSION + 1);
+    }
+
+    @Test
+    public void fireOnLargeBoard() throws Exception {
+        int dimension = 1_000;
+        BattleshipImpl[] players = TwoPlayerGame.connect(dimension,
+                BattleshipProtocolEngine.DEFAULT_CAPABILITIES, BattleshipProtocolEngine.DEFAULT_CAPABILITIES);
+        BattleshipImpl shooter = TwoPlayerGame.startGame(players[0], players[1])[0];
+
+        // The coordinates of the fire result do not fit into a byte any more
+        FireResult fireResult = shooter.fire(Coordinate.of(999, 999, dimension)).get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(999, fireResult.getCoordinate().getxCoordinate());
+        Assert.assertEquals(999, fireResult.getCoordinate().getyCoordinate());
+        Assert.assertSame(BattleshipFieldStatus.SHIP_NO_SHOOT, fireResult.getBattleshipFieldStatus());
+        Assert.assertSame(BattleshipFieldStatus.SHIP_SHOOT,
+                shooter.battleshipEngine.getEnemysBattleshipBoard().getFieldStatus(Coordinate.of(999, 999, dimension)));
+    }
+}
@@ -0,0 +1,137 @@
+package battleship;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This benchmark measures the neighbour check a bot runs for every candidate
+ * placement of a ship. It places nine of the ten ships of the tests and checks
+ * every placement of the lengths two to five on the board, many of them at the
+ * edges. The check of the engine is compared with the former check, which
+ * created a coordinate for every neighbour field and caught the exception of
+ * the fields outside the board, and with the BitBoard. Larger boards use the
+ * same fleet in their upper left corner: 50 x 50 is stored densely, 1,000 x 1,000
+ * sparsely.
+ * <p>
+ * Usage: PlacementBenchmark [rounds]
+ *
+ * @author friedrichvoelkers
+ */
+public class PlacementBenchmark {
+
+    private static final int[] DIMENSIONS = {BattleshipEngine.STANDARD_DIMENSION, 50, 1_000};
+
+    public static void main(String[] args) throws GameException {
+        int numberOfRounds = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+
+        System.out.println("rounds: " + numberOfRounds);
+        for (int dimension : DIMENSIONS) {
+            BattleshipEngine battleshipEngine = new BattleshipEngine(dimension);
+            BitBoard bitBoard = new BitBoard(true);
+            List<Ship> ships = createNineShips(dimension);
+            for (Ship ship : ships) {
+                battleshipEngine.getYourBattleshipBoard().addShip(ship);
+                if (dimension == BattleshipEngine.STANDARD_DIMENSION) bitBoard.addShip(ship);
+            }
+            Ship[] candidates = createCandidates(Math.min(dimension, 20), dimension);
+
+            // The first round warms up the JIT
+            for (int round = 0; round < 2; round++) {
+                long[] engine = measure(candidates, numberOfRounds, battleshipEngine::checkIfTheShipHasDirectNeighbours);
+                long[] exceptions = measure(candidates, numberOfRounds / 20,
+                        ship -> checkWithExceptions(battleshipEngine, ship, dimension));
+                long[] bits = dimension == BattleshipEngine.STANDARD_DIMENSION ?
+                        measure(candidates, numberOfRounds, bitBoard::checkIfTheShipHasDirectNeighbours) : null;
+                if (round == 1) {
+                    System.out.println(dimension + " x " + dimension + ", " + candidates.length + " candidates");
+                    System.out.println(report("engine", engine));
+                    System.out.println(report("exceptions", exceptions));
+                    if (bits != null) System.out.println(report("BitBoard", bits));
+                }
+            }
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                           measurements                                                 //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private interface NeighbourCheck {
+        boolean hasDirectNeighbours(Ship ship);
+    }
+
+    /**
+     * @return The nanoseconds, the allocated bytes and the number of checks.
+     */
+    private static long[] measure(Ship[] candidates, int numberOfRounds, NeighbourCheck neighbourCheck) {
+        long numberOfFreePlacements = 0;
+        long allocatedBytes = allocatedBytes();
+        long start = System.nanoTime();
+        for (int round = 0; round < numberOfRounds; round++) {
+            for (Ship candidate : candidates) {
+                if (!neighbourCheck.hasDirectNeighbours(candidate)) numberOfFreePlacements++;
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        allocatedBytes = allocatedBytes() - allocatedBytes;
+        if (numberOfFreePlacements == 0) throw new IllegalStateException("no free placement");
+        return new long[]{nanos, allocatedBytes, (long) numberOfRounds * candidates.length};
+    }
+
+    // The check before the halo masks
+    private static boolean checkWithExceptions(BattleshipEngine battleshipEngine, Ship ship, int dimension) {
+        for (Coordinate coordinate : ship.getCoordinates()) {
+            for (int i = coordinate.getxCoordinate() - 1; i <= coordinate.getxCoordinate() + 1; i++) {
+                for (int j = coordinate.getyCoordinate() - 1; j <= coordinate.getyCoordinate() + 1; j++) {
+                    try {
+                        if (battleshipEngine.getYourBattleshipBoard().getFieldStatus(Coordinate.of(i, j, dimension)) == BattleshipFieldStatus.SHIP_NO_SHOOT)
+                            return true;
+                    } catch (GameException ignored) {
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                          helper methods                                                //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static String report(String name, long[] measurement) {
+        double checks = measurement[2];
+        return String.format("  %-10s %7.1f ns/check, %6.1f million checks/s, %6.1f bytes/check", name,
+                measurement[0] / checks, checks * 1_000 / measurement[0], measurement[1] / checks);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * @return All placements of the lengths two to five in the area of size x size fields.
+     */
+    private static Ship[] createCandidates(int size, int dimension) throws GameException {
+        List<Ship> candidates = new ArrayList<>();
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                for (int length = 2; length <= 5; length++) {
+                    if (y + length <= size) candidates.add(new Ship(Coordinate.of(x, y, dimension), Coordinate.of(x, y + length - 1, dimension)));
+                    if (x + length <= size) candidates.add(new Ship(Coordinate.of(x, y, dimension), Coordinate.of(x + length - 1, y, dimension)));
+                }
+            }
+        }
+        return candidates.toArray(new Ship[0]);
+    }
+
+    private static List<Ship> createNineShips(int dimension) throws GameException {
+        int[][] ships = {{0, 0, 0, 1}, {0, 3, 3, 3}, {0, 6, 0, 9}, {3, 0, 5, 0}, {2, 5, 2, 7},
+                {2, 9, 3, 9}, {5, 5, 6, 5}, {5, 9, 7, 9}, {7, 0, 7, 1}};
+        List<Ship> nineShips = new ArrayList<>();
+        for (int[] ship : ships) {
+            nineShips.add(new Ship(Coordinate.of(ship[0], ship[1], dimension), Coordinate.of(ship[2], ship[3], dimension)));
+        }
+        return nineShips;
+    }
+}
@@ -0,0 +1,89 @@
+package battleship;
+
+import network.InProcessPipeTransport;
+import network.StreamConnection;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This test class tests that a salvo is sent in one message and
+ * all results come back in one answer, and that a salvo with more
+ * shots than a fleet has ships closes the session.
+ *
+ * @author friedrichvoelkers
+ */
+public class SalvoTest {
+
+    @Test
+    public void fireSalvo() throws IOException, InterruptedException, GameException {
+        BattleshipImpl[] players = TwoPlayerGame.connect(BattleshipEngine.STANDARD_DIMENSION,
+                BattleshipProtocolEngine.DEFAULT_CAPABILITIES, BattleshipProtocolEngine.DEFAULT_CAPABILITIES);
+        BattleshipImpl friedrich = players[0];
+        BattleshipImpl sabine = players[1];
+
+        // Sabine places her ships after she knows Friedrich's, so only one of them decides who starts
+        placeShips(friedrich);
+        TwoPlayerGame.awaitEnemiesShipsAreSet(sabine);
+        placeShips(sabine);
+        BattleshipImpl[] shooterAndTarget = TwoPlayerGame.awaitGameStarted(friedrich, sabine);
+        BattleshipImpl shooter = shooterAndTarget[0];
+        BattleshipImpl target = shooterAndTarget[1];
+
+        CountDownLatch results = new CountDownLatch(3);
+        shooter.subscribeGameEventListener((gameEvent, firstValue, secondValue) -> results.countDown());
+        shooter.doFireSalvo(List.of(new Coordinate(0, 0), new Coordinate(0, 1), new Coordinate(4, 4)), false);
+        Assert.assertTrue(results.await(5, TimeUnit.SECONDS));
+
+        BattleshipBoard enemysBattleshipBoard = shooter.battleshipEngine.getEnemysBattleshipBoard();
+        Assert.assertSame(BattleshipFieldStatus.SHIP_SHOOT, enemysBattleshipBoard.getFieldStatus(new Coordinate(0, 0)));
+        Assert.assertSame(BattleshipFieldStatus.SHIP_SHOOT, enemysBattleshipBoard.getFieldStatus(new Coordinate(0, 1)));
+        Assert.assertSame(BattleshipFieldStatus.EMPTY_SHOOT, enemysBattleshipBoard.getFieldStatus(new Coordinate(4, 4)));
+        Assert.assertSame(GameStatus.PLAYING_ENEMY_TURN, shooter.battleshipEngine.getYourGameStatus());
+        Assert.assertSame(GameStatus.PLAYING_YOUR_TURN, target.battleshipEngine.getYourGameStatus());
+    }
+
+    // BattleshipImpl refuses such a salvo, so Friedrich sends it with his protocol engine
+    @Test
+    public void closeSessionOnTooLargeSalvo() throws IOException, InterruptedException, GameException, TimeoutException {
+        InProcessPipeTransport transport = new InProcessPipeTransport();
+        CountDownLatch established = new CountDownLatch(2);
+        BattleshipImpl friedrich = new BattleshipImpl(TwoPlayerGame.FRIEDRICH);
+        BattleshipProtocolEngine friedrichProtocolEngine = new BattleshipProtocolEngine(friedrich, TwoPlayerGame.FRIEDRICH);
+        friedrich.setProtocolEngine(friedrichProtocolEngine);
+        friedrichProtocolEngine.subscribeGameSessionEstablishedListener((coinToss, partnerName) -> established.countDown());
+        StreamConnection friedrichConnection = transport.connect(true, TwoPlayerGame.FRIEDRICH);
+        friedrichProtocolEngine.handleConnection(friedrichConnection.getInputStream(), friedrichConnection.getOutputStream());
+        TwoPlayerGame.createBattleship(TwoPlayerGame.SABINE, BattleshipEngine.STANDARD_DIMENSION,
+                BattleshipProtocolEngine.DEFAULT_CAPABILITIES, transport.connect(false, TwoPlayerGame.SABINE), established);
+        Assert.assertTrue(established.await(TwoPlayerGame.TIMEOUT_IN_MILLIS, TimeUnit.MILLISECONDS));
+
+        List<Coordinate> coordinates = new ArrayList<>();
+        for (int i = 0; i <= BattleshipEngine.MAX_SALVO_SIZE; i++) coordinates.add(Coordinate.of(i % 10, i / 10));
+        CompletableFuture<List<FireResult>> future = friedrichProtocolEngine.doFireSalvoAsync(coordinates);
+
+        // Sabine closes the session, so the salvo fails long before the idle timeout
+        try {
+            future.get(TwoPlayerGame.TIMEOUT_IN_MILLIS, TimeUnit.MILLISECONDS);
+            Assert.fail("The salvo was answered.");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(friedrichProtocolEngine.isClosed());
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                          helper methods                                                //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static void placeShips(BattleshipImpl battleship) throws GameException {
+        for (Ship ship : TwoPlayerGame.createTenCorrectShips()) battleship.doSetShips(ship.getStartCoordinate(), ship.getEndCoordinate());
+    }
+}
@@ -0,0 +1,96 @@
+package battleship;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This benchmark measures the checks after a hit in long games with big fleets.
+ * For every fleet size it fills a board with ships of length five, shoots at
+ * every field of every ship and asks after each hit whether the ship is sunk and
+ * whether all ships are sunk. The counters of the ships and the board are
+ * compared with a scan over the coordinates of the fleet, which is how both
+ * questions were answered before.
+ * <p>
+ * Usage: SunkCheckBenchmark [rounds]
+ *
+ * @author friedrichvoelkers
+ */
+public class SunkCheckBenchmark {
+
+    private static final int SHIP_LENGTH = 5;
+    private static final int[] DIMENSIONS = {10, 30, 100, 300};
+
+    public static void main(String[] args) throws GameException {
+        int numberOfRounds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+
+        System.out.println("rounds: " + numberOfRounds);
+        // The first round warms up the JIT
+        for (int round = 0; round <= numberOfRounds; round++) {
+            for (int dimension : DIMENSIONS) {
+                long countersNanos = measure(dimension, false);
+                long scanNanos = measure(dimension, true);
+                if (round == numberOfRounds) {
+                    int numberOfHits = createFleet(dimension).size() * SHIP_LENGTH;
+                    System.out.printf("%4d x %-4d %5d ships  counters: %8.1f ns/hit  scan: %10.1f ns/hit%n", dimension, dimension,
+                            numberOfHits / SHIP_LENGTH, countersNanos / (double) numberOfHits, scanNanos / (double) numberOfHits);
+                }
+            }
+        }
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                           measurements                                                 //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static long measure(int dimension, boolean scan) throws GameException {
+        List<Ship> fleet = createFleet(dimension);
+        BattleshipBoard battleshipBoard = new BattleshipBoard(true, dimension);
+        for (Ship ship : fleet) battleshipBoard.addShip(ship);
+
+        long numberOfSunkShips = 0;
+        boolean allShipsAreSunk = false;
+        long start = System.nanoTime();
+        for (Ship ship : fleet) {
+            for (Coordinate coordinate : ship.getCoordinates()) {
+                battleshipBoard.setFieldStatus(BattleshipFieldStatus.SHIP_SHOOT, coordinate);
+                Ship shipOnTheCoordinate = battleshipBoard.getShipOnACoordinate(coordinate);
+                if (scan ? scanIfShipIsSunk(shipOnTheCoordinate) : Ship.checkIfShipIsCompleteyShoot(shipOnTheCoordinate)) numberOfSunkShips++;
+                allShipsAreSunk = scan ? scanIfAllShipsAreSunk(fleet) : battleshipBoard.checkIfAllShipsAreShoot();
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        if (numberOfSunkShips != fleet.size() || !allShipsAreSunk) throw new IllegalStateException("the fleet was not sunk");
+        return nanos;
+    }
+
+    private static boolean scanIfShipIsSunk(Ship ship) {
+        for (Coordinate coordinate : ship.getCoordinates()) {
+            if (coordinate.getBattleshipFieldStatus() != BattleshipFieldStatus.SHIP_SHOOT) return false;
+        }
+        return true;
+    }
+
+    private static boolean scanIfAllShipsAreSunk(List<Ship> fleet) {
+        for (Ship ship : fleet) {
+            if (!scanIfShipIsSunk(ship)) return false;
+        }
+        return true;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                          helper methods                                                //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @return Ships of length five in every second row, with one free field between them.
+     */
+    private static List<Ship> createFleet(int dimension) throws GameException {
+        List<Ship> fleet = new ArrayList<>();
+        for (int x = 0; x < dimension; x += 2) {
+            for (int y = 0; y + SHIP_LENGTH <= dimension; y += SHIP_LENGTH + 1) {
+                fleet.add(new Ship(Coordinate.of(x, y, dimension), Coordinate.of(x, y + SHIP_LENGTH - 1, dimension)));
+            }
+        }
+        return fleet;
+    }
+}
@@ -0,0 +1,112 @@
+package battleship;
+
+import network.InProcessPipeTransport;
+import network.StreamConnection;
+import org.junit.Assert;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connects two players over an InProcessPipeTransport and starts their game
+ * for the tests that play over the protocol engine. The helpers block on the
+ * GameStatus of the engines instead of polling it.
+ *
+ * @author friedrichvoelkers
+ */
+final class TwoPlayerGame {
+
+    static final String FRIEDRICH = "Friedrich";
+    static final String SABINE = "Sabine";
+    static final long TIMEOUT_IN_MILLIS = 5_000;
+
+    private TwoPlayerGame() {
+    }
+
+    /**
+     * @return Friedrich and Sabine after both have finished the handshake.
+     */
+    static BattleshipImpl[] connect(int dimension, int friedrichsCapabilities, int sabinesCapabilities) throws IOException, InterruptedException {
+        InProcessPipeTransport transport = new InProcessPipeTransport();
+        CountDownLatch established = new CountDownLatch(2);
+        BattleshipImpl friedrich = createBattleship(FRIEDRICH, dimension, friedrichsCapabilities, transport.connect(true, FRIEDRICH), established);
+        BattleshipImpl sabine = createBattleship(SABINE, dimension, sabinesCapabilities, transport.connect(false, SABINE), established);
+        Assert.assertTrue(established.await(TIMEOUT_IN_MILLIS, TimeUnit.MILLISECONDS));
+        return new BattleshipImpl[]{friedrich, sabine};
+    }
+
+    static BattleshipImpl createBattleship(String name, int dimension, int capabilities, StreamConnection streamConnection,
+                                           CountDownLatch established) throws IOException {
+        BattleshipImpl battleship = new BattleshipImpl(name, dimension);
+        BattleshipProtocolEngine protocolEngine = new BattleshipProtocolEngine(battleship, name);
+        battleship.setProtocolEngine(protocolEngine);
+        protocolEngine.setOfferedCapabilities(capabilities);
+        protocolEngine.subscribeGameSessionEstablishedListener((coinToss, partnerName) -> established.countDown());
+        protocolEngine.handleConnection(streamConnection.getInputStream(), streamConnection.getOutputStream());
+        return battleship;
+    }
+
+    /**
+     * Both players place the ten correct ships with one fleet message. Sabine places her
+     * fleet after she knows Friedrich's, so only one of them decides who starts.
+     *
+     * @return The player whose turn it is and the other player.
+     */
+    static BattleshipImpl[] startGame(BattleshipImpl friedrich, BattleshipImpl sabine) throws GameException, InterruptedException {
+        int dimension = friedrich.battleshipEngine.getDimension();
+        int offset = dimension - BattleshipEngine.STANDARD_DIMENSION;
+        friedrich.doSetFleet(createTenCorrectShips(offset, dimension));
+        awaitEnemiesShipsAreSet(sabine);
+        sabine.doSetFleet(createTenCorrectShips(offset, dimension));
+        return awaitGameStarted(friedrich, sabine);
+    }
+
+    static void awaitEnemiesShipsAreSet(BattleshipImpl battleship) throws InterruptedException {
+        Assert.assertTrue(battleship.battleshipEngine.awaitGameStatus(
+                (yourGameStatus, enemiesGameStatus) -> enemiesGameStatus == GameStatus.All_SHIPS_ARE_SET, TIMEOUT_IN_MILLIS));
+    }
+
+    /**
+     * Waits until both players agree on whose turn it is.
+     *
+     * @return The player whose turn it is and the other player.
+     */
+    static BattleshipImpl[] awaitGameStarted(BattleshipImpl friedrich, BattleshipImpl sabine) throws InterruptedException {
+        Assert.assertTrue(friedrich.battleshipEngine.awaitGameStatus(
+                (yourGameStatus, enemiesGameStatus) -> isYourTurn(yourGameStatus, enemiesGameStatus) ||
+                        isYourTurn(enemiesGameStatus, yourGameStatus), TIMEOUT_IN_MILLIS));
+        boolean friedrichStarts = friedrich.battleshipEngine.getYourGameStatus() == GameStatus.PLAYING_YOUR_TURN;
+        BattleshipImpl shooter = friedrichStarts ? friedrich : sabine;
+        BattleshipImpl target = friedrichStarts ? sabine : friedrich;
+
+        Assert.assertTrue(shooter.battleshipEngine.awaitGameStatus(TwoPlayerGame::isYourTurn, TIMEOUT_IN_MILLIS));
+        Assert.assertTrue(target.battleshipEngine.awaitGameStatus(
+                (yourGameStatus, enemiesGameStatus) -> isYourTurn(enemiesGameStatus, yourGameStatus), TIMEOUT_IN_MILLIS));
+        return new BattleshipImpl[]{shooter, target};
+    }
+
+    private static boolean isYourTurn(GameStatus yourGameStatus, GameStatus enemiesGameStatus) {
+        return yourGameStatus == GameStatus.PLAYING_YOUR_TURN && enemiesGameStatus == GameStatus.PLAYING_ENEMY_TURN;
+    }
+
+    static List<Ship> createTenCorrectShips() throws GameException {
+        return createTenCorrectShips(0, BattleshipEngine.STANDARD_DIMENSION);
+    }
+
+    /**
+     * @return The ten ships of the standard board, moved by the offset to the lower right.
+     */
+    static List<Ship> createTenCorrectShips(int offset, int dimension) throws GameException {
+        int[][] ships = {{0, 0, 0, 1}, {0, 3, 3, 3}, {0, 6, 0, 9}, {3, 0, 5, 0}, {2, 5, 2, 7},
+                {2, 9, 3, 9}, {5, 5, 6, 5}, {5, 9, 7, 9}, {7, 0, 7, 1}, {9, 5, 9, 9}};
+        List<Ship> tenCorrectShips = new ArrayList<>();
+        for (int[] ship : ships) {
+            tenCorrectShips.add(new Ship(Coordinate.of(ship[0] + offset, ship[1] + offset, dimension),
+                    Coordinate.of(ship[2] + offset, ship[3] + offset, dimension)));
+        }
+        return tenCorrectShips;
+    }
+}
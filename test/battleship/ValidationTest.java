@@ -0,0 +1,154 @@
+package battleship;
+
+import network.FrameBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * This test class tests the validate methods and that the protocol
+ * engine rejects frames with invalid values.
+ *
+ * @author friedrichvoelkers
+ */
+public class ValidationTest {
+
+    public static final String FRIEDRICH = "Friedrich";
+
+    @Test
+    public void validateCoordinates() {
+        Assert.assertSame(ValidationResult.VALID, Coordinate.validate(9, 9, BattleshipEngine.STANDARD_DIMENSION));
+        Assert.assertSame(ValidationResult.COORDINATE_NOT_ON_THE_BOARD, Coordinate.validate(-1, 0, BattleshipEngine.STANDARD_DIMENSION));
+        Assert.assertSame(ValidationResult.COORDINATE_NOT_ON_THE_BOARD, Coordinate.validate(0, 10, BattleshipEngine.STANDARD_DIMENSION));
+        Assert.assertSame(ValidationResult.VALID, Coordinate.validate(999, 0, 1_000));
+    }
+
+    @Test
+    public void validateShips() throws GameException {
+        Assert.assertSame(ValidationResult.SHIP_NOT_STRAIGHT, Ship.validate(new Coordinate(1, 1), new Coordinate(2, 2)));
+        Assert.assertSame(ValidationResult.VALID, Ship.validate(new Coordinate(1, 1), new Coordinate(1, 4)));
+
+        BattleshipEngine battleshipEngine = new BattleshipEngine();
+        battleshipEngine.getYourBattleshipBoard().addShip(new Ship(new Coordinate(9, 5), new Coordinate(9, 9)));
+        Assert.assertSame(ValidationResult.SHIP_NOT_ON_THE_BOARD,
+                battleshipEngine.validateShip(new Ship(Coordinate.of(8, 10, 20), Coordinate.of(8, 12, 20))));
+        Assert.assertSame(ValidationResult.SHIP_LENGTH_NOT_CORRECT, battleshipEngine.validateShip(new Ship(new Coordinate(0, 0), new Coordinate(0, 5))));
+        Assert.assertSame(ValidationResult.ALL_SHIPS_OF_THIS_LENGTH_SET, battleshipEngine.validateShip(new Ship(new Coordinate(0, 0), new Coordinate(0, 4))));
+        Assert.assertSame(ValidationResult.SHIP_HAS_DIRECT_NEIGHBOURS, battleshipEngine.validateShip(new Ship(new Coordinate(8, 5), new Coordinate(8, 6))));
+        Assert.assertSame(ValidationResult.VALID, battleshipEngine.validateShip(new Ship(new Coordinate(0, 0), new Coordinate(0, 1))));
+        Assert.assertSame(ValidationResult.SHIP_LENGTH_NOT_CORRECT, BattleshipEngine.validateShipLength(1));
+    }
+
+    // The UI still gets the exceptions with the messages it has always shown
+    @Test
+    public void throwingMethodsUseTheSameRules() throws GameException {
+        BattleshipEngine battleshipEngine = new BattleshipEngine();
+        battleshipEngine.getYourBattleshipBoard().addShip(new Ship(new Coordinate(9, 5), new Coordinate(9, 9)));
+        try {
+            battleshipEngine.checkIfShipCanBeAdded(new Ship(new Coordinate(0, 0), new Coordinate(0, 4)));
+            Assert.fail("The ship was added.");
+        } catch (GameException e) {
+            Assert.assertEquals("You have already set all ships of length 5.", e.getMessage());
+        }
+        try {
+            new Coordinate(10, 0);
+            Assert.fail("The coordinate was created.");
+        } catch (GameException e) {
+            Assert.assertEquals(ValidationResult.COORDINATE_NOT_ON_THE_BOARD.getMessage(), e.getMessage());
+        }
+    }
+
+    @Test
+    public void codesAreUnique() {
+        Set<Integer> codes = new HashSet<>();
+        for (ValidationResult validationResult : ValidationResult.values()) Assert.assertTrue(codes.add(validationResult.getCode()));
+        Assert.assertTrue(ValidationResult.VALID.isValid());
+        Assert.assertFalse(ValidationResult.WRONG_SALVO_SIZE.isValid());
+    }
+
+    @Test
+    public void rejectFireOutsideTheBoard() throws IOException, GameException {
+        FrameBuffer frameBuffer = new FrameBuffer();
+        DataOutputStream dataOutputStream = frameBuffer.beginFrame(BattleshipProtocolEngine.METHOD_DO_FIRE);
+        dataOutputStream.writeInt(10);
+        dataOutputStream.writeInt(3);
+        frameBuffer.endFrame();
+        assertRejected(frameBuffer);
+    }
+
+    @Test
+    public void rejectUnknownGameStatus() throws IOException, GameException {
+        FrameBuffer frameBuffer = new FrameBuffer();
+        DataOutputStream dataOutputStream = frameBuffer.beginFrame(BattleshipProtocolEngine.METHOD_DO_CHANGE_STATUS);
+        dataOutputStream.writeInt(99);
+        dataOutputStream.writeBoolean(true);
+        frameBuffer.endFrame();
+        assertRejected(frameBuffer);
+    }
+
+    @Test
+    public void rejectUnknownFieldStatus() throws IOException, GameException {
+        FrameBuffer frameBuffer = new FrameBuffer();
+        DataOutputStream dataOutputStream = frameBuffer.beginFrame(BattleshipProtocolEngine.METHOD_DO_SEND_FIRE_RESULT);
+        dataOutputStream.writeByte(99);
+        dataOutputStream.writeByte(0);
+        dataOutputStream.writeByte(0);
+        dataOutputStream.writeByte(BattleshipProtocolEngine.GAME_STATUS_PLAYING_ENEMY_TURN);
+        dataOutputStream.writeByte(BattleshipProtocolEngine.GAME_STATUS_PLAYING_YOUR_TURN);
+        dataOutputStream.writeByte(0);
+        frameBuffer.endFrame();
+        assertRejected(frameBuffer);
+    }
+
+    @Test
+    public void rejectWrongSalvoSize() throws IOException, GameException {
+        FrameBuffer frameBuffer = new FrameBuffer();
+        DataOutputStream dataOutputStream = frameBuffer.beginFrame(BattleshipProtocolEngine.METHOD_DO_FIRE_SALVO);
+        dataOutputStream.writeInt(BattleshipProtocolEngine.MAX_SALVO_SIZE + 1);
+        frameBuffer.endFrame();
+        assertRejected(frameBuffer);
+    }
+
+    @Test
+    public void rejectUnknownGameEvent() throws IOException, GameException {
+        FrameBuffer frameBuffer = new FrameBuffer();
+        DataOutputStream dataOutputStream = frameBuffer.beginFrame(BattleshipProtocolEngine.METHOD_DO_SEND_EVENT);
+        dataOutputStream.writeByte(200);
+        dataOutputStream.writeShort(0);
+        dataOutputStream.writeShort(0);
+        frameBuffer.endFrame();
+        assertRejected(frameBuffer);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                          helper methods                                                //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Reads the invalid frame and a heartbeat behind it: the first read closes the
+     * session without an exception and the heartbeat is not read any more.
+     */
+    private static void assertRejected(FrameBuffer frameBuffer) throws IOException, GameException {
+        frameBuffer.beginFrame(BattleshipProtocolEngine.METHOD_HEARTBEAT);
+        frameBuffer.endFrame();
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        frameBuffer.writeTo(byteArrayOutputStream);
+
+        BattleshipImpl battleship = new BattleshipImpl(FRIEDRICH);
+        BattleshipProtocolEngine protocolEngine = new BattleshipProtocolEngine(battleship, FRIEDRICH);
+        battleship.setProtocolEngine(protocolEngine);
+        protocolEngine.connect(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()), OutputStream.nullOutputStream());
+
+        Assert.assertTrue(protocolEngine.read());
+        Assert.assertTrue(protocolEngine.isClosed());
+        Assert.assertFalse(protocolEngine.read());
+        Assert.assertSame(GameStatus.ON_CREATE, battleship.battleshipEngine.getYourGameStatus());
+    }
+}
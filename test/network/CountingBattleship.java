@@ -0,0 +1,71 @@
+package network;
+
+import battleship.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+
+/**
+ * The client side of a benchmark session. It only counts the results that
+ * are sent back by the other side, the rest of the game logic is not needed
+ * by the benchmarks.
+ *
+ * @author friedrichvoelkers
+ */
+final class CountingBattleship implements Battleship, GameSessionEstablishedListener {
+
+    static final String CLIENT = "Client";
+
+    final BattleshipProtocolEngine protocolEngine = new BattleshipProtocolEngine(this, CLIENT);
+    final Semaphore results = new Semaphore(0);
+    private final CountDownLatch established;
+
+    CountingBattleship(CountDownLatch established) {
+        this.established = established;
+        this.protocolEngine.subscribeGameSessionEstablishedListener(this);
+    }
+
+    @Override
+    public void doFire(Coordinate coordinate, boolean isYourBoard) {
+    }
+
+    @Override
+    public void doSetShips(Coordinate startCoordinate, Coordinate endCoordinate) {
+    }
+
+    @Override
+    public void doSetFleet(List<Ship> ships) {
+    }
+
+    @Override
+    public void doChangeGameStatus(GameStatus gameStatus, boolean isYourStatus, boolean bothPlayerSetAllShips) {
+    }
+
+    @Override
+    public void doSendResult(BattleshipFieldStatus battleshipFieldStatus, Coordinate coordinate) {
+    }
+
+    @Override
+    public void doSendFireResult(FireResult fireResult) {
+        this.results.release();
+    }
+
+    @Override
+    public void doSendEvent(GameEvent gameEvent, int firstValue, int secondValue) {
+    }
+
+    @Override
+    public void doFireSalvo(List<Coordinate> coordinates, boolean isYourBoard) {
+    }
+
+    @Override
+    public void doSendSalvoResult(List<FireResult> fireResults) {
+        this.results.release(fireResults.size());
+    }
+
+    @Override
+    public void gameSessionEstablished(boolean coinToss, String partnerName) {
+        this.established.countDown();
+    }
+}
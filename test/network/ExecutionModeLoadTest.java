@@ -0,0 +1,155 @@
+package network;
+
+import battleship.BattleshipImpl;
+import battleship.BattleshipProtocolEngine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+
+/**
+ * This load test compares platform and virtual threads. For every execution
+ * mode it starts a number of protocol engines whose read loop blocks until the
+ * end of the test and reports the used heap and the resident set size per
+ * blocked reader. Afterwards pairs of session tasks hand a token back and forth
+ * to measure the cost of a context switch.
+ * <p>
+ * Usage: ExecutionModeLoadTest [blockedReaders] [pingPongPairs] [roundTrips]
+ *
+ * @author friedrichvoelkers
+ */
+public class ExecutionModeLoadTest {
+
+    private static final String NAME = "Reader";
+
+    public static void main(String[] args) throws Exception {
+        int numberOfReaders = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int numberOfPairs = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int roundTrips = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+
+        PrintStream result = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+
+        result.println("blocked readers: " + numberOfReaders + ", ping pong pairs: " + numberOfPairs + ", round trips: " + roundTrips);
+        for (ExecutionMode executionMode : ExecutionMode.values()) {
+            SessionExecutor.setExecutionMode(executionMode);
+            result.println(executionMode + "\t" + measureBlockedReaders(numberOfReaders) + "\t" +
+                    measureContextSwitches(executionMode, numberOfPairs, roundTrips));
+        }
+        System.exit(0);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                           measurements                                                 //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static String measureBlockedReaders(int numberOfReaders) throws Exception {
+        long usedHeapBefore = usedHeap();
+        long residentSetSizeBefore = residentSetSize();
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(numberOfReaders);
+        for (int i = 0; i < numberOfReaders; i++) {
+            BattleshipImpl battleship = new BattleshipImpl(NAME);
+            BattleshipProtocolEngine protocolEngine = new BattleshipProtocolEngine(battleship, NAME);
+            battleship.setProtocolEngine(protocolEngine);
+            protocolEngine.handleConnection(new BlockingInputStream(blocked, release), OutputStream.nullOutputStream());
+        }
+        blocked.await();
+
+        long usedHeap = usedHeap() - usedHeapBefore;
+        long residentSetSize = residentSetSize() - residentSetSizeBefore;
+        release.countDown();
+
+        return String.format("heap: %6.1f KB/reader, rss: %6.1f KB/reader",
+                usedHeap / 1024.0 / numberOfReaders, residentSetSize / 1024.0 / numberOfReaders);
+    }
+
+    private static String measureContextSwitches(ExecutionMode executionMode, int numberOfPairs, int roundTrips) throws InterruptedException {
+        ExecutorService executorService = SessionExecutor.createExecutorService(executionMode);
+        CountDownLatch finished = new CountDownLatch(numberOfPairs);
+
+        long start = System.nanoTime();
+        for (int pair = 0; pair < numberOfPairs; pair++) {
+            SynchronousQueue<Integer> ping = new SynchronousQueue<>();
+            SynchronousQueue<Integer> pong = new SynchronousQueue<>();
+            executorService.execute(() -> {
+                try {
+                    for (int i = 0; i < roundTrips; i++) pong.put(ping.take());
+                } catch (InterruptedException ignored) {
+                }
+            });
+            executorService.execute(() -> {
+                try {
+                    for (int i = 0; i < roundTrips; i++) {
+                        ping.put(i);
+                        pong.take();
+                    }
+                } catch (InterruptedException ignored) {
+                }
+                finished.countDown();
+            });
+        }
+        finished.await();
+        long nanoseconds = System.nanoTime() - start;
+        executorService.shutdown();
+
+        // Every round trip consists of two hand-offs, i.e. two context switches
+        return String.format("context switch: %8.0f ns", nanoseconds / (2.0 * numberOfPairs * roundTrips));
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                          helper methods                                                //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long residentSetSize() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+            }
+        } catch (IOException | NumberFormatException ignored) {
+        }
+        return 0;
+    }
+
+    /**
+     * An InputStream that blocks like a socket without any incoming data
+     * until the test releases it.
+     */
+    private static final class BlockingInputStream extends InputStream {
+        private final CountDownLatch blocked;
+        private final CountDownLatch release;
+
+        BlockingInputStream(CountDownLatch blocked, CountDownLatch release) {
+            this.blocked = blocked;
+            this.release = release;
+        }
+
+        @Override
+        public int read() throws IOException {
+            this.blocked.countDown();
+            try {
+                this.release.await();
+            } catch (InterruptedException ex) {
+                throw new IOException(ex);
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package network;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * This test class tests that frames collected in a FrameBuffer are
+ * written with one call and read back by the FrameReader.
+ *
+ * @author friedrichvoelkers
+ */
+public class FrameBufferTest {
+
+    @Test
+    public void writeTwoFramesAtOnceAndReadThem() throws IOException {
+        FrameBuffer frameBuffer = new FrameBuffer(4);
+        DataOutputStream payload = frameBuffer.beginFrame(2);
+        payload.writeInt(3);
+        payload.writeInt(7);
+        frameBuffer.endFrame();
+        frameBuffer.beginFrame(6).writeUTF("Hello");
+        frameBuffer.endFrame();
+        Assert.assertEquals(2, frameBuffer.getNumberOfFrames());
+
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        frameBuffer.writeTo(byteArrayOutputStream);
+        Assert.assertTrue(frameBuffer.isEmpty());
+
+        FrameReader frameReader = new FrameReader(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()));
+        Assert.assertEquals(2, frameReader.readFrame());
+        Assert.assertEquals(3, frameReader.getPayload().readInt());
+        Assert.assertEquals(7, frameReader.getPayload().readInt());
+        Assert.assertEquals(6, frameReader.readFrame());
+        Assert.assertEquals("Hello", frameReader.getPayload().readUTF());
+    }
+
+    @Test
+    public void skipUnreadPayload() throws IOException {
+        FrameBuffer frameBuffer = new FrameBuffer();
+        frameBuffer.beginFrame(99).writeLong(42);
+        frameBuffer.endFrame();
+        frameBuffer.beginFrame(7);
+        frameBuffer.endFrame();
+
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        frameBuffer.writeTo(byteArrayOutputStream);
+
+        FrameReader frameReader = new FrameReader(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()));
+        Assert.assertEquals(99, frameReader.readFrame());
+        Assert.assertEquals(7, frameReader.readFrame());
+    }
+}
@@ -0,0 +1,47 @@
+package network;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This test class tests that the HashedTimerWheel expires
+ * timeouts not before their deadline and skips cancelled ones.
+ *
+ * @author friedrichvoelkers
+ */
+public class HashedTimerWheelTest {
+
+    @Test
+    public void expireAfterMoreThanOneRound() throws InterruptedException {
+        // 8 buckets of 10 ms: a timeout of 200 ms needs more than two rounds
+        HashedTimerWheel hashedTimerWheel = new HashedTimerWheel(10, TimeUnit.MILLISECONDS, 8);
+        CountDownLatch expired = new CountDownLatch(1);
+        long start = System.nanoTime();
+        hashedTimerWheel.newTimeout(expired::countDown, 200, TimeUnit.MILLISECONDS);
+
+        Assert.assertTrue(expired.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 200);
+        hashedTimerWheel.stop();
+    }
+
+    @Test
+    public void cancelledTimeoutDoesNotExpire() throws InterruptedException {
+        HashedTimerWheel hashedTimerWheel = new HashedTimerWheel(10, TimeUnit.MILLISECONDS, 8);
+        AtomicBoolean cancelledExpired = new AtomicBoolean(false);
+        CountDownLatch expired = new CountDownLatch(1);
+
+        HashedTimerWheel.Timeout timeout = hashedTimerWheel.newTimeout(() -> cancelledExpired.set(true), 50, TimeUnit.MILLISECONDS);
+        hashedTimerWheel.newTimeout(expired::countDown, 100, TimeUnit.MILLISECONDS);
+        timeout.cancel();
+
+        Assert.assertTrue(expired.await(5, TimeUnit.SECONDS));
+        Assert.assertFalse(cancelledExpired.get());
+        Assert.assertFalse(timeout.isExpired());
+        Assert.assertEquals(0, hashedTimerWheel.getNumberOfTimeouts());
+        hashedTimerWheel.stop();
+    }
+}
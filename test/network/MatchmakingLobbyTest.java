@@ -0,0 +1,102 @@
+package network;
+
+import battleship.BattleshipImpl;
+import battleship.BattleshipProtocolEngine;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This test class tests that the MatchmakingLobby pairs
+ * the players in the order of their arrival and evicts
+ * players that leave the queue.
+ *
+ * @author friedrichvoelkers
+ */
+public class MatchmakingLobbyTest {
+
+    public static final int PORTNUMBER = 3200;
+    public static final int EVICTION_PORTNUMBER = 3201;
+    public static final String[] PLAYERS = {"Friedrich", "Sabine", "Thomas", "Anna"};
+
+    @Test
+    public void pairFourPlayers() throws IOException, InterruptedException {
+        MatchmakingLobby matchmakingLobby = new MatchmakingLobby(PORTNUMBER);
+        matchmakingLobby.start();
+
+        try {
+            CountDownLatch established = new CountDownLatch(PLAYERS.length);
+            ConcurrentHashMap<String, String> partnerNames = new ConcurrentHashMap<>();
+
+            for (int i = 0; i < PLAYERS.length; i++) {
+                join(PLAYERS[i], established, partnerNames, PORTNUMBER);
+                waitForArrivals(matchmakingLobby, i + 1);
+            }
+
+            Assert.assertTrue(established.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(PLAYERS[1], partnerNames.get(PLAYERS[0]));
+            Assert.assertEquals(PLAYERS[0], partnerNames.get(PLAYERS[1]));
+            Assert.assertEquals(PLAYERS[3], partnerNames.get(PLAYERS[2]));
+            Assert.assertEquals(PLAYERS[2], partnerNames.get(PLAYERS[3]));
+            Assert.assertEquals(2, matchmakingLobby.getNumberOfPairs());
+            Assert.assertEquals(0, matchmakingLobby.getNumberOfWaitingPlayers());
+        } finally {
+            matchmakingLobby.close();
+        }
+    }
+
+    @Test
+    public void evictPlayerThatLeftTheQueue() throws IOException, InterruptedException {
+        MatchmakingLobby matchmakingLobby = new MatchmakingLobby(EVICTION_PORTNUMBER);
+        matchmakingLobby.start();
+
+        try {
+            Socket leavingSocket = new Socket("localhost", EVICTION_PORTNUMBER);
+            waitForArrivals(matchmakingLobby, 1);
+            Assert.assertEquals(1, matchmakingLobby.getNumberOfWaitingPlayers());
+            leavingSocket.close();
+            for (int i = 0; i < 100 && matchmakingLobby.getNumberOfWaitingPlayers() > 0; i++) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(0, matchmakingLobby.getNumberOfWaitingPlayers());
+            Assert.assertEquals(1, matchmakingLobby.getNumberOfEvictions());
+
+            CountDownLatch established = new CountDownLatch(2);
+            ConcurrentHashMap<String, String> partnerNames = new ConcurrentHashMap<>();
+            join(PLAYERS[0], established, partnerNames, EVICTION_PORTNUMBER);
+            waitForArrivals(matchmakingLobby, 2);
+            join(PLAYERS[1], established, partnerNames, EVICTION_PORTNUMBER);
+
+            Assert.assertTrue(established.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(PLAYERS[1], partnerNames.get(PLAYERS[0]));
+            Assert.assertEquals(PLAYERS[0], partnerNames.get(PLAYERS[1]));
+            Assert.assertEquals(1, matchmakingLobby.getNumberOfPairs());
+        } finally {
+            matchmakingLobby.close();
+        }
+    }
+
+    private static void join(String name, CountDownLatch established, ConcurrentHashMap<String, String> partnerNames, int port) throws IOException {
+        BattleshipImpl battleship = new BattleshipImpl(name);
+        BattleshipProtocolEngine protocolEngine = new BattleshipProtocolEngine(battleship, name);
+        battleship.setProtocolEngine(protocolEngine);
+        protocolEngine.subscribeGameSessionEstablishedListener((coinToss, partnerName) -> {
+            partnerNames.put(name, partnerName);
+            established.countDown();
+        });
+
+        Socket socket = new Socket("localhost", port);
+        protocolEngine.handleConnection(socket.getInputStream(), socket.getOutputStream());
+    }
+
+    private static void waitForArrivals(MatchmakingLobby matchmakingLobby, int numberOfArrivals) throws InterruptedException {
+        for (int i = 0; i < 100 && matchmakingLobby.getNumberOfArrivals() < numberOfArrivals; i++) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package network;
+
+import battleship.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark compares the NioGameServer with the thread-per-connection
+ * model of the TCPStream. For both models it establishes a number of sessions,
+ * measures the used heap and the number of threads and then lets every
+ * session fire a number of shots. It reports the sessions per GB of heap
+ * and the turns per second. The client side of every session runs in the
+ * same JVM, so both numbers include the clients in both models.
+ * <p>
+ * Usage: NioGameServerBenchmark [sessions] [turnsPerSession] [ioThreads]
+ *
+ * @author friedrichvoelkers
+ */
+public class NioGameServerBenchmark {
+
+    private static final String SERVER = "Server";
+    private static final int FIRST_PORT_THREAD_PER_CONNECTION = 4000;
+    private static final double BYTES_PER_GB = 1024.0 * 1024.0 * 1024.0;
+
+    public static void main(String[] args) throws Exception {
+        int numberOfSessions = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int turnsPerSession = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int numberOfIoThreads = args.length > 2 ? Integer.parseInt(args[2]) : NioGameServer.DEFAULT_NUMBER_OF_IO_THREADS;
+
+        PrintStream result = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        result.println("sessions: " + numberOfSessions + ", turns per session: " + turnsPerSession);
+        result.println(runThreadPerConnection(numberOfSessions, turnsPerSession));
+        result.println(runNioGameServer(numberOfSessions, turnsPerSession, numberOfIoThreads));
+        System.exit(0);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                             scenarios                                                  //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static String runThreadPerConnection(int numberOfSessions, int turnsPerSession) throws Exception {
+        long usedHeapBefore = usedHeap();
+        int threadsBefore = Thread.activeCount();
+
+        List<TCPStream> serverStreams = new ArrayList<>();
+        List<TCPStream> clientStreams = new ArrayList<>();
+        for (int i = 0; i < numberOfSessions; i++) {
+            TCPStream serverStream = new TCPStream(FIRST_PORT_THREAD_PER_CONNECTION + i, true, SERVER);
+            serverStream.start();
+            serverStreams.add(serverStream);
+        }
+        for (int i = 0; i < numberOfSessions; i++) {
+            TCPStream clientStream = new TCPStream(FIRST_PORT_THREAD_PER_CONNECTION + i, false, CountingBattleship.CLIENT);
+            clientStream.start();
+            clientStreams.add(clientStream);
+        }
+
+        List<CountingBattleship> clients = new ArrayList<>();
+        CountDownLatch established = new CountDownLatch(numberOfSessions);
+        for (int i = 0; i < numberOfSessions; i++) {
+            serverStreams.get(i).waitForConnection();
+            clientStreams.get(i).waitForConnection();
+            createServerProtocolEngine().handleConnection(serverStreams.get(i).getInputStream(), serverStreams.get(i).getOutputStream());
+            CountingBattleship client = new CountingBattleship(established);
+            client.protocolEngine.handleConnection(clientStreams.get(i).getInputStream(), clientStreams.get(i).getOutputStream());
+            clients.add(client);
+        }
+        established.await();
+
+        String report = report("thread per connection", numberOfSessions, usedHeap() - usedHeapBefore,
+                Thread.activeCount() - threadsBefore, playTurns(clients, turnsPerSession));
+        for (CountingBattleship client : clients) client.protocolEngine.close();
+        return report;
+    }
+
+    private static String runNioGameServer(int numberOfSessions, int turnsPerSession, int numberOfIoThreads) throws Exception {
+        long usedHeapBefore = usedHeap();
+        int threadsBefore = Thread.activeCount();
+
+        NioGameServer nioGameServer = new NioGameServer(Battleship.DEFAULT_PORT, numberOfIoThreads, NioGameServerBenchmark::createServerProtocolEngine);
+        nioGameServer.start();
+
+        List<CountingBattleship> clients = new ArrayList<>();
+        CountDownLatch established = new CountDownLatch(numberOfSessions);
+        for (int i = 0; i < numberOfSessions; i++) {
+            Socket socket = new Socket(Battleship.LOCALHOST, Battleship.DEFAULT_PORT);
+            socket.setTcpNoDelay(true);
+            CountingBattleship client = new CountingBattleship(established);
+            client.protocolEngine.handleConnection(socket.getInputStream(), socket.getOutputStream());
+            clients.add(client);
+        }
+        established.await();
+
+        String report = report("NioGameServer (" + numberOfIoThreads + " I/O threads)", numberOfSessions,
+                usedHeap() - usedHeapBefore, Thread.activeCount() - threadsBefore, playTurns(clients, turnsPerSession));
+        for (CountingBattleship client : clients) client.protocolEngine.close();
+        nioGameServer.close();
+        return report;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                          helper methods                                                //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static ProtocolEngine createServerProtocolEngine() {
+        BattleshipImpl battleship = new BattleshipImpl(SERVER);
+        BattleshipProtocolEngine protocolEngine = new BattleshipProtocolEngine(battleship, SERVER);
+        battleship.setProtocolEngine(protocolEngine);
+        return protocolEngine;
+    }
+
+    private static double playTurns(List<CountingBattleship> clients, int turnsPerSession) throws InterruptedException {
+        CountDownLatch finished = new CountDownLatch(clients.size());
+        long start = System.nanoTime();
+        for (CountingBattleship client : clients) {
+            new Thread(() -> {
+                try {
+                    for (int turn = 0; turn < turnsPerSession; turn++) {
+                        client.protocolEngine.doFire(new Coordinate(turn % 10, (turn / 10) % 10), false);
+                        if (!client.results.tryAcquire(10, TimeUnit.SECONDS)) break;
+                    }
+                } catch (GameException | InterruptedException ignored) {
+                }
+                finished.countDown();
+            }).start();
+        }
+        finished.await();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return clients.size() * (double) turnsPerSession / seconds;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static String report(String model, int numberOfSessions, long usedHeap, int numberOfThreads, double turnsPerSecond) {
+        double sessionsPerGB = usedHeap > 0 ? numberOfSessions / (usedHeap / BYTES_PER_GB) : Double.POSITIVE_INFINITY;
+        return String.format("%-40s heap: %8.1f KB/session, %10.0f sessions/GB, threads: %5d, turns/s: %10.0f",
+                model, usedHeap / 1024.0 / numberOfSessions, sessionsPerGB, numberOfThreads, turnsPerSecond);
+    }
+}
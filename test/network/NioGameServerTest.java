@@ -0,0 +1,144 @@
+package network;
+
+import battleship.BattleshipImpl;
+import battleship.BattleshipProtocolEngine;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This test class tests that the NioGameServer hosts
+ * more than one session on the same port and that a session
+ * buffers only a bounded amount of outbound data.
+ *
+ * @author friedrichvoelkers
+ */
+public class NioGameServerTest {
+
+    public static final int PORTNUMBER = 3100;
+    public static final String SERVER = "Server";
+    public static final String FRIEDRICH = "Friedrich";
+    public static final String SABINE = "Sabine";
+
+    @Test
+    public void twoSessionsOnOnePort() throws IOException, InterruptedException {
+        NioGameServer nioGameServer = new NioGameServer(PORTNUMBER, 1, NioGameServerTest::createServerProtocolEngine);
+        nioGameServer.start();
+
+        try {
+            CountDownLatch established = new CountDownLatch(2);
+            String[] partnerNames = new String[2];
+
+            BattleshipProtocolEngine friedrichProtocolEngine = connect(FRIEDRICH, established, partnerNames, 0);
+            BattleshipProtocolEngine sabineProtocolEngine = connect(SABINE, established, partnerNames, 1);
+
+            Assert.assertTrue(established.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(SERVER, partnerNames[0]);
+            Assert.assertEquals(SERVER, partnerNames[1]);
+            Assert.assertEquals(2, nioGameServer.getNumberOfSessions());
+
+            friedrichProtocolEngine.close();
+            sabineProtocolEngine.close();
+        } finally {
+            nioGameServer.close();
+        }
+    }
+
+    @Test
+    public void slowReaderStallsTheWriter() throws IOException, InterruptedException {
+        int numberOfBytes = 8 * 1024 * 1024;
+        AtomicInteger writtenBytes = new AtomicInteger();
+        CountDownLatch allWritten = new CountDownLatch(1);
+        NioGameServer nioGameServer = new NioGameServer(PORTNUMBER, 1, () -> new WritingProtocolEngine(numberOfBytes, writtenBytes, allWritten));
+        nioGameServer.start();
+
+        try (Socket socket = new Socket()) {
+            socket.setReceiveBufferSize(4 * 1024);
+            socket.connect(new InetSocketAddress("localhost", PORTNUMBER));
+
+            // nobody reads, the writer has to stop long before all bytes are written
+            Assert.assertFalse(allWritten.await(1, TimeUnit.SECONDS));
+            Assert.assertTrue(writtenBytes.get() < numberOfBytes);
+
+            byte[] bytes = new byte[numberOfBytes];
+            new DataInputStream(socket.getInputStream()).readFully(bytes);
+            for (int i = 0; i < numberOfBytes; i++) {
+                if (bytes[i] != (byte) i) Assert.fail("byte " + i + " is out of order");
+            }
+            Assert.assertTrue(allWritten.await(5, TimeUnit.SECONDS));
+        } finally {
+            nioGameServer.close();
+        }
+    }
+
+    private static ProtocolEngine createServerProtocolEngine() {
+        BattleshipImpl battleship = new BattleshipImpl(SERVER);
+        BattleshipProtocolEngine protocolEngine = new BattleshipProtocolEngine(battleship, SERVER);
+        battleship.setProtocolEngine(protocolEngine);
+        return protocolEngine;
+    }
+
+    private static BattleshipProtocolEngine connect(String name, CountDownLatch established, String[] partnerNames, int index) throws IOException {
+        BattleshipImpl battleship = new BattleshipImpl(name);
+        BattleshipProtocolEngine protocolEngine = new BattleshipProtocolEngine(battleship, name);
+        battleship.setProtocolEngine(protocolEngine);
+        protocolEngine.subscribeGameSessionEstablishedListener((coinToss, partnerName) -> {
+            partnerNames[index] = partnerName;
+            established.countDown();
+        });
+
+        Socket socket = new Socket("localhost", PORTNUMBER);
+        protocolEngine.handleConnection(socket.getInputStream(), socket.getOutputStream());
+        return protocolEngine;
+    }
+
+    /**
+     * Writes numberOfBytes bytes in chunks as fast as the session accepts them.
+     */
+    private static final class WritingProtocolEngine implements ProtocolEngine {
+        private final int numberOfBytes;
+        private final AtomicInteger writtenBytes;
+        private final CountDownLatch allWritten;
+
+        WritingProtocolEngine(int numberOfBytes, AtomicInteger writtenBytes, CountDownLatch allWritten) {
+            this.numberOfBytes = numberOfBytes;
+            this.writtenBytes = writtenBytes;
+            this.allWritten = allWritten;
+        }
+
+        @Override
+        public void handleConnection(InputStream inputStream, OutputStream outputStream) {
+            new Thread(() -> {
+                byte[] chunk = new byte[1024];
+                try {
+                    while (this.writtenBytes.get() < this.numberOfBytes) {
+                        int offset = this.writtenBytes.get();
+                        for (int i = 0; i < chunk.length; i++) chunk[i] = (byte) (offset + i);
+                        outputStream.write(chunk);
+                        this.writtenBytes.addAndGet(chunk.length);
+                    }
+                    this.allWritten.countDown();
+                } catch (IOException ex) {
+                    // the session was closed
+                }
+            }).start();
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void subscribeGameSessionEstablishedListener(GameSessionEstablishedListener gameSessionEstablishedListener) {
+        }
+    }
+}
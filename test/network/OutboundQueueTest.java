@@ -0,0 +1,160 @@
+package network;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This test class tests that the OutboundQueue does not block
+ * the caller on a slow peer and signals the backpressure.
+ *
+ * @author friedrichvoelkers
+ */
+public class OutboundQueueTest {
+
+    public static final int CAPACITY = 100;
+    public static final int MESSAGE_SIZE = 10;
+
+    @Test
+    public void signalSlowPeerAndRejectWhenFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        SlowOutputStream slowOutputStream = new SlowOutputStream(release);
+        OutboundQueue outboundQueue = new OutboundQueue(slowOutputStream, CAPACITY);
+
+        CountDownLatch fallingBehind = new CountDownLatch(1);
+        CountDownLatch caughtUp = new CountDownLatch(1);
+        outboundQueue.subscribeBackpressureListener(new BackpressureListener() {
+            @Override
+            public void peerFallingBehind(OutboundQueue queue) {
+                fallingBehind.countDown();
+            }
+
+            @Override
+            public void peerCaughtUp(OutboundQueue queue) {
+                caughtUp.countDown();
+            }
+        });
+
+        // The writer task blocks on the first message, so the queue holds all of them
+        for (int i = 0; i < CAPACITY / MESSAGE_SIZE; i++) sendMessage(outboundQueue, i);
+        Assert.assertTrue(fallingBehind.await(1, TimeUnit.SECONDS));
+        Assert.assertTrue(outboundQueue.isFallingBehind());
+
+        try {
+            sendMessage(outboundQueue, CAPACITY);
+            Assert.fail("the queue should be full");
+        } catch (OutboundQueue.QueueFullException ignored) {
+        }
+        Assert.assertEquals(1, outboundQueue.getNumberOfRejectedMessages());
+
+        release.countDown();
+        Assert.assertTrue(caughtUp.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 100 && outboundQueue.getQueuedBytes() > 0; i++) Thread.sleep(10);
+
+        byte[] written = slowOutputStream.toByteArray();
+        Assert.assertEquals(CAPACITY, written.length);
+        for (int i = 0; i < CAPACITY; i++) Assert.assertEquals(i / MESSAGE_SIZE, written[i]);
+    }
+
+    @Test
+    public void writeAllMessagesWithOneWriterTask() throws Exception {
+        AtomicInteger numberOfTasks = new AtomicInteger();
+        ExecutionMode executionMode = SessionExecutor.getExecutionMode();
+        ExecutorService executorService = SessionExecutor.createExecutorService(executionMode);
+        SessionExecutor.setExecutorService(new AbstractExecutorService() {
+            @Override
+            public void execute(Runnable task) {
+                numberOfTasks.incrementAndGet();
+                executorService.execute(task);
+            }
+
+            @Override
+            public void shutdown() {
+            }
+
+            @Override
+            public List<Runnable> shutdownNow() {
+                return List.of();
+            }
+
+            @Override
+            public boolean isShutdown() {
+                return false;
+            }
+
+            @Override
+            public boolean isTerminated() {
+                return false;
+            }
+
+            @Override
+            public boolean awaitTermination(long timeout, TimeUnit unit) {
+                return false;
+            }
+        });
+
+        try {
+            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+            OutboundQueue outboundQueue = new OutboundQueue(byteArrayOutputStream, CAPACITY);
+            // The queue is idle between the messages, so every flush finds the writer waiting
+            for (int i = 0; i < 10; i++) {
+                sendMessage(outboundQueue, i);
+                for (int j = 0; j < 100 && outboundQueue.getQueuedBytes() > 0; j++) Thread.sleep(10);
+            }
+            outboundQueue.close();
+            Assert.assertEquals(1, numberOfTasks.get());
+        } finally {
+            SessionExecutor.setExecutionMode(executionMode);
+            executorService.shutdown();
+        }
+    }
+
+    private static void sendMessage(OutboundQueue outboundQueue, int value) throws IOException {
+        for (int i = 0; i < MESSAGE_SIZE; i++) outboundQueue.write(value);
+        outboundQueue.flush();
+    }
+
+    /**
+     * An OutputStream of a peer that does not read until the test releases it.
+     */
+    private static final class SlowOutputStream extends OutputStream {
+        private final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        private final CountDownLatch release;
+
+        SlowOutputStream(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            this.write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            try {
+                this.release.await();
+            } catch (InterruptedException ex) {
+                throw new IOException(ex);
+            }
+            synchronized (this.byteArrayOutputStream) {
+                this.byteArrayOutputStream.write(bytes, offset, length);
+            }
+        }
+
+        byte[] toByteArray() {
+            synchronized (this.byteArrayOutputStream) {
+                return this.byteArrayOutputStream.toByteArray();
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package network;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This test class tests that a ResumableConnection replays
+ * exactly the frames the other side has missed.
+ *
+ * @author friedrichvoelkers
+ */
+public class ResumableConnectionTest {
+
+    @Test
+    public void resumeAndReplayMissedFrames() throws Exception {
+        InProcessPipeTransport firstTransport = new InProcessPipeTransport();
+        StreamConnection serverConnection = firstTransport.connect(true, "Server");
+        StreamConnection clientConnection = firstTransport.connect(false, "Client");
+
+        CompletableFuture<ResumableConnection> server = create(serverConnection);
+        ResumableConnection client = new ResumableConnection(clientConnection.getInputStream(), clientConnection.getOutputStream());
+        ResumableConnection resumableServer = server.get(5, TimeUnit.SECONDS);
+
+        CountDownLatch connectionLost = new CountDownLatch(1);
+        client.subscribeConnectionLostListener(resumableConnection -> connectionLost.countDown());
+
+        DataOutputStream serverOutputStream = new DataOutputStream(resumableServer.getOutputStream());
+        DataInputStream clientInputStream = new DataInputStream(client.getInputStream());
+        serverOutputStream.writeInt(1);
+        serverOutputStream.flush();
+        Assert.assertEquals(1, clientInputStream.readInt());
+
+        // Drop the connection and send two frames the client will miss
+        CompletableFuture<Integer> nextInt = new CompletableFuture<>();
+        SessionExecutor.execute(() -> {
+            try {
+                nextInt.complete(clientInputStream.readInt());
+            } catch (IOException ex) {
+                nextInt.completeExceptionally(ex);
+            }
+        });
+        clientConnection.close();
+        Assert.assertTrue(connectionLost.await(5, TimeUnit.SECONDS));
+        serverOutputStream.writeInt(2);
+        serverOutputStream.flush();
+        serverOutputStream.writeInt(3);
+        serverOutputStream.flush();
+
+        InProcessPipeTransport secondTransport = new InProcessPipeTransport();
+        StreamConnection newServerConnection = secondTransport.connect(true, "Server");
+        StreamConnection newClientConnection = secondTransport.connect(false, "Client");
+        CompletableFuture<Void> resumed = CompletableFuture.runAsync(() -> {
+            try {
+                resumableServer.resume(newServerConnection.getInputStream(), newServerConnection.getOutputStream());
+            } catch (IOException ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+        client.resume(newClientConnection.getInputStream(), newClientConnection.getOutputStream());
+        resumed.get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(2, (int) nextInt.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(3, clientInputStream.readInt());
+
+        DataOutputStream clientOutputStream = new DataOutputStream(client.getOutputStream());
+        clientOutputStream.writeInt(4);
+        clientOutputStream.flush();
+        Assert.assertEquals(4, new DataInputStream(resumableServer.getInputStream()).readInt());
+
+        client.close();
+        resumableServer.close();
+    }
+
+    @Test(expected = IOException.class)
+    public void failWithoutResumeInTime() throws Exception {
+        InProcessPipeTransport transport = new InProcessPipeTransport();
+        StreamConnection serverConnection = transport.connect(true, "Server");
+        StreamConnection clientConnection = transport.connect(false, "Client");
+
+        CompletableFuture<ResumableConnection> server = create(serverConnection);
+        ResumableConnection client = new ResumableConnection(clientConnection.getInputStream(), clientConnection.getOutputStream(),
+                ResumableConnection.DEFAULT_REPLAY_BUFFER_SIZE, 100);
+        server.get(5, TimeUnit.SECONDS);
+
+        clientConnection.close();
+        client.getInputStream().read();
+    }
+
+    @Test
+    public void rejectInvalidFrameLength() throws Exception {
+        for (int length : new int[]{-1, FrameReader.MAX_FRAME_LENGTH + 1}) {
+            InProcessPipeTransport transport = new InProcessPipeTransport();
+            StreamConnection serverConnection = transport.connect(true, "Server");
+            StreamConnection clientConnection = transport.connect(false, "Client");
+
+            CompletableFuture<ResumableConnection> client = create(clientConnection);
+            DataOutputStream serverOutputStream = new DataOutputStream(serverConnection.getOutputStream());
+            serverOutputStream.writeLong(0);
+            serverOutputStream.flush();
+            new DataInputStream(serverConnection.getInputStream()).readLong();
+            serverOutputStream.writeInt(1);
+            serverOutputStream.writeInt(length);
+            serverOutputStream.flush();
+
+            try {
+                client.get(5, TimeUnit.SECONDS).getInputStream().read();
+                Assert.fail("A frame of length " + length + " was read.");
+            } catch (IOException ex) {
+                Assert.assertFalse(client.get().isConnected());
+            }
+        }
+    }
+
+    private static CompletableFuture<ResumableConnection> create(StreamConnection streamConnection) {
+        CompletableFuture<ResumableConnection> resumableConnection = new CompletableFuture<>();
+        SessionExecutor.execute(() -> {
+            try {
+                resumableConnection.complete(new ResumableConnection(streamConnection.getInputStream(), streamConnection.getOutputStream()));
+            } catch (IOException ex) {
+                resumableConnection.completeExceptionally(ex);
+            }
+        });
+        return resumableConnection;
+    }
+}
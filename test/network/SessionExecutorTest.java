@@ -0,0 +1,70 @@
+package network;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This test class tests that the SessionExecutor reports the
+ * execution mode of the executor it uses and only shuts down
+ * the executors it created itself.
+ *
+ * @author friedrichvoelkers
+ */
+public class SessionExecutorTest {
+
+    @Test
+    public void pluggedInExecutorHasNoExecutionMode() {
+        ExecutionMode executionMode = SessionExecutor.getExecutionMode();
+        ExecutorService executorService = SessionExecutor.createExecutorService(ExecutionMode.PLATFORM);
+        try {
+            SessionExecutor.setExecutorService(executorService);
+            Assert.assertNull(SessionExecutor.getExecutionMode());
+
+            SessionExecutor.setExecutionMode(executionMode);
+            Assert.assertEquals(executionMode, SessionExecutor.getExecutionMode());
+            Assert.assertFalse(executorService.isShutdown());
+        } finally {
+            SessionExecutor.setExecutionMode(executionMode);
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void changeExecutionModeWhileTasksAreRunning() throws InterruptedException {
+        ExecutionMode executionMode = SessionExecutor.getExecutionMode();
+        try {
+            SessionExecutor.setExecutionMode(ExecutionMode.PLATFORM);
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch finished = new CountDownLatch(1);
+            SessionExecutor.execute(() -> {
+                try {
+                    release.await();
+                    finished.countDown();
+                } catch (InterruptedException ignored) {
+                }
+            });
+
+            SessionExecutor.setExecutionMode(ExecutionMode.VIRTUAL);
+            Assert.assertEquals(ExecutionMode.VIRTUAL, SessionExecutor.getExecutionMode());
+            AtomicBoolean virtual = new AtomicBoolean();
+            CountDownLatch executed = new CountDownLatch(1);
+            SessionExecutor.execute(() -> {
+                virtual.set(Thread.currentThread().isVirtual());
+                executed.countDown();
+            });
+            Assert.assertTrue(executed.await(5, TimeUnit.SECONDS));
+            Assert.assertTrue(virtual.get());
+
+            // The replaced executor is shut down, but its running task is not interrupted
+            release.countDown();
+            Assert.assertTrue(finished.await(5, TimeUnit.SECONDS));
+        } finally {
+            SessionExecutor.setExecutionMode(executionMode);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package network;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+
+/**
+ * This test class tests the connection setup and
+ * the connect policy of the TCPStream.
+ *
+ * @author friedrichvoelkers
+ */
+public class TCPStreamTest {
+
+    public static final String FRIEDRICH = "Friedrich";
+    public static final String SABINE = "Sabine";
+    public static final int PORTNUMBER = 3300;
+
+    @Test
+    public void backoffIsExponentialAndBounded() {
+        ConnectPolicy connectPolicy = new ConnectPolicy("localhost", 100, 10, 10, 80, 0.5);
+        for (int attempt = 1; attempt <= 10; attempt++) {
+            long maxBackoff = Math.min(80, 10L << (attempt - 1));
+            long backoff = connectPolicy.backoffInMillis(attempt);
+            Assert.assertTrue(backoff <= maxBackoff);
+            Assert.assertTrue(backoff >= maxBackoff / 2);
+        }
+    }
+
+    @Test
+    public void clientConnectsToLateServer() throws IOException, InterruptedException {
+        TCPStream sabineTCPStream = new TCPStream(PORTNUMBER, false, SABINE, new ConnectPolicy("localhost", 100, 20, 20, 100, 0.5));
+        sabineTCPStream.start();
+        Thread.sleep(150);
+
+        TCPStream friedrichTCPStream = new TCPStream(PORTNUMBER, true, FRIEDRICH);
+        friedrichTCPStream.start();
+
+        friedrichTCPStream.waitForConnection();
+        sabineTCPStream.waitForConnection();
+        Assert.assertTrue(sabineTCPStream.getNumberOfConnectAttempts() > 1);
+        Assert.assertTrue(sabineTCPStream.getTimeToConnectInMillis() > 0);
+        sabineTCPStream.getInputStream().close();
+        friedrichTCPStream.getInputStream().close();
+    }
+
+    @Test(expected = IOException.class)
+    public void waitForConnectionFailsFast() throws IOException {
+        TCPStream sabineTCPStream = new TCPStream(PORTNUMBER + 1, false, SABINE, new ConnectPolicy("localhost", 50, 3, 10, 20, 0.5));
+        sabineTCPStream.start();
+        sabineTCPStream.waitForConnection();
+    }
+}
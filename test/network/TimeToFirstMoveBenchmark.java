@@ -0,0 +1,74 @@
+package network;
+
+import battleship.BattleshipImpl;
+import battleship.BattleshipProtocolEngine;
+import battleship.Coordinate;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark measures the time to the first move on loopback: from starting
+ * both TCPStreams until the result of the first shot has arrived. It covers the
+ * connection setup, the readiness notification of the TCPStream, the handshake
+ * of the protocol engines and one round trip.
+ * <p>
+ * Usage: TimeToFirstMoveBenchmark [iterations]
+ *
+ * @author friedrichvoelkers
+ */
+public class TimeToFirstMoveBenchmark {
+
+    private static final String SERVER = "Server";
+    private static final int FIRST_PORT = 5000;
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+
+        PrintStream result = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+
+        double[] timesInMillis = new double[iterations];
+        for (int i = 0; i < iterations; i++) {
+            timesInMillis[i] = measureTimeToFirstMove(FIRST_PORT + i);
+        }
+        Arrays.sort(timesInMillis);
+
+        result.printf("time to first move over %d iterations: min %.1f ms, median %.1f ms, max %.1f ms%n",
+                iterations, timesInMillis[0], timesInMillis[iterations / 2], timesInMillis[iterations - 1]);
+        System.exit(0);
+    }
+
+    private static double measureTimeToFirstMove(int port) throws Exception {
+        long start = System.nanoTime();
+
+        TCPStream serverStream = new TCPStream(port, true, SERVER);
+        TCPStream clientStream = new TCPStream(port, false, CountingBattleship.CLIENT);
+        serverStream.start();
+        clientStream.start();
+        serverStream.waitForConnection();
+        clientStream.waitForConnection();
+
+        BattleshipImpl server = new BattleshipImpl(SERVER);
+        BattleshipProtocolEngine serverProtocolEngine = new BattleshipProtocolEngine(server, SERVER);
+        server.setProtocolEngine(serverProtocolEngine);
+        serverProtocolEngine.handleConnection(serverStream.getInputStream(), serverStream.getOutputStream());
+
+        CountDownLatch established = new CountDownLatch(1);
+        CountingBattleship client = new CountingBattleship(established);
+        client.protocolEngine.handleConnection(clientStream.getInputStream(), clientStream.getOutputStream());
+        established.await();
+
+        client.protocolEngine.doFire(new Coordinate(0, 0), false);
+        if (!client.results.tryAcquire(10, TimeUnit.SECONDS)) throw new IllegalStateException("no result");
+        double timeInMillis = (System.nanoTime() - start) / 1e6;
+
+        client.protocolEngine.close();
+        serverProtocolEngine.close();
+        return timeInMillis;
+    }
+}
@@ -0,0 +1,145 @@
+package network;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This benchmark compares the HashedTimerWheel with a ScheduledThreadPoolExecutor.
+ * For a growing number of sessions every session has one periodic heartbeat
+ * timeout, like the BattleshipProtocolEngine. The benchmark reports the time
+ * to schedule all timeouts and the CPU time of the timer per expired timeout.
+ * <p>
+ * Usage: TimerWheelBenchmark [heartbeatIntervalInMillis] [durationInMillis]
+ *
+ * @author friedrichvoelkers
+ */
+public class TimerWheelBenchmark {
+
+    private static final int[] NUMBERS_OF_SESSIONS = {1_000, 10_000, 100_000};
+
+    public static void main(String[] args) throws Exception {
+        long intervalInMillis = args.length > 0 ? Long.parseLong(args[0]) : 1_000;
+        long durationInMillis = args.length > 1 ? Long.parseLong(args[1]) : 5_000;
+
+        System.out.println("heartbeat interval: " + intervalInMillis + " ms, duration: " + durationInMillis + " ms");
+        for (int numberOfSessions : NUMBERS_OF_SESSIONS) {
+            System.out.println(runHashedTimerWheel(numberOfSessions, intervalInMillis, durationInMillis));
+            System.out.println(runScheduledExecutor(numberOfSessions, intervalInMillis, durationInMillis));
+        }
+        System.exit(0);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                             scenarios                                                  //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static String runHashedTimerWheel(int numberOfSessions, long intervalInMillis, long durationInMillis) throws InterruptedException {
+        Set<Thread> threadsBefore = Thread.getAllStackTraces().keySet();
+        HashedTimerWheel hashedTimerWheel = new HashedTimerWheel();
+        AtomicLong numberOfExpiredTimeouts = new AtomicLong();
+        Thread timerThread = findNewThread("battleship-timer-wheel", threadsBefore);
+        long cpuTimeBefore = cpuTime(timerThread);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < numberOfSessions; i++) {
+            new WheelHeartbeat(hashedTimerWheel, intervalInMillis, numberOfExpiredTimeouts).schedule();
+        }
+        long scheduleInNanos = System.nanoTime() - start;
+
+        Thread.sleep(durationInMillis);
+        long cpuTime = cpuTime(timerThread) - cpuTimeBefore;
+        hashedTimerWheel.stop();
+        return report("HashedTimerWheel", numberOfSessions, scheduleInNanos, cpuTime, numberOfExpiredTimeouts.get());
+    }
+
+    private static String runScheduledExecutor(int numberOfSessions, long intervalInMillis, long durationInMillis) throws InterruptedException {
+        Set<Thread> threadsBefore = Thread.getAllStackTraces().keySet();
+        ScheduledThreadPoolExecutor scheduledExecutor = new ScheduledThreadPoolExecutor(1, runnable -> new Thread(runnable, "scheduled-executor"));
+        AtomicLong numberOfExpiredTimeouts = new AtomicLong();
+        scheduledExecutor.prestartAllCoreThreads();
+        Thread timerThread = findNewThread("scheduled-executor", threadsBefore);
+        long cpuTimeBefore = cpuTime(timerThread);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < numberOfSessions; i++) {
+            new ScheduledHeartbeat(scheduledExecutor, intervalInMillis, numberOfExpiredTimeouts).schedule();
+        }
+        long scheduleInNanos = System.nanoTime() - start;
+
+        Thread.sleep(durationInMillis);
+        long cpuTime = cpuTime(timerThread) - cpuTimeBefore;
+        scheduledExecutor.shutdownNow();
+        return report("ScheduledThreadPoolExecutor", numberOfSessions, scheduleInNanos, cpuTime, numberOfExpiredTimeouts.get());
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                          helper methods                                                //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static Thread findNewThread(String name, Set<Thread> threadsBefore) {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals(name) && !threadsBefore.contains(thread)) return thread;
+        }
+        throw new IllegalStateException("no thread " + name);
+    }
+
+    private static long cpuTime(Thread thread) {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        return threadMXBean.getThreadCpuTime(thread.threadId());
+    }
+
+    private static String report(String timer, int numberOfSessions, long scheduleInNanos, long cpuTimeInNanos, long numberOfExpiredTimeouts) {
+        return String.format("%-30s sessions: %7d, schedule: %7.1f ns/session, timer cpu: %7.1f ns/expired timeout (%d expired)",
+                timer, numberOfSessions, scheduleInNanos / (double) numberOfSessions,
+                numberOfExpiredTimeouts == 0 ? 0 : cpuTimeInNanos / (double) numberOfExpiredTimeouts, numberOfExpiredTimeouts);
+    }
+
+    private static final class WheelHeartbeat implements Runnable {
+        private final HashedTimerWheel hashedTimerWheel;
+        private final long intervalInMillis;
+        private final AtomicLong numberOfExpiredTimeouts;
+
+        WheelHeartbeat(HashedTimerWheel hashedTimerWheel, long intervalInMillis, AtomicLong numberOfExpiredTimeouts) {
+            this.hashedTimerWheel = hashedTimerWheel;
+            this.intervalInMillis = intervalInMillis;
+            this.numberOfExpiredTimeouts = numberOfExpiredTimeouts;
+        }
+
+        void schedule() {
+            this.hashedTimerWheel.newTimeout(this, this.intervalInMillis, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void run() {
+            this.numberOfExpiredTimeouts.incrementAndGet();
+            this.schedule();
+        }
+    }
+
+    private static final class ScheduledHeartbeat implements Runnable {
+        private final ScheduledExecutorService scheduledExecutor;
+        private final long intervalInMillis;
+        private final AtomicLong numberOfExpiredTimeouts;
+
+        ScheduledHeartbeat(ScheduledExecutorService scheduledExecutor, long intervalInMillis, AtomicLong numberOfExpiredTimeouts) {
+            this.scheduledExecutor = scheduledExecutor;
+            this.intervalInMillis = intervalInMillis;
+            this.numberOfExpiredTimeouts = numberOfExpiredTimeouts;
+        }
+
+        void schedule() {
+            this.scheduledExecutor.schedule(this, this.intervalInMillis, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void run() {
+            this.numberOfExpiredTimeouts.incrementAndGet();
+            this.schedule();
+        }
+    }
+}
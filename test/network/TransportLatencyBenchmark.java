@@ -0,0 +1,84 @@
+package network;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * This benchmark compares the round trip latency of the three transports. One
+ * side echoes every message and the other side measures the time until the
+ * answer has arrived. A message has the size of a shot (12 bytes).
+ * <p>
+ * Usage: TransportLatencyBenchmark [roundTrips]
+ *
+ * @author friedrichvoelkers
+ */
+public class TransportLatencyBenchmark {
+
+    private static final int PORT = 5500;
+    private static final int MESSAGE_SIZE = 12;
+    private static final int WARM_UP_ROUND_TRIPS = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        int roundTrips = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+
+        PrintStream result = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        Path socketPath = Files.createTempDirectory("battleship").resolve("battleship.sock");
+        result.println("round trips: " + roundTrips + ", message size: " + MESSAGE_SIZE + " bytes");
+        result.println(measure("TCP", new TCPTransport(PORT), roundTrips));
+        result.println(measure("Unix domain socket", new UnixDomainSocketTransport(socketPath), roundTrips));
+        result.println(measure("in-process pipe", new InProcessPipeTransport(), roundTrips));
+        System.exit(0);
+    }
+
+    private static String measure(String name, Transport transport, int roundTrips) throws Exception {
+        CompletableFuture<StreamConnection> server = new CompletableFuture<>();
+        SessionExecutor.execute(() -> {
+            try {
+                server.complete(transport.connect(true, "Server"));
+            } catch (IOException ex) {
+                server.completeExceptionally(ex);
+            }
+        });
+        StreamConnection client = transport.connect(false, "Client");
+        StreamConnection echo = server.get();
+
+        SessionExecutor.execute(() -> {
+            byte[] message = new byte[MESSAGE_SIZE];
+            try {
+                DataInputStream dataInputStream = new DataInputStream(echo.getInputStream());
+                OutputStream outputStream = echo.getOutputStream();
+                while (true) {
+                    dataInputStream.readFully(message);
+                    outputStream.write(message);
+                }
+            } catch (IOException ignored) {
+            }
+        });
+
+        DataInputStream dataInputStream = new DataInputStream(client.getInputStream());
+        OutputStream outputStream = client.getOutputStream();
+        byte[] message = new byte[MESSAGE_SIZE];
+        long[] latencies = new long[roundTrips];
+
+        for (int i = 0; i < WARM_UP_ROUND_TRIPS + roundTrips; i++) {
+            long start = System.nanoTime();
+            outputStream.write(message);
+            dataInputStream.readFully(message);
+            if (i >= WARM_UP_ROUND_TRIPS) latencies[i - WARM_UP_ROUND_TRIPS] = System.nanoTime() - start;
+        }
+        client.close();
+        echo.close();
+
+        Arrays.sort(latencies);
+        return String.format("%-20s round trip p50: %8.1f us, p99: %8.1f us, max: %9.1f us", name,
+                latencies[roundTrips / 2] / 1e3, latencies[(int) (roundTrips * 0.99)] / 1e3, latencies[roundTrips - 1] / 1e3);
+    }
+}
@@ -0,0 +1,76 @@
+package network;
+
+import battleship.BattleshipImpl;
+import battleship.BattleshipProtocolEngine;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This test class tests that a game session can be
+ * established over every transport.
+ *
+ * @author friedrichvoelkers
+ */
+public class TransportTest {
+
+    public static final String FRIEDRICH = "Friedrich";
+    public static final String SABINE = "Sabine";
+
+    @Test
+    public void inProcessPipeTransport() throws Exception {
+        establishSession(new InProcessPipeTransport());
+    }
+
+    @Test
+    public void unixDomainSocketTransport() throws Exception {
+        establishSession(new UnixDomainSocketTransport(Files.createTempDirectory("battleship").resolve("test.sock")));
+    }
+
+    @Test
+    public void tcpTransport() throws Exception {
+        establishSession(new TCPTransport(3400));
+    }
+
+    private static void establishSession(Transport transport) throws Exception {
+        CompletableFuture<StreamConnection> friedrichConnection = new CompletableFuture<>();
+        SessionExecutor.execute(() -> {
+            try {
+                friedrichConnection.complete(transport.connect(true, FRIEDRICH));
+            } catch (IOException ex) {
+                friedrichConnection.completeExceptionally(ex);
+            }
+        });
+        StreamConnection sabineConnection = transport.connect(false, SABINE);
+
+        CountDownLatch established = new CountDownLatch(2);
+        ConcurrentHashMap<String, String> partnerNames = new ConcurrentHashMap<>();
+        start(FRIEDRICH, friedrichConnection.get(5, TimeUnit.SECONDS), established, partnerNames);
+        start(SABINE, sabineConnection, established, partnerNames);
+
+        Assert.assertTrue(established.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(SABINE, partnerNames.get(FRIEDRICH));
+        Assert.assertEquals(FRIEDRICH, partnerNames.get(SABINE));
+
+        friedrichConnection.get().close();
+        sabineConnection.close();
+    }
+
+    private static void start(String name, StreamConnection streamConnection, CountDownLatch established,
+                              ConcurrentHashMap<String, String> partnerNames) throws IOException {
+        BattleshipImpl battleship = new BattleshipImpl(name);
+        BattleshipProtocolEngine protocolEngine = new BattleshipProtocolEngine(battleship, name);
+        battleship.setProtocolEngine(protocolEngine);
+        protocolEngine.subscribeGameSessionEstablishedListener((coinToss, partnerName) -> {
+            partnerNames.put(name, partnerName);
+            established.countDown();
+        });
+        protocolEngine.handleConnection(streamConnection.getInputStream(), streamConnection.getOutputStream());
+    }
+}
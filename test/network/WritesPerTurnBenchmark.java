@@ -0,0 +1,158 @@
+package network;
+
+import battleship.*;
+
+import java.io.*;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * This benchmark counts the write calls and bytes that reach the transport
+ * when a player answers a shot. Every write call on an unbuffered socket
+ * stream is one system call and, with TCP_NODELAY and an idle connection,
+ * one TCP segment, so the write calls per turn are an upper bound for both.
+ * <p>
+ * "before" writes the four answers to a shot like the protocol did before the
+ * framing: every int and boolean directly with a DataOutputStream on the socket
+ * stream. "after" lets the BattleshipProtocolEngine answer the shots with one
+ * framed FIRE_RESULT message.
+ * <p>
+ * Usage: WritesPerTurnBenchmark [turns]
+ *
+ * @author friedrichvoelkers
+ */
+public class WritesPerTurnBenchmark {
+
+    private static final String NAME = "Player";
+    private static final int FORMER_METHOD_DO_SEND_MESSAGE = 6;
+    private static final String MESSAGE = "Unfortunately, you didn't hit a ship and it's your enemy's turn.";
+
+    public static void main(String[] args) throws Exception {
+        int numberOfTurns = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+
+        PrintStream result = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        result.println("turns: " + numberOfTurns);
+        result.println(report("before (unbuffered DataOutputStream)", numberOfTurns, runBefore(numberOfTurns)));
+        result.println(report("after (one FIRE_RESULT frame)", numberOfTurns, runAfter(numberOfTurns)));
+        System.exit(0);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                             scenarios                                                  //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static CountingOutputStream runBefore(int numberOfTurns) throws IOException {
+        CountingOutputStream countingOutputStream = new CountingOutputStream();
+        DataOutputStream dataOutputStream = new DataOutputStream(countingOutputStream);
+        for (int turn = 0; turn < numberOfTurns; turn++) {
+            dataOutputStream.writeInt(BattleshipProtocolEngine.METHOD_DO_CHANGE_STATUS);
+            dataOutputStream.writeInt(BattleshipProtocolEngine.GAME_STATUS_PLAYING_YOUR_TURN);
+            dataOutputStream.writeBoolean(true);
+            dataOutputStream.writeInt(BattleshipProtocolEngine.METHOD_DO_CHANGE_STATUS);
+            dataOutputStream.writeInt(BattleshipProtocolEngine.GAME_STATUS_PLAYING_ENEMY_TURN);
+            dataOutputStream.writeBoolean(false);
+            dataOutputStream.writeInt(BattleshipProtocolEngine.METHOD_DO_SEND_RESULT);
+            dataOutputStream.writeInt(BattleshipProtocolEngine.BATTLESHIP_FIELD_STATUS_EMPTY_NO_SHOOT);
+            dataOutputStream.writeInt(turn % 10);
+            dataOutputStream.writeInt(turn / 10 % 10);
+            dataOutputStream.writeInt(FORMER_METHOD_DO_SEND_MESSAGE);
+            dataOutputStream.writeUTF(MESSAGE);
+        }
+        return countingOutputStream;
+    }
+
+    private static CountingOutputStream runAfter(int numberOfTurns) throws Exception {
+        CountingOutputStream countingOutputStream = new CountingOutputStream();
+        CountDownLatch release = new CountDownLatch(1);
+        ByteArrayOutputStream handshake = new ByteArrayOutputStream();
+        DataOutputStream handshakeOutputStream = new DataOutputStream(handshake);
+        handshakeOutputStream.writeInt(BattleshipProtocolEngine.HANDSHAKE_MAGIC);
+        handshakeOutputStream.writeShort(BattleshipProtocolEngine.PROTOCOL_VERSION);
+        handshakeOutputStream.writeInt(BattleshipProtocolEngine.DEFAULT_CAPABILITIES);
+        handshakeOutputStream.writeUTF(NAME);
+        handshakeOutputStream.writeInt(BattleshipEngine.STANDARD_DIMENSION);
+        InputStream inputStream = new SequenceInputStream(new ByteArrayInputStream(handshake.toByteArray()), new BlockingInputStream(release));
+
+        BattleshipImpl battleship = new BattleshipImpl(NAME);
+        BattleshipProtocolEngine protocolEngine = new BattleshipProtocolEngine(battleship, NAME);
+        battleship.setProtocolEngine(protocolEngine);
+        protocolEngine.handleConnection(inputStream, countingOutputStream);
+
+        // Wait for the handshake and do not count it
+        while (countingOutputStream.numberOfWrites == 0) Thread.sleep(1);
+        countingOutputStream.reset();
+
+        for (int turn = 0; turn < numberOfTurns; turn++) {
+            battleship.doFire(new Coordinate(turn % 10, turn / 10 % 10), true);
+            waitUntilSent(protocolEngine);
+        }
+        release.countDown();
+        return countingOutputStream;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    //                                          helper methods                                                //
+    ////////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static void waitUntilSent(BattleshipProtocolEngine protocolEngine) throws InterruptedException {
+        while (protocolEngine.getOutboundQueue().getQueuedBytes() > 0) Thread.sleep(0, 100_000);
+    }
+
+    private static String report(String protocol, int numberOfTurns, CountingOutputStream countingOutputStream) {
+        return String.format("%-40s writes (syscalls, segments): %5.1f/turn, flushes: %5.1f/turn, bytes: %6.1f/turn",
+                protocol, countingOutputStream.numberOfWrites / (double) numberOfTurns,
+                countingOutputStream.numberOfFlushes / (double) numberOfTurns,
+                countingOutputStream.numberOfBytes / (double) numberOfTurns);
+    }
+
+    /**
+     * Counts the calls like an unbuffered socket stream would see them.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        private volatile long numberOfWrites = 0;
+        private volatile long numberOfFlushes = 0;
+        private volatile long numberOfBytes = 0;
+
+        @Override
+        public synchronized void write(int b) {
+            this.numberOfWrites++;
+            this.numberOfBytes++;
+        }
+
+        @Override
+        public synchronized void write(byte[] bytes, int offset, int length) {
+            this.numberOfWrites++;
+            this.numberOfBytes += length;
+        }
+
+        @Override
+        public synchronized void flush() {
+            this.numberOfFlushes++;
+        }
+
+        synchronized void reset() {
+            this.numberOfWrites = 0;
+            this.numberOfFlushes = 0;
+            this.numberOfBytes = 0;
+        }
+    }
+
+    private static final class BlockingInputStream extends InputStream {
+        private final CountDownLatch release;
+
+        BlockingInputStream(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                this.release.await();
+            } catch (InterruptedException ex) {
+                throw new IOException(ex);
+            }
+            return -1;
+        }
+    }
+}